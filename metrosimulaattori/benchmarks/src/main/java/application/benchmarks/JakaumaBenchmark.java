@@ -0,0 +1,59 @@
+package application.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import application.eduni.distributions.ContinuousGenerator;
+import application.eduni.distributions.Erlang;
+import application.eduni.distributions.Gamma;
+import application.eduni.distributions.LogNormal;
+import application.eduni.distributions.Negexp;
+import application.eduni.distributions.Normal;
+import application.eduni.distributions.Uniform;
+
+/**
+ * Jakaumien sample()-metodien nopeus. Normaalijakaumaa käytetään kaikissa palvelupisteissä ja saapumisissa.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class JakaumaBenchmark {
+
+	@Param({"Normal", "Negexp", "Uniform", "LogNormal", "Erlang", "Gamma"})
+	public String jakauma;
+
+	private ContinuousGenerator generaattori;
+
+	@Setup
+	public void alusta(){
+		long siemen = 4851;
+		switch (jakauma){
+			case "Normal": generaattori = new Normal(20, 10, siemen); break;
+			case "Negexp": generaattori = new Negexp(20, siemen); break;
+			case "Uniform": generaattori = new Uniform(10, 30, siemen); break;
+			case "LogNormal": generaattori = new LogNormal(3, 0.25, siemen); break;
+			case "Erlang": generaattori = new Erlang(4, 5, siemen); break;
+			case "Gamma": generaattori = new Gamma(5, 4, siemen); break;
+			default: throw new IllegalArgumentException(jakauma);
+		}
+	}
+
+	@Benchmark
+	public double sample(){
+		return generaattori.sample();
+	}
+}
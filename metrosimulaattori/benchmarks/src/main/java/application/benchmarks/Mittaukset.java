@@ -0,0 +1,23 @@
+package application.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Ajaa kaikki mittaukset GC-profiloijan kanssa, joten tuloksissa on läpäisyn lisäksi allokaatiot
+ * (gc.alloc.rate.norm = tavua operaatiota kohden). Argumenttina voi antaa mittausten nimien säännöllisen lausekkeen,
+ * esim. "Tapahtumalista" tai "Simulaatio".
+ */
+public class Mittaukset {
+
+	public static void main(String[] args) throws RunnerException {
+		Options asetukset = new OptionsBuilder()
+				.include(args.length > 0 ? args[0] : "application.benchmarks.*")
+				.addProfiler(GCProfiler.class)
+				.build();
+		new Runner(asetukset).run();
+	}
+}
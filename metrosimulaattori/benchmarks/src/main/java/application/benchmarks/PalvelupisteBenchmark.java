@@ -0,0 +1,68 @@
+package application.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import application.eduni.distributions.Normal;
+import application.simu.framework.Kello;
+import application.simu.framework.Tapahtumalista;
+import application.simu.framework.Trace;
+import application.simu.model.Asiakasvarasto;
+import application.simu.model.Palvelupiste;
+import application.simu.model.TapahtumanTyyppi;
+
+/**
+ * Palvelupisteen jono-operaatiot. Jonossa pidetään vakiomäärä asiakkaita, ja yksi operaatio on
+ * asiakkaan lisääminen jonoon, palvelun aloittaminen, palvelun päättymistapahtuman poistaminen listalta
+ * ja asiakkaan ottaminen palvelusta, kuten moottorissa.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dsimu.trace=OFF")
+@State(Scope.Thread)
+public class PalvelupisteBenchmark {
+
+	@Param({"1", "100", "10000"})
+	public int jononPituus;
+
+	private Kello kello;
+	private Asiakasvarasto asiakkaat;
+	private Tapahtumalista lista;
+	private Palvelupiste palvelupiste;
+
+	@Setup
+	public void alusta(){
+		Trace.setTraceLevel(Trace.Level.ERR);
+		kello = new Kello();
+		asiakkaat = new Asiakasvarasto(kello, jononPituus);
+		lista = Tapahtumalista.Toteutus.KEKO.luo();
+		palvelupiste = new Palvelupiste(new Normal(20, 10, 4851), lista, kello, asiakkaat, TapahtumanTyyppi.TICKETSALES);
+		for (int i = 0; i < jononPituus; i++){
+			palvelupiste.lisaaJonoon(asiakkaat.luo(i + 1));
+		}
+	}
+
+	@Benchmark
+	public int palvelu(){
+		palvelupiste.aloitaPalvelu();
+		kello.setAika(lista.getSeuraavanAika());
+		int palvelin = lista.getSeuraavanKohde();
+		lista.poista();
+		int a = palvelupiste.otaPalvelusta(palvelin);
+		palvelupiste.lisaaJonoon(a);
+		return a;
+	}
+}
@@ -0,0 +1,91 @@
+package application.benchmarks;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import application.simu.framework.Tapahtumalista;
+import application.simu.framework.Trace;
+import application.simu.model.OmaMoottori;
+import application.simu.model.Replikaattori;
+import application.simu.model.Simulaatioasetukset;
+import application.simu.model.TapahtumanTyyppi;
+
+/**
+ * Kokonainen OmaMoottori-ajo eri saapumistiheyksillä. Yksi operaatio on yksi simulaatio;
+ * {@link Tapahtumat#tapahtumat} raportoi lisäksi suoritetut tapahtumat sekunnissa.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Dsimu.trace=OFF")
+@State(Scope.Thread)
+public class SimulaatioBenchmark {
+
+	/**
+	 * Saapumisten välisen ajan odotusarvo, pienempi arvo tarkoittaa raskaampaa kuormaa
+	 */
+	@Param({"2", "5", "10"})
+	public int arrivalMean;
+
+	@Param({"100000"})
+	public int simukesto;
+
+	@Param({"KEKO"})
+	public Tapahtumalista.Toteutus toteutus;
+
+	private Simulaatioasetukset asetukset;
+	private long[] siemenet;
+	private PrintStream stdout;
+
+	/**
+	 * Suoritetut tapahtumat, JMH raportoi ne tapahtumina sekunnissa
+	 */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class Tapahtumat {
+		public long tapahtumat;
+	}
+
+	@Setup(Level.Trial)
+	public void alusta(){
+		Trace.setTraceLevel(Trace.Level.ERR);
+		asetukset = new Simulaatioasetukset();
+		asetukset.setSimukesto(simukesto);
+		asetukset.setPPJakauma(TapahtumanTyyppi.ARRIVAL, arrivalMean, Math.max(1, arrivalMean / 2));
+		asetukset.setTapahtumalista(toteutus);
+		siemenet = Replikaattori.siemenet(1, 4851)[0];
+		// mallin konsolitulosteet ohjataan pois, jotta mitataan simulaatiota eikä konsolia
+		stdout = System.out;
+		System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+	}
+
+	@TearDown(Level.Trial)
+	public void lopeta(){
+		System.setOut(stdout);
+	}
+
+	@Benchmark
+	public OmaMoottori simulaatio(Tapahtumat laskuri){
+		OmaMoottori moottori = new OmaMoottori(asetukset, siemenet);
+		moottori.aja();
+		laskuri.tapahtumat += moottori.getSuoritettujaTapahtumia();
+		return moottori;
+	}
+}
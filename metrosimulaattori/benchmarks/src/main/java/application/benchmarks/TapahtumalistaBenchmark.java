@@ -0,0 +1,69 @@
+package application.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import application.simu.framework.Tapahtumalista;
+import application.simu.model.TapahtumanTyyppi;
+
+/**
+ * Tapahtumalistan "hold"-mittaus: poistetaan aikaisin tapahtuma ja lisätään uusi satunnaisen ajan päähän,
+ * joten listan koko pysyy vakiona. Yksi operaatio on yksi poisto ja yksi lisäys eli yksi simuloitu tapahtuma.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class TapahtumalistaBenchmark {
+
+	private static final int VALEJA = 1 << 16;
+
+	@Param({"KEKO", "KALENTERIJONO", "TIKAPUUJONO"})
+	public Tapahtumalista.Toteutus toteutus;
+
+	@Param({"16", "1000", "100000"})
+	public int koko;
+
+	private Tapahtumalista lista;
+
+	/**
+	 * Eksponenttijakautuneet tapahtumavälit arvotaan etukäteen, jotta satunnaislukujen arvonta ei näy mittauksessa
+	 */
+	private final double[] valit = new double[VALEJA];
+	private int v = 0;
+
+	@Setup
+	public void alusta(){
+		Random r = new Random(4851);
+		for (int i = 0; i < VALEJA; i++){
+			valit[i] = -Math.log(1 - r.nextDouble()) * koko;
+		}
+		TapahtumanTyyppi[] tyypit = TapahtumanTyyppi.values();
+		lista = toteutus.luo();
+		for (int i = 0; i < koko; i++){
+			lista.lisaa(tyypit[i % tyypit.length], valit[i]);
+		}
+	}
+
+	@Benchmark
+	public TapahtumanTyyppi hold(){
+		double aika = lista.getSeuraavanAika();
+		TapahtumanTyyppi tyyppi = lista.poista();
+		lista.lisaa(tyyppi, aika + valit[v++ & (VALEJA - 1)]);
+		return tyyppi;
+	}
+}
@@ -0,0 +1,78 @@
+import java.io.IOException;
+import java.nio.file.Paths;
+
+import application.eduni.distributions.Normal;
+import application.simu.framework.Jakaumatyyppi;
+import application.simu.framework.Satunnaislahde;
+import application.simu.framework.Tapahtumaloki;
+import application.simu.framework.Tapahtumalista;
+import application.simu.framework.Trace;
+import application.simu.model.OmaMoottori;
+import application.simu.model.Replikaattori;
+import application.simu.model.Simulaatioasetukset;
+import application.simu.model.TapahtumanTyyppi;
+import application.simu.model.Topologia;
+
+/**
+ * Ajaa simulaation ilman käyttöliittymää ja tietokantaa.
+ * Parametrit ja palvelupisteiden jakaumat ovat samat kuin Kontrollerin oletusarvot.
+ * Jos replikaatioiden määrä annetaan, simulaatio ajetaan niin monta kertaa rinnakkain
+ * ja tulostetaan palvelupistekohtaiset keskiarvot luottamusväleineen.
+ * Jäljityksen saa kokonaan pois JVM-parametrilla -Dsimu.trace=OFF.
+ * @author Eetu Soronen
+ * @version 1
+ */
+public class StartHeadless {
+
+	/**
+	 * Käynnistää simulaation komentoriviltä
+	 * @param args [simulointiaika] [saapumisen odotusarvo] [saapumisen varianssi] [aseman kapasiteetti] [metron kapasiteetti]
+	 *             [replikaatiot] [juurisiemen] [tapahtumalista: KEKO | KALENTERIJONO | TIKAPUUJONO] [lokitiedosto] [topologiatiedosto]
+	 *             [satunnaislahde: LEHMER | SPLITMIX] [normaaliarvonta: BOX_MULLER | ZIGGURAT | INVERSION]
+	 *             [jakaumatyyppi: NORMAALI | KATKAISTU_NORMAALI | LOGNORMAALI | SIIRRETTY_EKSPONENTTI]
+	 *             [lokin ylivuoto: ODOTA | HYLKAA | OTANTA] [lokin otantaväli (10)]
+	 *             Tapahtumaloki kirjoitetaan vain yksittäisestä ajosta (replikaatiot = 0), ja lokitiedoston paikalle voi antaa -, jos lokia ei haluta.
+	 *             Lokin sulkemisen jälkeen tulostetaan, kuinka monta tietuetta jäi ylivuodon takia kirjaamatta.
+	 *             Ilman topologiatiedostoa (tai -) ajetaan oletusasema.
+	 * @throws IOException jos lokitiedostoa ei voi kirjoittaa tai topologiatiedostoa lukea
+	 */
+	public static void main(String args[]) throws IOException {
+
+		Simulaatioasetukset asetukset = new Simulaatioasetukset();
+		if (args.length > 0) asetukset.setSimukesto(Integer.parseInt(args[0]));
+		if (args.length > 2) asetukset.setPPJakauma(TapahtumanTyyppi.ARRIVAL, Integer.parseInt(args[1]), Integer.parseInt(args[2]));
+		if (args.length > 3) asetukset.setAsemanKapasiteetti(Integer.parseInt(args[3]));
+		if (args.length > 4) asetukset.setMetronKapasiteetti(Integer.parseInt(args[4]));
+		int replikaatiot = args.length > 5 ? Integer.parseInt(args[5]) : 0;
+		long juurisiemen = args.length > 6 ? Long.parseLong(args[6]) : 4851L;
+		if (args.length > 7) asetukset.setTapahtumalista(Tapahtumalista.Toteutus.valueOf(args[7]));
+		if (args.length > 9 && !args[9].equals("-")) asetukset.setTopologia(Topologia.lue(Paths.get(args[9])));
+		if (args.length > 10) asetukset.setSatunnaislahde(Satunnaislahde.valueOf(args[10]));
+		if (args.length > 11) asetukset.setNormaaliarvonta(Normal.Method.valueOf(args[11]));
+		if (args.length > 12) asetukset.setJakaumatyyppi(Jakaumatyyppi.valueOf(args[12]));
+
+		Trace.setTraceLevel(Trace.Level.ERR);
+
+		if (replikaatiot > 0) {
+			long alku = System.nanoTime();
+			System.out.println(new Replikaattori().aja(asetukset, replikaatiot, juurisiemen));
+			System.out.println(replikaatiot + " replikaatiota, " + (System.nanoTime() - alku) / 1000000 + " ms");
+			return;
+		}
+
+		OmaMoottori moottori = new OmaMoottori(asetukset, Replikaattori.siemenet(1, juurisiemen, OmaMoottori.siemenia(asetukset.getTopologia()), asetukset.getSatunnaislahde())[0]);
+		if (args.length > 8 && !args[8].equals("-")) {
+			Tapahtumaloki.Ylivuoto ylivuoto = args.length > 13 ? Tapahtumaloki.Ylivuoto.valueOf(args[13]) : Tapahtumaloki.Ylivuoto.ODOTA;
+			int otantavali = args.length > 14 ? Integer.parseInt(args[14]) : 10;
+			Tapahtumaloki loki = new Tapahtumaloki(Paths.get(args[8]), 1 << 16, ylivuoto, otantavali);
+			try (loki) {
+				moottori.setTapahtumaloki(loki);
+				moottori.aja();
+			}
+			System.out.println("Tapahtumaloki (" + ylivuoto + "): " + loki.getHylattyja() + " tietuetta jäi kirjaamatta");
+			return;
+		}
+		moottori.aja();
+	}
+
+}
@@ -0,0 +1,70 @@
+import java.io.IOException;
+import java.nio.file.Paths;
+
+import application.eduni.distributions.Normal;
+import application.simu.framework.Jakaumatyyppi;
+import application.simu.framework.Satunnaislahde;
+import application.simu.framework.Trace;
+import application.simu.model.Linjaasetukset;
+import application.simu.model.Linjamoottori;
+import application.simu.model.OptimistinenLinjamoottori;
+import application.simu.model.RinnakkainenLinjamoottori;
+import application.simu.model.TapahtumanTyyppi;
+import application.simu.model.Topologia;
+
+/**
+ * Ajaa usean aseman metrolinjan simulaation ilman käyttöliittymää ja tulostaa asemakohtaiset tulokset.
+ * Jäljityksen saa kokonaan pois JVM-parametrilla -Dsimu.trace=OFF.
+ * @author Eetu Soronen
+ * @version 1
+ */
+public class StartLinja {
+
+	/**
+	 * Käynnistää linjasimulaation komentoriviltä
+	 * @param args [asemia] [simulointiaika] [saapumisen odotusarvo] [saapumisen varianssi] [vuoroväli] [junan kapasiteetti]
+	 *             [juurisiemen] [topologiatiedosto] [säikeitä] [optimistinen ikkuna] [satunnaislahde: LEHMER | SPLITMIX]
+	 *             [normaaliarvonta: BOX_MULLER | ZIGGURAT | INVERSION]
+	 *             [jakaumatyyppi: NORMAALI | KATKAISTU_NORMAALI | LOGNORMAALI | SIIRRETTY_EKSPONENTTI]
+	 *             Ilman topologiatiedostoa (tai -) jokainen asema on oletusasema.
+	 *             Jos säikeitä on vähintään yksi, asemat ajetaan rinnakkain {@link RinnakkainenLinjamoottori}lla,
+	 *             tai {@link OptimistinenLinjamoottori}lla, jos optimistinen ikkuna annetaan.
+	 * @throws IOException jos topologiatiedostoa ei voi lukea
+	 */
+	public static void main(String args[]) throws IOException {
+
+		Linjaasetukset asetukset = new Linjaasetukset();
+		if (args.length > 0) asetukset.setAsemia(Integer.parseInt(args[0]));
+		if (args.length > 1) asetukset.setSimukesto(Integer.parseInt(args[1]));
+		if (args.length > 3) asetukset.getAsema().setPPJakauma(TapahtumanTyyppi.ARRIVAL, Integer.parseInt(args[2]), Integer.parseInt(args[3]));
+		if (args.length > 4) asetukset.setVuorovali(Double.parseDouble(args[4]));
+		if (args.length > 5) asetukset.setJunanKapasiteetti(Integer.parseInt(args[5]));
+		long juurisiemen = args.length > 6 ? Long.parseLong(args[6]) : 4851L;
+		if (args.length > 7 && !args[7].equals("-")) asetukset.getAsema().setTopologia(Topologia.lue(Paths.get(args[7])));
+		int saikeita = args.length > 8 ? Integer.parseInt(args[8]) : 0;
+		double ikkuna = args.length > 9 ? Double.parseDouble(args[9]) : 0;
+		if (args.length > 10) asetukset.getAsema().setSatunnaislahde(Satunnaislahde.valueOf(args[10]));
+		if (args.length > 11) asetukset.getAsema().setNormaaliarvonta(Normal.Method.valueOf(args[11]));
+		if (args.length > 12) asetukset.getAsema().setJakaumatyyppi(Jakaumatyyppi.valueOf(args[12]));
+
+		Trace.setTraceLevel(Trace.Level.ERR);
+
+		long alku = System.nanoTime();
+		Linjamoottori moottori;
+		if (saikeita > 0 && ikkuna > 0) {
+			moottori = new OptimistinenLinjamoottori(asetukset, juurisiemen, saikeita, ikkuna, OptimistinenLinjamoottori.OLETUSTARKISTUSVALI);
+		} else if (saikeita > 0) {
+			moottori = new RinnakkainenLinjamoottori(asetukset, juurisiemen, saikeita);
+		} else {
+			moottori = new Linjamoottori(asetukset, juurisiemen);
+		}
+		moottori.aja();
+		System.out.print(moottori.raportti());
+		if (moottori instanceof OptimistinenLinjamoottori) {
+			OptimistinenLinjamoottori o = (OptimistinenLinjamoottori) moottori;
+			System.err.println(o.getPeruutuksia() + " peruutusta, " + o.getTapahtumiaYhteensa() + " tapahtumaa perutut mukaan lukien, " + o.getVaiheita() + " vaihetta");
+		}
+		System.out.println(moottori.getSuoritettujaTapahtumia() + " tapahtumaa, " + (System.nanoTime() - alku) / 1000000 + " ms");
+	}
+
+}
@@ -0,0 +1,154 @@
+import java.util.Arrays;
+
+import application.eduni.distributions.ContinuousGenerator;
+import application.eduni.distributions.Distributions;
+import application.eduni.distributions.Normal;
+import application.simu.framework.Satunnaislahde;
+import application.simu.model.OmaMoottori;
+import application.simu.model.Replikaattori;
+
+/**
+ * Tarkistaa, että satunnaislähteet ({@link Satunnaislahde}) ovat tilastollisesti samanarvoisia:
+ * kummastakin lähteestä ja kummallakin normaaliarvonnalla arvotun N(0,1)-otoksen neljä ensimmäistä momenttia
+ * ja Kolmogorov-Smirnov-testisuure, sekä replikaatioiden virtojen (SplitMix-lähteellä {@code split()}-virrat)
+ * keskinäiset korrelaatiot. Tulostaa tulokset ja päättyy koodiin 1, jos jokin tarkistus ei mene läpi.
+ */
+public class TarkistaSatunnaislahteet {
+
+	/**
+	 * Kolmogorov-Smirnov-testisuureen D·√n kriittinen arvo 0,1 %:n riskitasolla. Testejä on neljä, joten 5 %:n
+	 * tasolla jokin niistä hylkäisi virheettömänkin lähteen lähes joka viidennellä siemenellä.
+	 */
+	private static final double KS_RAJA = 1.949;
+
+	/**
+	 * Kuinka monen keskivirheen päässä odotusarvosta otoksen momentti saa olla
+	 */
+	private static final double MOMENTTIRAJA = 4;
+
+	/**
+	 * Suurin sallittu |r|·√n virtojen välillä. Riippumattomilla virroilla r·√n on likimain N(0,1),
+	 * ja raja on väljä, koska pareja on yli tuhat.
+	 */
+	private static final double KORRELAATIORAJA = 5;
+
+	private static boolean kaikkiOk = true;
+
+	/**
+	 * Ajaa tarkistukset
+	 * @param args [otoksen koko (2000000)] [juurisiemen (4851)] [replikaatioita korrelaatiotarkistuksessa (8)]
+	 */
+	public static void main(String[] args) {
+		int n = args.length > 0 ? Integer.parseInt(args[0]) : 2000000;
+		long juurisiemen = args.length > 1 ? Long.parseLong(args[1]) : 4851L;
+		int replikaatioita = args.length > 2 ? Integer.parseInt(args[2]) : 8;
+
+		for (Satunnaislahde lahde : Satunnaislahde.values()) {
+			long siemen = Replikaattori.siemenet(1, juurisiemen, 1, lahde)[0][0];
+			for (Normal.Method menetelma : Normal.Method.values()) {
+				double[] x = new double[n];
+				new Normal(0, 1, lahde.luo(siemen), menetelma).sample(x, 0, n);
+				System.out.println(lahde + " " + menetelma + ", n = " + n);
+				tarkistaMomentit(x);
+				tarkistaKS(x);
+			}
+			tarkistaKorrelaatiot(lahde, juurisiemen, replikaatioita, Math.max(1, n / 10));
+		}
+		System.out.println(kaikkiOk ? "Kaikki tarkistukset OK" : "TARKISTUKSIA EPÄONNISTUI");
+		if (!kaikkiOk) {
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Keskiarvo, varianssi, vinous ja huipukkuus verrattuna N(0,1):n arvoihin 0, 1, 0 ja 0
+	 */
+	private static void tarkistaMomentit(double[] x) {
+		int n = x.length;
+		double m1 = 0;
+		for (double v : x) {
+			m1 += v;
+		}
+		m1 /= n;
+		double m2 = 0, m3 = 0, m4 = 0;
+		for (double v : x) {
+			double d = v - m1, d2 = d * d;
+			m2 += d2;
+			m3 += d2 * d;
+			m4 += d2 * d2;
+		}
+		m2 /= n;
+		m3 /= n;
+		m4 /= n;
+		tulos("keskiarvo", m1, 0, Math.sqrt(1.0 / n));
+		tulos("varianssi", m2, 1, Math.sqrt(2.0 / n));
+		tulos("vinous", m3 / Math.pow(m2, 1.5), 0, Math.sqrt(6.0 / n));
+		tulos("huipukkuus", m4 / (m2 * m2) - 3, 0, Math.sqrt(24.0 / n));
+	}
+
+	private static void tulos(String nimi, double arvo, double odotettu, double keskivirhe) {
+		boolean ok = Math.abs(arvo - odotettu) <= MOMENTTIRAJA * keskivirhe;
+		kaikkiOk &= ok;
+		System.out.printf("  %-11s %+.6f (odotettu %+.1f ± %.6f) %s%n", nimi, arvo, odotettu, MOMENTTIRAJA * keskivirhe, ok ? "OK" : "VIRHE");
+	}
+
+	/**
+	 * Kolmogorov-Smirnov-testi otoksen ja N(0,1):n kertymäfunktion välillä
+	 */
+	private static void tarkistaKS(double[] x) {
+		double[] jarjestetty = x.clone();
+		Arrays.sort(jarjestetty);
+		int n = jarjestetty.length;
+		double d = 0;
+		for (int i = 0; i < n; i++) {
+			double f = Distributions.normalCdf(jarjestetty[i]);
+			d = Math.max(d, Math.max(f - (double) i / n, (double) (i + 1) / n - f));
+		}
+		double suure = d * Math.sqrt(n);
+		boolean ok = suure < KS_RAJA;
+		kaikkiOk &= ok;
+		System.out.printf("  KS D·√n    %.4f (raja %.3f) %s%n", suure, KS_RAJA, ok ? "OK" : "VIRHE");
+	}
+
+	/**
+	 * Korrelaatiot kaikkien replikaatioiden kaikkien virtojen välillä. Virrat siemennetään kuten replikaatioissa
+	 * ({@link Replikaattori#siemenet(int, long, int, Satunnaislahde)}), SplitMix-lähteellä siis jakamalla.
+	 */
+	private static void tarkistaKorrelaatiot(Satunnaislahde lahde, long juurisiemen, int replikaatioita, int n) {
+		long[][] siemenet = Replikaattori.siemenet(replikaatioita, juurisiemen, OmaMoottori.SIEMENIA, lahde);
+		int virtoja = replikaatioita * OmaMoottori.SIEMENIA;
+		double[][] u = new double[virtoja][n];
+		for (int v = 0; v < virtoja; v++) {
+			ContinuousGenerator g = lahde.luo(siemenet[v / OmaMoottori.SIEMENIA][v % OmaMoottori.SIEMENIA]);
+			g.sample(u[v], 0, n);
+			// keskitetään ja skaalataan, jolloin korrelaatio on pistetulo
+			double ka = 0, nelio = 0;
+			for (double a : u[v]) {
+				ka += a;
+			}
+			ka /= n;
+			for (int i = 0; i < n; i++) {
+				u[v][i] -= ka;
+				nelio += u[v][i] * u[v][i];
+			}
+			double skaala = 1 / Math.sqrt(nelio);
+			for (int i = 0; i < n; i++) {
+				u[v][i] *= skaala;
+			}
+		}
+		double suurin = 0;
+		for (int a = 0; a < virtoja; a++) {
+			for (int b = a + 1; b < virtoja; b++) {
+				double r = 0;
+				for (int i = 0; i < n; i++) {
+					r += u[a][i] * u[b][i];
+				}
+				suurin = Math.max(suurin, Math.abs(r) * Math.sqrt(n));
+			}
+		}
+		boolean ok = suurin < KORRELAATIORAJA;
+		kaikkiOk &= ok;
+		System.out.printf("%s: %d virtaa, n = %d, suurin |r|·√n %.4f (raja %.1f) %s%n",
+				lahde, virtoja, n, suurin, KORRELAATIORAJA, ok ? "OK" : "VIRHE");
+	}
+}
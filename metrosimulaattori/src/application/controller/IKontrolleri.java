@@ -1,9 +1,11 @@
 package application.controller;
 
 import application.simu.framework.IMoottori;
+import application.simu.framework.Jakaumatyyppi;
 import application.simu.framework.Tapahtuma;
 import application.simu.model.OmaMoottori;
 import application.simu.model.Palvelupiste;
+import application.simu.model.Simulaatioasetukset;
 import application.simu.model.TapahtumanTyyppi;
 import application.view.IVisualisointi;
 import application.view.graphviewcontroller;
@@ -23,7 +25,8 @@ public interface IKontrolleri {
     void kaynnistaSimulointi();
 
     /**
-     * Asettaa moottorin parametrit. Metron ja aseman kapasiteetit sekä saapumisen ja palvelupisteiden käsittelyajan odotusarvot ja varianssit.
+     * Asettaa moottorin parametrit. Metron ja aseman kapasiteetit sekä saapumisen ja palvelupisteiden käsittelyajan jakaumat
+     * valitusta jakaumaperheestä kontrolleriin tallennetuilla odotusarvoilla ja variansseilla.
      */
     void asetaMoottorinParametrit();
 
@@ -50,10 +53,17 @@ public interface IKontrolleri {
     /**
      * Palauttaa moottorin palvelupisteet
      *
-     * @return Palvelupiste[]-taulukko, joka sisältää moottorin palvelupisteet. [0] = Entrance, [1] = Sales, [2] = Check, [3] = Metro
+     * @return Palvelupiste[]-taulukko, joka sisältää moottorin palvelupisteet topologian järjestyksessä (oletusasemalla Entrance, Sales, Check, Metro)
      */
     Palvelupiste[] getPalvelupisteet();
 
+    /**
+     * Palauttaa moottorin kellon ajan
+     *
+     * @return simulaation nykyhetki
+     */
+    double getKellonAika();
+
     /**
      * Nopeuttaa simulaattoria laskemalla simulaattorin viivettä 10%:lla.
      */
@@ -167,7 +177,7 @@ public interface IKontrolleri {
     void setMobiililippujakauma(int mobiililippujakauma);
 
     /**
-     * Asettaa sisääkäynti-palvelupisteen käsittelyajan normaalijakauman odotusarvon ja varianssin.
+     * Asettaa sisääkäynti-palvelupisteen käsittelyajan jakauman odotusarvon ja varianssin. Jakauma luodaan valitusta jakaumaperheestä.
      *
      * @param mean     Odotusarvo
      * @param variance Varianssi
@@ -175,7 +185,7 @@ public interface IKontrolleri {
     void setEntranceJakauma(int mean, int variance);
 
     /**
-     * Asettaa lipunmyynti-palvelupisteen käsittelyajan normaalijakauman odotusarvon ja varianssin.
+     * Asettaa lipunmyynti-palvelupisteen käsittelyajan jakauman odotusarvon ja varianssin. Jakauma luodaan valitusta jakaumaperheestä.
      *
      * @param mean     Odotusarvo
      * @param variance Varianssi
@@ -183,7 +193,7 @@ public interface IKontrolleri {
     void setSalesJakauma(int mean, int variance);
 
     /**
-     * Asettaa lipuntarkastus-palvelupisteen käsittelyajan normaalijakauman odotusarvon ja varianssin.
+     * Asettaa lipuntarkastus-palvelupisteen käsittelyajan jakauman odotusarvon ja varianssin. Jakauma luodaan valitusta jakaumaperheestä.
      *
      * @param mean     Odotusarvo
      * @param variance Varianssi
@@ -191,7 +201,7 @@ public interface IKontrolleri {
     void setCheckJakauma(int mean, int variance);
 
     /**
-     * Asettaa metro-palvelupisteen käsittelyajan normaalijakauman odotusarvon ja varianssin.
+     * Asettaa metro-palvelupisteen käsittelyajan jakauman odotusarvon ja varianssin. Jakauma luodaan valitusta jakaumaperheestä.
      *
      * @param mean     Odotusarvo
      * @param variance Varianssi
@@ -199,24 +209,47 @@ public interface IKontrolleri {
     void setMetroJakauma(int mean, int variance);
 
     /**
-     * Arvot tallennetaan kontrolleriin ja niitä käytetään, kun luodaan uusi moottori.
-     * OmaMoottorin konstruktori käyttää näitä luodakseen saapumisgeneraattorin (joka luo uusia asiakkaita normaalijakauman mukaisesti)
+     * Arvot tallennetaan kontrolleriin ja niitä käytetään, kun jakaumat asetetaan simulaattorille käynnistyksen yhteydessä.
+     * {@link #asetaMoottorinParametrit()} luo niistä saapumisgeneraattorin (joka luo uusia asiakkaita valitun jakaumaperheen mukaisesti)
      *
-     * @param mean     Normaalijakauman odotusarvo
-     * @param variance Normaalijakauman varianssi
+     * @param mean     Jakauman odotusarvo
+     * @param variance Jakauman varianssi
      */
     void setArrivalJakauma(int mean, int variance);
 
     /**
-     * Tallentaa kontrolleriin palvelupisteidne käsittelyajan normaalijakauman odotusarvon ja varianssin.
+     * Palauttaa jakaumaperheen, josta saapumis- ja käsittelyajat arvotaan.
+     *
+     * @return jakaumaperhe
+     */
+    Jakaumatyyppi getJakaumatyyppi();
+
+    /**
+     * Tallentaa kontrolleriin jakaumaperheen, josta saapumis- ja käsittelyajat arvotaan. Perhe otetaan käyttöön simulaattorin käynnistyksen yhteydessä.
+     * Muut perheet kuin normaalijakauma antavat vain ei-negatiivisia aikoja.
+     *
+     * @param jakaumatyyppi jakaumaperhe
+     */
+    void setJakaumatyyppi(Jakaumatyyppi jakaumatyyppi);
+
+    /**
+     * Tallentaa kontrolleriin palvelupisteidne käsittelyajan jakauman odotusarvon ja varianssin. Jakauma luodaan valitusta jakaumaperheestä.
      * Jakaumat asetataan simulaattorille käynnistyksen yhteydessä.
      *
      * @param tt       Tapahtumaa vastaava palvelupiste. (entrance, ticketsales, ticketcheck, metro)
-     * @param mean     Normaalijakauman odotusarvo
-     * @param variance Normaalijakauman varianssi
+     * @param mean     Jakauman odotusarvo
+     * @param variance Jakauman varianssi
      */
     void setPPJakauma(TapahtumanTyyppi tt, int mean, int variance);
 
+    /**
+     * Kokoaa kontrolleriin tallennetut parametrit asetuksiksi, joilla sama simulaatio voidaan
+     * ajaa ilman käyttöliittymää (esim. replikaatioina).
+     *
+     * @return simulaation parametrit
+     */
+    Simulaatioasetukset getSimulaatioasetukset();
+
     /**
      * Palauttaa palvelupisteen tämänhetkisen tilan, eli käsitteleekö se asiakkaita juuri nyt?
      *
@@ -1,12 +1,12 @@
 package application.controller;
 
 import application.MainApp;
-import application.eduni.distributions.Normal;
 import application.simu.framework.IMoottori;
-import application.simu.framework.Kello;
+import application.simu.framework.Jakaumatyyppi;
 import application.simu.framework.Tapahtuma;
 import application.simu.model.OmaMoottori;
 import application.simu.model.Palvelupiste;
+import application.simu.model.Simulaatioasetukset;
 import application.simu.model.TapahtumanTyyppi;
 import application.view.IVisualisointi;
 import application.view.graphviewcontroller;
@@ -62,7 +62,7 @@ public class Kontrolleri implements IKontrolleri {
     private int asemanKapasiteetti = 200;
 
     /**
-     * Taulukko simulaattorin palvelupisteistä. (entrance, ticketsales, ticketcheck, metro)
+     * Taulukko simulaattorin palvelupisteistä topologian järjestyksessä. Palvelupisteet haetaan tyypin mukaan, ks. {@link #palvelupiste(TapahtumanTyyppi)}.
      */
     private Palvelupiste[] palvelupisteet;
 
@@ -108,15 +108,20 @@ public class Kontrolleri implements IKontrolleri {
     private int metroVariance = 60;
 
     /**
-     * Simulaattorin saapumisgeneraattorin normaalijakauman odotusarvo
+     * Simulaattorin saapumisgeneraattorin jakauman odotusarvo
      */
     private int arrivalMean = 10;
 
     /**
-     * Simulaattorin saapumisgeneraattorin normaalijakauman varianssi
+     * Simulaattorin saapumisgeneraattorin jakauman varianssi
      */
     private int arrivalVariance = 5;
 
+    /**
+     * Jakaumaperhe, josta saapumisten väliset ajat ja palvelupisteiden käsittelyajat arvotaan
+     */
+    private Jakaumatyyppi jakaumatyyppi = Jakaumatyyppi.NORMAALI;
+
     /**
      * Onko simulaattori pysäytetty? Miten tämä eroaa {@link #kaynnissa} muuttujasta? En tiedä!
      */
@@ -145,8 +150,7 @@ public class Kontrolleri implements IKontrolleri {
             alert.show();
             return;
         }
-        moottori = getMoottori();
-        Kello.getInstance().setAika(0);
+        moottori = getMoottori(); // uudella moottorilla on oma kello, joka alkaa nollasta
         asetaMoottorinParametrit();
         if (!kaynnissa && ((Thread) moottori).getState() == Thread.State.NEW) {
             kaynnissa = true;
@@ -155,13 +159,15 @@ public class Kontrolleri implements IKontrolleri {
     }
 
     /**
-     * Asettaa moottorin parametrit. Metron ja aseman kapasiteetit sekä saapumisen ja palvelupisteiden käsittelyajan odotusarvot ja varianssit.
+     * Asettaa moottorin parametrit. Metron ja aseman kapasiteetit sekä saapumisen ja palvelupisteiden käsittelyajan jakaumat
+     * valitusta jakaumaperheestä ({@link #jakaumatyyppi}) kontrolleriin tallennetuilla odotusarvoilla ja variansseilla.
      */
     @Override
     public void asetaMoottorinParametrit() {
         setMetronKapasiteetti(metronKapasiteetti);
         setAsemanKapasiteetti(asemanKapasiteetti);
 
+        moottori.setSaapumisjakauma(jakaumatyyppi.luo(arrivalMean, arrivalVariance));
         setEntranceJakauma(entranceMean, entranceVariance);
         setSalesJakauma(salesMean, salesVariance);
         setCheckJakauma(checkMean, checkVariance);
@@ -224,13 +230,23 @@ public class Kontrolleri implements IKontrolleri {
     /**
      * Palauttaa moottorin palvelupisteet
      *
-     * @return Palvelupiste[]-taulukko, joka sisältää moottorin palvelupisteet. [0] = Entrance, [1] = Sales, [2] = Check, [3] = Metro
+     * @return Palvelupiste[]-taulukko, joka sisältää moottorin palvelupisteet topologian järjestyksessä (oletusasemalla Entrance, Sales, Check, Metro)
      */
     @Override
     public Palvelupiste[] getPalvelupisteet() {
         return moottori.getPalvelupisteet();
     }
 
+    /**
+     * Palauttaa moottorin kellon ajan
+     *
+     * @return simulaation nykyhetki
+     */
+    @Override
+    public double getKellonAika() {
+        return moottori.getKello().getAika();
+    }
+
     /**
      * Nopeuttaa simulaattoria laskemalla simulaattorin viivettä 10%:lla.
      */
@@ -391,7 +407,7 @@ public class Kontrolleri implements IKontrolleri {
     }
 
     /**
-     * Asettaa sisääkäynti-palvelupisteen käsittelyajan normaalijakauman odotusarvon ja varianssin.
+     * Asettaa sisääkäynti-palvelupisteen käsittelyajan jakauman odotusarvon ja varianssin. Jakauma luodaan valitusta jakaumaperheestä.
      * @param mean Odotusarvo
      * @param variance Varianssi
      */
@@ -399,11 +415,11 @@ public class Kontrolleri implements IKontrolleri {
     public void setEntranceJakauma(int mean, int variance) {
         entranceMean = mean;
         entranceVariance = variance;
-        palvelupisteet[0].setJakauma(new Normal(entranceMean, entranceVariance));
+        palvelupiste(TapahtumanTyyppi.ENTRANCE).setJakauma(jakaumatyyppi.luo(entranceMean, entranceVariance));
     }
 
     /**
-     * Asettaa lipunmyynti-palvelupisteen käsittelyajan normaalijakauman odotusarvon ja varianssin.
+     * Asettaa lipunmyynti-palvelupisteen käsittelyajan jakauman odotusarvon ja varianssin. Jakauma luodaan valitusta jakaumaperheestä.
      * @param mean Odotusarvo
      * @param variance Varianssi
      */
@@ -412,11 +428,11 @@ public class Kontrolleri implements IKontrolleri {
         salesMean = mean;
         salesVariance = variance;
 
-        palvelupisteet[1].setJakauma(new Normal(salesMean, salesVariance));
+        palvelupiste(TapahtumanTyyppi.TICKETSALES).setJakauma(jakaumatyyppi.luo(salesMean, salesVariance));
     }
 
     /**
-     * Asettaa lipuntarkastus-palvelupisteen käsittelyajan normaalijakauman odotusarvon ja varianssin.
+     * Asettaa lipuntarkastus-palvelupisteen käsittelyajan jakauman odotusarvon ja varianssin. Jakauma luodaan valitusta jakaumaperheestä.
      * @param mean Odotusarvo
      * @param variance Varianssi
      */
@@ -424,11 +440,11 @@ public class Kontrolleri implements IKontrolleri {
     public void setCheckJakauma(int mean, int variance) {
         checkMean = mean;
         checkVariance = variance;
-        palvelupisteet[2].setJakauma(new Normal(checkMean, checkVariance));
+        palvelupiste(TapahtumanTyyppi.TICKETCHECK).setJakauma(jakaumatyyppi.luo(checkMean, checkVariance));
     }
 
     /**
-     * Asettaa metro-palvelupisteen käsittelyajan normaalijakauman odotusarvon ja varianssin.
+     * Asettaa metro-palvelupisteen käsittelyajan jakauman odotusarvon ja varianssin. Jakauma luodaan valitusta jakaumaperheestä.
      * @param mean Odotusarvo
      * @param variance Varianssi
      */
@@ -436,15 +452,15 @@ public class Kontrolleri implements IKontrolleri {
     public void setMetroJakauma(int mean, int variance) {
         metroMean = mean;
         metroVariance = variance;
-        palvelupisteet[3].setJakauma(new Normal(metroMean, metroVariance));
+        palvelupiste(TapahtumanTyyppi.METRO).setJakauma(jakaumatyyppi.luo(metroMean, metroVariance));
     }
 
 
     /**
-     * Arvot tallennetaan kontrolleriin ja niitä käytetään, kun luodaan uusi moottori.
-     * OmaMoottorin konstruktori käyttää näitä luodakseen saapumisgeneraattorin (joka luo uusia asiakkaita normaalijakauman mukaisesti)
-      * @param mean Normaalijakauman odotusarvo
-     * @param variance Normaalijakauman varianssi
+     * Arvot tallennetaan kontrolleriin ja niitä käytetään, kun jakaumat asetetaan simulaattorille käynnistyksen yhteydessä.
+     * {@link #asetaMoottorinParametrit()} luo niistä saapumisgeneraattorin (joka luo uusia asiakkaita valitun jakaumaperheen mukaisesti)
+     * @param mean Jakauman odotusarvo
+     * @param variance Jakauman varianssi
      */
     @Override
     public void setArrivalJakauma(int mean, int variance) {
@@ -452,13 +468,32 @@ public class Kontrolleri implements IKontrolleri {
         arrivalVariance = variance;
     }
 
+    /**
+     * Palauttaa jakaumaperheen, josta saapumis- ja käsittelyajat arvotaan.
+     * @return jakaumaperhe
+     */
+    @Override
+    public Jakaumatyyppi getJakaumatyyppi() {
+        return jakaumatyyppi;
+    }
+
+    /**
+     * Tallentaa kontrolleriin jakaumaperheen, josta saapumis- ja käsittelyajat arvotaan.
+     * Perhe otetaan käyttöön, kun jakaumat asetetaan simulaattorille käynnistyksen yhteydessä ({@link #asetaMoottorinParametrit()}).
+     * @param jakaumatyyppi jakaumaperhe
+     */
+    @Override
+    public void setJakaumatyyppi(Jakaumatyyppi jakaumatyyppi) {
+        this.jakaumatyyppi = jakaumatyyppi;
+    }
+
 
     /**
-     * Tallentaa kontrolleriin palvelupisteidne käsittelyajan normaalijakauman odotusarvon ja varianssin.
+     * Tallentaa kontrolleriin palvelupisteidne käsittelyajan jakauman odotusarvon ja varianssin. Jakauma luodaan valitusta jakaumaperheestä.
      * Jakaumat asetataan simulaattorille käynnistyksen yhteydessä.
      * @param tt Tapahtumaa vastaava palvelupiste. (entrance, ticketsales, ticketcheck, metro)
-     * @param mean Normaalijakauman odotusarvo
-     * @param variance Normaalijakauman varianssi
+     * @param mean Jakauman odotusarvo
+     * @param variance Jakauman varianssi
      */
     @Override
     public void setPPJakauma(TapahtumanTyyppi tt, int mean, int variance) {
@@ -482,6 +517,29 @@ public class Kontrolleri implements IKontrolleri {
         }
     }
 
+    /**
+     * Kokoaa kontrolleriin tallennetut parametrit asetuksiksi, joilla sama simulaatio voidaan
+     * ajaa ilman käyttöliittymää (esim. replikaatioina).
+     * @return simulaation parametrit
+     */
+    @Override
+    public Simulaatioasetukset getSimulaatioasetukset() {
+        Simulaatioasetukset asetukset = new Simulaatioasetukset();
+        asetukset.setSimukesto(simukesto);
+        asetukset.setMetronKapasiteetti(metronKapasiteetti);
+        asetukset.setAsemanKapasiteetti(asemanKapasiteetti);
+        if (moottori != null) {
+            asetukset.setMobiililippujakauma(moottori.getMobiililippujakauma());
+        }
+        asetukset.setJakaumatyyppi(jakaumatyyppi);
+        asetukset.setPPJakauma(TapahtumanTyyppi.ARRIVAL, arrivalMean, arrivalVariance);
+        asetukset.setPPJakauma(TapahtumanTyyppi.ENTRANCE, entranceMean, entranceVariance);
+        asetukset.setPPJakauma(TapahtumanTyyppi.TICKETSALES, salesMean, salesVariance);
+        asetukset.setPPJakauma(TapahtumanTyyppi.TICKETCHECK, checkMean, checkVariance);
+        asetukset.setPPJakauma(TapahtumanTyyppi.METRO, metroMean, metroVariance);
+        return asetukset;
+    }
+
     /**
      * Palauttaa palvelupisteen tämänhetkisen tilan, eli käsitteleekö se asiakkaita juuri nyt?
      * @param palvelupiste Tapahtumaa vastaava palvelupiste. (entrance, ticketsales, ticketcheck, metro)
@@ -489,17 +547,8 @@ public class Kontrolleri implements IKontrolleri {
      */
     @Override
     public boolean onkoPPVarattu(TapahtumanTyyppi palvelupiste) {
-        switch (palvelupiste) {
-            case ENTRANCE:
-                return palvelupisteet[0].onVarattu();
-            case TICKETSALES:
-                return palvelupisteet[1].onVarattu();
-            case TICKETCHECK:
-                return palvelupisteet[2].onVarattu();
-            case METRO:
-                return palvelupisteet[3].onVarattu();
-        }
-        return false;
+        Palvelupiste p = etsiPalvelupiste(palvelupisteet, palvelupiste);
+        return p != null && p.onVarattu();
     }
 
     /**
@@ -509,22 +558,7 @@ public class Kontrolleri implements IKontrolleri {
      */
     @Override
     public int getPPjononpituus(TapahtumanTyyppi palvelupiste) {
-        int index = 0;
-        switch (palvelupiste) {
-            case ENTRANCE:
-                index = 0;
-                break;
-            case TICKETSALES:
-                index = 1;
-                break;
-            case TICKETCHECK:
-                index = 2;
-                break;
-            case METRO:
-                index = 3;
-                break;
-        }
-        return palvelupisteet[index].getJonopituus();
+        return palvelupiste(palvelupiste).getJonopituus();
     }
 
     /**
@@ -534,22 +568,7 @@ public class Kontrolleri implements IKontrolleri {
      */
     @Override
     public double getPPkeskijonoaika(TapahtumanTyyppi palvelupiste) {
-        int index = 0;
-        switch (palvelupiste) {
-            case ENTRANCE:
-                index = 0;
-                break;
-            case TICKETSALES:
-                index = 1;
-                break;
-            case TICKETCHECK:
-                index = 2;
-                break;
-            case METRO:
-                index = 3;
-                break;
-        }
-        return palvelupisteet[index].getKeskijonoaika();
+        return palvelupiste(palvelupiste).getKeskijonoaika();
     }
 
     /**
@@ -559,24 +578,16 @@ public class Kontrolleri implements IKontrolleri {
      */
     @Override
     public int getPPpalvellutAsiakkaat(TapahtumanTyyppi palvelupiste) {
-        int index = 0;
         switch (palvelupiste) {
             case ENTRANCE:
                 // entrance-pisteen palvellut asiakkaat ei ole oikein, jonka takia pitää tehdä näin..
                 // johtuu varmaan siitä, että jos asiakas on täynnä, se lasketaan palvelluksi vaikka todellisuudessa se vain poistuu systeemistä.
                 return getAsiakkaatAsemassa()+getPalvellutAsaiakkaat();
-            case TICKETSALES:
-                index = 1;
-                break;
-            case TICKETCHECK:
-                index = 2;
-                break;
             case METRO:
-                index = 3;
-                System.out.println("metron palvelunro = " + palvelupisteet[3].getPalvelunro());
+                System.out.println("metron palvelunro = " + palvelupiste(palvelupiste).getPalvelunro());
                 break;
         }
-        return palvelupisteet[index].getPalvelunro();
+        return palvelupiste(palvelupiste).getPalvelunro();
     }
 
     /**
@@ -586,22 +597,30 @@ public class Kontrolleri implements IKontrolleri {
      */
     @Override
     public double getPPkeskiarvoaika(TapahtumanTyyppi palvelupiste) {
-        int index = 0;
-        switch (palvelupiste) {
-            case ENTRANCE:
-                index = 0;
-                break;
-            case TICKETSALES:
-                index = 1;
-                break;
-            case TICKETCHECK:
-                index = 2;
-                break;
-            case METRO:
-                index = 3;
-                break;
+        return palvelupiste(palvelupiste).getKeskiarvoaika();
+    }
+
+    /**
+     * Hakee moottorin palvelupisteen tyypin mukaan, joten kontrolleri ei riipu palvelupisteiden järjestyksestä.
+     * @param tt palvelupistettä vastaava TapahtumanTyyppi
+     * @return ensimmäinen tämän tyyppinen palvelupiste
+     * @throws IllegalArgumentException jos moottorissa ei ole tämän tyyppistä palvelupistettä
+     */
+    private Palvelupiste palvelupiste(TapahtumanTyyppi tt) {
+        Palvelupiste p = etsiPalvelupiste(palvelupisteet, tt);
+        if (p == null) {
+            throw new IllegalArgumentException("Ei palvelupistettä " + tt);
         }
-        return palvelupisteet[index].getKeskiarvoaika();
+        return p;
+    }
+
+    private static Palvelupiste etsiPalvelupiste(Palvelupiste[] pp, TapahtumanTyyppi tt) {
+        for (Palvelupiste p : pp) {
+            if (p.getTapahtumanTyyppi() == tt) {
+                return p;
+            }
+        }
+        return null;
     }
 
 
@@ -663,37 +682,20 @@ public class Kontrolleri implements IKontrolleri {
                 mtr.getStationCapacity());
 
 
-        // luo ServicePoint-olion jokaisesta palvelupisteestä
-        for (int i = 0; i < 4; i++) {
-            TapahtumanTyyppi t = TapahtumanTyyppi.ENTRANCE;
-
-            switch (i) {
-                case 0:
-                    t = TapahtumanTyyppi.ENTRANCE;
-                    palvellutAsiakkaat = getPPpalvellutAsiakkaat (TapahtumanTyyppi.ENTRANCE);
-                    break;
-                case 1:
-                    t = TapahtumanTyyppi.TICKETSALES;
-                    palvellutAsiakkaat = getPPpalvellutAsiakkaat (TapahtumanTyyppi.TICKETSALES);
-                    break;
-                case 2:
-                    t = TapahtumanTyyppi.TICKETCHECK;
-                    palvellutAsiakkaat = getPPpalvellutAsiakkaat (TapahtumanTyyppi.TICKETCHECK);
-                    break;
-                case 3:
-                    t = TapahtumanTyyppi.METRO;
-                    palvellutAsiakkaat = getPPpalvellutAsiakkaat (TapahtumanTyyppi.METRO);
-                    break;
-            }
-
+        // luo ServicePoint-olion jokaisesta tietokantaan tallennettavasta palvelupisteestä
+        TapahtumanTyyppi[] tyypit = {TapahtumanTyyppi.ENTRANCE, TapahtumanTyyppi.TICKETSALES, TapahtumanTyyppi.TICKETCHECK, TapahtumanTyyppi.METRO};
+        for (int i = 0; i < tyypit.length; i++) {
+            TapahtumanTyyppi t = tyypit[i];
+            Palvelupiste p = etsiPalvelupiste(ppt, t);
+            palvellutAsiakkaat = getPPpalvellutAsiakkaat(t);
 
             spoints[i] = new ServicePoint(
                     t,
                     palvellutAsiakkaat,
-                    ppt[i].getJonopituus(),
-                    ppt[i].getKeskiarvoaika(),
+                    p.getJonopituus(),
+                    p.getKeskiarvoaika(),
 
-                    ppt[i].getKeskijonoaika(),
+                    p.getKeskijonoaika(),
                     getPPJakauma(t)[0],
                     getPPJakauma(t)[1],
                     mtr.getMetroCapacity());
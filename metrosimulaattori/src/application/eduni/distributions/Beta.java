@@ -44,4 +44,8 @@ public class Beta extends Generator implements ContinuousGenerator {
    * @return The next random number in the sequence
    */
     public double sample() { return distrib.beta(shape_a, shape_b); }
+
+    public void sample(double[] dst, int off, int len) {
+	for (int i = off; i < off + len; i++) dst[i] = distrib.beta(shape_a, shape_b);
+    }
 }
@@ -33,4 +33,8 @@ public class BetaPrime extends Beta {
    * @return The next random number in the sequence
    */
     public double sample() { return distrib.betaprime(shape_a, shape_b); }
+
+    public void sample(double[] dst, int off, int len) {
+	for (int i = off; i < off + len; i++) dst[i] = distrib.betaprime(shape_a, shape_b);
+    }
 }
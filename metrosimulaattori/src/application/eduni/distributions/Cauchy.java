@@ -44,4 +44,8 @@ public class Cauchy extends Generator implements ContinuousGenerator {
      * @return The next random number in the sequence
      */
     public double sample() { return distrib.cauchy(median, scale); }
+
+    public void sample(double[] dst, int off, int len) {
+	for (int i = off; i < off + len; i++) dst[i] = distrib.cauchy(median, scale);
+    }
 }
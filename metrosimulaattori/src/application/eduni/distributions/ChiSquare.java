@@ -41,4 +41,8 @@ public class ChiSquare extends Generator implements ContinuousGenerator {
      * @return The next random number in the sequence
      */
     public double sample() { return distrib.chisquare(deg_freedom); }
+
+    public void sample(double[] dst, int off, int len) {
+	for (int i = off; i < off + len; i++) dst[i] = distrib.chisquare(deg_freedom);
+    }
 }
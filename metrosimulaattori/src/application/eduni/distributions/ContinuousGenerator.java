@@ -4,4 +4,15 @@ package application.eduni.distributions;
  */
 public interface ContinuousGenerator extends Seedable {
     double sample(); 
+
+    /** Fills a block with consecutive samples. The values are the same as from <code>len</code>
+     * calls to <code>sample()</code>; implementations override this to draw the whole block
+     * without a virtual call per sample.
+     * @param dst The array to fill
+     * @param off The first index to fill
+     * @param len The number of samples
+     */
+    default void sample(double[] dst, int off, int len) {
+	for (int i = off; i < off + len; i++) dst[i] = sample();
+    }
 }
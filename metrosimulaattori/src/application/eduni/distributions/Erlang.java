@@ -44,4 +44,6 @@ public class Erlang extends Generator implements ContinuousGenerator {
      * @return The next random number in the sequence
      */
     public double sample() { return distrib.erlang(shape, scale); }
+
+    public void sample(double[] dst, int off, int len) { distrib.erlang(shape, scale, dst, off, len); }
 }
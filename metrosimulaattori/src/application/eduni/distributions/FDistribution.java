@@ -46,4 +46,8 @@ public class FDistribution extends Generator implements ContinuousGenerator {
     public double sample() { 
 	return distrib.f(num_deg_freedom, den_deg_freedom); 
     }
+
+    public void sample(double[] dst, int off, int len) {
+	for (int i = off; i < off + len; i++) dst[i] = distrib.f(num_deg_freedom, den_deg_freedom);
+    }
 }
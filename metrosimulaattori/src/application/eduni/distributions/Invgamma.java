@@ -42,4 +42,8 @@ public class Invgamma extends Generator implements ContinuousGenerator {
     public double sample() { 
          return distrib.invgamma(scale, shape);
     }
+
+    public void sample(double[] dst, int off, int len) {
+	for (int i = off; i < off + len; i++) dst[i] = distrib.invgamma(scale, shape);
+    }
 }
@@ -27,10 +27,51 @@ public class LogNormal extends Normal {
     public LogNormal(double mean, double variance, long seed) {
 	super(mean, variance, seed);
     }
+
+    /**
+     * The constructor with which the uniform random number source and the method
+     * sampling the underlying normal distribution are given
+     * @param mean The mean of the underlying normal distribution
+     * @param variance The variance of the underlying normal distribution
+     * @param source The generator the samples are drawn from; its seed is the seed of this generator
+     * @param method The sampling method of the underlying normal distribution
+     */
+    public LogNormal(double mean, double variance, ContinuousGenerator source, Method method) {
+	super(mean, variance, source, method);
+    }
+
+    /**
+     * Creates a lognormal generator from the mean and the standard deviation of the
+     * lognormal values themselves instead of those of the underlying normal distribution:
+     * &sigma;&sup2; = log(1 + std_dev&sup2;/mean&sup2;) and &mu; = log(mean) - &sigma;&sup2;/2.
+     * The values are always positive.
+     * @param mean The mean of the distribution, greater than 0
+     * @param std_dev The standard deviation of the distribution, greater than 0
+     * @param source The generator the samples are drawn from; its seed is the seed of this generator
+     * @param method The sampling method of the underlying normal distribution
+     * @return the generator
+     */
+    public static LogNormal withMeanAndStdDev(double mean, double std_dev, ContinuousGenerator source, Method method) {
+	if (mean <= 0.0 || std_dev <= 0.0)
+	    throw new ParameterException("LogNormal: The mean and the standard deviation must be greater than 0.");
+	double variance = Math.log1p((std_dev / mean) * (std_dev / mean));
+	return new LogNormal(Math.log(mean) - variance / 2, variance, source, method);
+    }
     
     /**
      * Generate a new random number.
      * @return The next random number in the sequence
      */
-    public double sample() { return distrib.lognormal2(mean, std_dev); }
+    public double sample() {
+	return getMethod() == Method.BOX_MULLER ? distrib.lognormal2(mean, std_dev) : Math.exp(super.sample());
+    }
+
+    public void sample(double[] dst, int off, int len) {
+	if (getMethod() == Method.BOX_MULLER) {
+	    for (int i = off; i < off + len; i++) dst[i] = distrib.lognormal2(mean, std_dev);
+	} else {
+	    super.sample(dst, off, len);
+	    for (int i = off; i < off + len; i++) dst[i] = Math.exp(dst[i]);
+	}
+    }
 }
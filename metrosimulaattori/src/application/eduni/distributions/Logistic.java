@@ -42,4 +42,8 @@ public class Logistic extends Generator implements ContinuousGenerator {
     public double sample() { 
          return distrib.logistic(location, scale);
     }
+
+    public void sample(double[] dst, int off, int len) {
+	for (int i = off; i < off + len; i++) dst[i] = distrib.logistic(location, scale);
+    }
 }
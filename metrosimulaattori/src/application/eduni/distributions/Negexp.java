@@ -40,4 +40,8 @@ public class Negexp extends Generator implements ContinuousGenerator {
     public double sample() { 
          return distrib.negexp(mean);
     }
+
+    public void sample(double[] dst, int off, int len) {
+	distrib.negexp(mean, dst, off, len);
+    }
 }
@@ -7,7 +7,20 @@ package application.eduni.distributions;
  */
 
 public class Normal extends Generator implements ContinuousGenerator {
+    /** The algorithm which turns the uniform samples into normal ones.
+     * All are reproducible by seed and keep no state besides the seed.
+     */
+    public enum Method {
+	/** Box-Muller: two samples, <code>cos</code>, <code>sqrt</code> and <code>log</code> per call (the original) */
+	BOX_MULLER,
+	/** Ziggurat: usually two samples and no transcendental functions, see <code>Distributions.ziggurat</code> */
+	ZIGGURAT,
+	/** Inversion: exactly one sample per call and no rejection loop, see <code>Distributions.normalInversion</code> */
+	INVERSION
+    }
+
     protected double mean, std_dev;
+    private Method method = Method.BOX_MULLER;
     
     /**
      * the seed is automatically provided by the <code>SeedGenerator</code>
@@ -31,6 +44,30 @@ public class Normal extends Generator implements ContinuousGenerator {
 	super(seed);
 	set(mean, variance);
     }
+
+    /**
+     * The constructor with which the uniform random number source is given,
+     * e.g. a <code>SplitMix64</code> instead of the default <code>RandomGenerator</code>
+     * @param mean The mean of the distribution
+     * @param variance The variance of the distribution
+     * @param source The generator the samples are drawn from; its seed is the seed of this generator
+     */
+    public Normal(double mean, double variance, ContinuousGenerator source) {
+	super(source);
+	set(mean, variance);
+    }
+
+    /**
+     * The constructor with which both the uniform random number source and the sampling method are given
+     * @param mean The mean of the distribution
+     * @param variance The variance of the distribution
+     * @param source The generator the samples are drawn from; its seed is the seed of this generator
+     * @param method The sampling method
+     */
+    public Normal(double mean, double variance, ContinuousGenerator source, Method method) {
+	this(mean, variance, source);
+	this.method = method;
+    }
     
     private void set(double mean, double variance) {
 	if (variance <= 0.0)
@@ -43,5 +80,24 @@ public class Normal extends Generator implements ContinuousGenerator {
      * Generate a new random number.
      * @return The next random number in the sequence
      */
-    public double sample() { return distrib.normal2(mean, std_dev); }
+    public double sample() {
+	switch (method) {
+	case ZIGGURAT: return distrib.ziggurat(mean, std_dev);
+	case INVERSION: return distrib.normalInversion(mean, std_dev);
+	default: return distrib.normal2(mean, std_dev);
+	}
+    }
+
+    public void sample(double[] dst, int off, int len) {
+	switch (method) {
+	case ZIGGURAT: distrib.ziggurat(mean, std_dev, dst, off, len); break;
+	case INVERSION: distrib.normalInversion(mean, std_dev, dst, off, len); break;
+	default: distrib.normal2(mean, std_dev, dst, off, len);
+	}
+    }
+
+    /**
+     * @return The sampling method
+     */
+    public Method getMethod() { return method; }
 }
@@ -42,4 +42,8 @@ public class Pareto extends Generator implements ContinuousGenerator {
     public double sample() { 
          return distrib.pareto(shape, scale);
     }
+
+    public void sample(double[] dst, int off, int len) {
+	for (int i = off; i < off + len; i++) dst[i] = distrib.pareto(shape, scale);
+    }
 }
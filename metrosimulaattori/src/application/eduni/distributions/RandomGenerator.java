@@ -30,6 +30,15 @@ public class RandomGenerator implements ContinuousGenerator {
     public double sample() { 
 	return ((double)nextLong()) / m;
     }
+
+    public void sample(double[] dst, int off, int len) {
+	long s = seed;
+	for (int i = off; i < off + len; i++) {
+	    s = (a * s) % m;
+	    dst[i] = ((double)s) / m;
+	}
+	seed = s;
+    }
     // ----- } implements ContinuousGenerator -----
 
     /**
@@ -39,6 +48,31 @@ public class RandomGenerator implements ContinuousGenerator {
 	return seed = (a * seed) % m;
     }
     
+    /**
+     * Advances the generator <code>n</code> steps in O(log n) time. The result
+     * is the same as calling <code>nextLong()</code> <code>n</code> times.
+     * @param n The number of steps, not negative
+     */
+    public void skip(long n) {
+	if (n <= 0) return;
+	nextLong(); // brings any seed into (-m, m), so the jump below cannot overflow
+	seed = (multiplier(n - 1) * seed) % m;
+    }
+
+    /**
+     * Computes the multiplier that advances the generator <code>n</code> steps at once
+     * @param n The number of steps, not negative
+     * @return <code>742938285<sup>n</sup> mod (2<sup>31</sup>-1)</code>
+     */
+    public static long multiplier(long n) {
+	long result = 1, power = 742938285L % 2147483647L;
+	for (; n > 0; n >>= 1) {
+	    if ((n & 1) != 0) result = (result * power) % 2147483647L;
+	    power = (power * power) % 2147483647L;
+	}
+	return result;
+    }
+
     // ----- implements Seedable { -----
     public void setSeed(long seed) { this.seed = seed; }
     public long getSeed() { return seed; }
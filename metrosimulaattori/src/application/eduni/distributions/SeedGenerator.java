@@ -1,7 +1,9 @@
 package application.eduni.distributions;
 
 /** A SeedGenerator is a DiscreteGenerator which produces well-spaced seeds
- *  according to its spacing attribute. It relies on a <code>RandomGenerator</code>
+ *  according to its spacing attribute. It relies on a <code>RandomGenerator</code>,
+ *  which it advances <code>spacing</code> steps at once (O(log spacing), see
+ *  <code>RandomGenerator.skip</code>) instead of stepping it one number at a time.
  */
 public class SeedGenerator implements DiscreteGenerator {
     private static long root = 4851L; // The root seed
@@ -25,7 +27,7 @@ public class SeedGenerator implements DiscreteGenerator {
     public long sample() {
 	if (not_sampled) not_sampled = false;
 	else
-	    for (int i=0; i<spacing; i++) source.nextLong();
+	    source.skip(spacing);
 	return getSeed();
     }
 
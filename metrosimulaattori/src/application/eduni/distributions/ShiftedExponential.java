@@ -0,0 +1,65 @@
+package application.eduni.distributions;
+
+/**
+ * A random number generator based on the exponential distribution shifted to start at
+ * <code>shift</code> instead of 0: a fixed minimum duration plus an exponential part.
+ * It is sampled by inversion, <code>shift - (mean - shift) * log(sample)</code>.
+ */
+
+public class ShiftedExponential extends Generator implements ContinuousGenerator {
+    private double shift, scale;
+
+    /**
+     * the seed is automatically provided by the <code>SeedGenerator</code>
+     * @param shift The smallest value of the distribution
+     * @param mean The mean of the distribution, greater than <code>shift</code>
+     */
+    public ShiftedExponential(double shift, double mean) {
+	super();
+	set(shift, mean);
+    }
+
+    /**
+     * The constructor with which a specific seed is set for the random
+     * number generator
+     * @param shift The smallest value of the distribution
+     * @param mean The mean of the distribution, greater than <code>shift</code>
+     * @param seed The initial seed for the generator, two instances with
+     *             the same seed will generate the same sequence of numbers
+     */
+    public ShiftedExponential(double shift, double mean, long seed) {
+	super(seed);
+	set(shift, mean);
+    }
+
+    /**
+     * The constructor with which the uniform random number source is given
+     * @param shift The smallest value of the distribution
+     * @param mean The mean of the distribution, greater than <code>shift</code>
+     * @param source The generator the samples are drawn from; its seed is the seed of this generator
+     */
+    public ShiftedExponential(double shift, double mean, ContinuousGenerator source) {
+	super(source);
+	set(shift, mean);
+    }
+
+    private void set(double shift, double mean) {
+	if (mean <= shift)
+	    throw new ParameterException("ShiftedExponential: The mean must be greater than the shift.");
+	this.shift = shift;
+	this.scale = mean - shift;
+    }
+
+    /**
+     * Generate a new random number.
+     * @return The next random number in the sequence
+     */
+    public double sample() {
+	return shift + distrib.negexp(scale);
+    }
+
+    public void sample(double[] dst, int off, int len) {
+	distrib.negexp(scale, dst, off, len);
+	for (int i = off; i < off + len; i++) dst[i] += shift;
+    }
+}
@@ -0,0 +1,81 @@
+package application.eduni.distributions;
+
+/**
+ * A splittable pseudorandom number generator (SplitMix64, Steele, Lea &amp; Flood 2014),
+ * an alternative source for the distributions to the 31-bit <code>RandomGenerator</code>.
+ * The state is a 64-bit counter advanced by a fixed odd constant, and each output is the
+ * counter passed through a bijective mixing function:
+ * <p>
+ * <code>Y[n] = mix64(seed + n*0x9e3779b97f4a7c15)</code>
+ * <p>
+ * The period is <code>2<sup>64</sup></code>, the output passes BigCrush, and a sample costs a few
+ * multiplications and shifts instead of a <code>long</code> division. Because the counter is the whole state,
+ * <code>getSeed()</code>/<code>setSeed()</code> save and restore the generator exactly, the generator can be
+ * jumped ahead any number of steps in O(1), and <code>split()</code> gives an independent stream for another thread.
+ */
+
+public class SplitMix64 implements ContinuousGenerator {
+    // The odd increment (golden ratio * 2^64)
+    private static final long GAMMA = 0x9e3779b97f4a7c15L;
+    // The counter
+    private long seed;
+
+    public SplitMix64 () { reseed(); }
+    public SplitMix64 (long seed) { setSeed(seed); }
+
+    // ----- implements ContinuousGenerator { -----
+    /**
+     * @return A uniform number in the open interval (0, 1) with 53 random bits
+     */
+    public double sample() {
+	return ((nextLong() >>> 11) + 0.5) * 0x1.0p-53;
+    }
+
+    public void sample(double[] dst, int off, int len) {
+	long s = seed;
+	for (int i = off; i < off + len; i++) {
+	    s += GAMMA;
+	    dst[i] = ((mix64(s) >>> 11) + 0.5) * 0x1.0p-53;
+	}
+	seed = s;
+    }
+    // ----- } implements ContinuousGenerator -----
+
+    /**
+     * @return The next 64-bit random number in the sequence
+     */
+    public long nextLong() {
+	return mix64(seed += GAMMA);
+    }
+
+    /**
+     * Advances the generator <code>n</code> steps in O(1) time. The result
+     * is the same as calling <code>nextLong()</code> <code>n</code> times.
+     * @param n The number of steps
+     */
+    public void skip(long n) {
+	seed += n * GAMMA;
+    }
+
+    /**
+     * Creates a new generator whose stream is statistically independent of this one,
+     * e.g. for another thread. This generator advances one step.
+     * @return The new generator
+     */
+    public SplitMix64 split() {
+	return new SplitMix64(mix64(nextLong()));
+    }
+
+    // Stafford's variant 13 of the MurmurHash3 finalizer
+    private static long mix64(long z) {
+	z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+	z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+	return z ^ (z >>> 31);
+    }
+
+    // ----- implements Seedable { -----
+    public void setSeed(long seed) { this.seed = seed; }
+    public long getSeed() { return seed; }
+    public void reseed() { this.seed = mix64(SeedGenerator.getDefaultSeedGenerator().sample()); }
+    // ----- } implements Seedable -----
+}
@@ -0,0 +1,96 @@
+package application.eduni.distributions;
+
+/**
+ * A random number generator based on the normal distribution truncated to an interval,
+ * e.g. <code>[0, &infin;)</code> for durations which must not be negative.
+ * It is sampled by inversion: one uniform sample is mapped to a probability between
+ * <code>normalCdf(a)</code> and <code>normalCdf(b)</code> and through <code>normalQuantile</code>,
+ * so there is no rejection loop however little of the normal distribution lies in the interval.
+ */
+
+public class TruncatedNormal extends Generator implements ContinuousGenerator {
+    private double mean, std_dev, min, max;
+    // the interval in standard normal probabilities: below it, above it and inside it.
+    // Upper half probabilities are inverted through their complements, which keep their precision
+    private double p_below, p_above, p_inside;
+
+    /**
+     * the seed is automatically provided by the <code>SeedGenerator</code>
+     * @param mean The mean of the normal distribution before truncation
+     * @param variance The variance of the normal distribution before truncation
+     * @param min The lower bound, may be <code>Double.NEGATIVE_INFINITY</code>
+     * @param max The upper bound, may be <code>Double.POSITIVE_INFINITY</code>
+     */
+    public TruncatedNormal(double mean, double variance, double min, double max) {
+	super();
+	set(mean, variance, min, max);
+    }
+
+    /**
+     * The constructor with which a specific seed is set for the random
+     * number generator
+     * @param mean The mean of the normal distribution before truncation
+     * @param variance The variance of the normal distribution before truncation
+     * @param min The lower bound, may be <code>Double.NEGATIVE_INFINITY</code>
+     * @param max The upper bound, may be <code>Double.POSITIVE_INFINITY</code>
+     * @param seed The initial seed for the generator, two instances with
+     *             the same seed will generate the same sequence of numbers
+     */
+    public TruncatedNormal(double mean, double variance, double min, double max, long seed) {
+	super(seed);
+	set(mean, variance, min, max);
+    }
+
+    /**
+     * The constructor with which the uniform random number source is given
+     * @param mean The mean of the normal distribution before truncation
+     * @param variance The variance of the normal distribution before truncation
+     * @param min The lower bound, may be <code>Double.NEGATIVE_INFINITY</code>
+     * @param max The upper bound, may be <code>Double.POSITIVE_INFINITY</code>
+     * @param source The generator the samples are drawn from; its seed is the seed of this generator
+     */
+    public TruncatedNormal(double mean, double variance, double min, double max, ContinuousGenerator source) {
+	super(source);
+	set(mean, variance, min, max);
+    }
+
+    private void set(double mean, double variance, double min, double max) {
+	if (variance <= 0.0)
+	    throw new ParameterException("TruncatedNormal: The variance must be greater than 0.");
+	if (max <= min)
+	    throw new ParameterException("TruncatedNormal: The maximum must be greater than the minimum.");
+	this.mean = mean;
+	this.std_dev = Math.sqrt(variance);
+	this.min = min;
+	this.max = max;
+	double a = (min - mean) / std_dev, b = (max - mean) / std_dev;
+	p_below = Distributions.normalCdf(a);
+	p_above = Distributions.normalCdf(-b);
+	if (a > 0) p_inside = Distributions.normalCdf(-a) - p_above;
+	else if (b < 0) p_inside = Distributions.normalCdf(b) - p_below;
+	else p_inside = 1 - p_below - p_above;
+	if (p_inside <= 0)
+	    throw new ParameterException("TruncatedNormal: The interval has no probability.");
+    }
+
+    private double fromUniform(double u) {
+	double p = p_below + u * p_inside;
+	double z = p <= 0.5 ? Distributions.normalQuantile(p)
+	    : -Distributions.normalQuantile(p_above + (1 - u) * p_inside);
+	// the approximate quantile may step over a bound by a rounding error
+	return Math.min(Math.max(mean + std_dev * z, min), max);
+    }
+
+    /**
+     * Generate a new random number.
+     * @return The next random number in the sequence
+     */
+    public double sample() {
+	return fromUniform(distrib.uniform(0.0, 1.0));
+    }
+
+    public void sample(double[] dst, int off, int len) {
+	distrib.uniform(0.0, 1.0, dst, off, len);
+	for (int i = off; i < off + len; i++) dst[i] = fromUniform(dst[i]);
+    }
+}
@@ -40,4 +40,8 @@ public class Tstudent extends Generator implements ContinuousGenerator {
     public double sample() { 
          return distrib.tstudent(deg_freedom);
     }
+
+    public void sample(double[] dst, int off, int len) {
+	for (int i = off; i < off + len; i++) dst[i] = distrib.tstudent(deg_freedom);
+    }
 }
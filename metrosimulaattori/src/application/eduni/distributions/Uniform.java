@@ -42,4 +42,8 @@ public class Uniform extends Generator implements ContinuousGenerator {
     public double sample() { 
          return distrib.uniform(min, max);
     }
+
+    public void sample(double[] dst, int off, int len) {
+	distrib.uniform(min, max, dst, off, len);
+    }
 }
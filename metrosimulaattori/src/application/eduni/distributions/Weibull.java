@@ -42,4 +42,8 @@ public class Weibull extends Generator implements ContinuousGenerator {
     public double sample() { 
          return distrib.weibull(scale, shape);
     }
+
+    public void sample(double[] dst, int off, int len) {
+	for (int i = off; i < off + len; i++) dst[i] = distrib.weibull(scale, shape);
+    }
 }
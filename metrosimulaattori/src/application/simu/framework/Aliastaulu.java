@@ -0,0 +1,91 @@
+package application.simu.framework;
+
+/**
+ * Diskreetin jakauman arvonta alias-menetelmällä (Walker, Vose). Taulu rakennetaan kerran painoista,
+ * minkä jälkeen jokainen arvonta on vakioaikainen: yhdellä tasajakautuneella luvulla valitaan sarake
+ * ja sen sisältä joko sarakkeen oma arvo tai sen alias.
+ */
+public class Aliastaulu {
+
+	/**
+	 * Todennäköisyys, jolla sarakkeesta palautetaan sarakkeen oma indeksi
+	 */
+	private final double[] raja;
+
+	/**
+	 * Sarakkeen toinen indeksi
+	 */
+	private final int[] alias;
+
+	/**
+	 * @param painot ei-negatiiviset painot, joista vähintään yksi on positiivinen
+	 */
+	public Aliastaulu(double[] painot){
+		int n = painot.length;
+		double summa = 0;
+		for (double p : painot){
+			if (!(p >= 0) || Double.isInfinite(p)){
+				throw new IllegalArgumentException("Virheellinen paino " + p);
+			}
+			summa += p;
+		}
+		if (n == 0 || summa == 0){
+			throw new IllegalArgumentException("Painojen summa on nolla");
+		}
+		raja = new double[n];
+		alias = new int[n];
+
+		// sarakkeet jaetaan vajaisiin (< 1) ja ylitäysiin (>= 1), ja ylitäydet täyttävät vajaat
+		double[] osuus = new double[n];
+		int[] vajaat = new int[n], taydet = new int[n];
+		int v = 0, t = 0;
+		for (int i = 0; i < n; i++){
+			osuus[i] = painot[i] * n / summa;
+			if (osuus[i] < 1){
+				vajaat[v++] = i;
+			} else {
+				taydet[t++] = i;
+			}
+		}
+		while (v > 0 && t > 0){
+			int pieni = vajaat[--v], suuri = taydet[--t];
+			raja[pieni] = osuus[pieni];
+			alias[pieni] = suuri;
+			osuus[suuri] -= 1 - osuus[pieni];
+			if (osuus[suuri] < 1){
+				vajaat[v++] = suuri;
+			} else {
+				taydet[t++] = suuri;
+			}
+		}
+		// pyöristysvirheiden vuoksi jäljelle jääneet ovat täysiä
+		while (t > 0){
+			int i = taydet[--t];
+			raja[i] = 1;
+			alias[i] = i;
+		}
+		while (v > 0){
+			int i = vajaat[--v];
+			raja[i] = 1;
+			alias[i] = i;
+		}
+	}
+
+	/**
+	 * Arpoo indeksin painojen suhteessa
+	 * @param u tasajakautunut luku väliltä [0, 1)
+	 * @return indeksi 0 .. {@link #getKoko()} - 1
+	 */
+	public int arvo(double u){
+		double x = u * raja.length;
+		int i = Math.min((int) x, raja.length - 1);
+		return x - i < raja[i] ? i : alias[i];
+	}
+
+	/**
+	 * @return vaihtoehtojen määrä
+	 */
+	public int getKoko(){
+		return raja.length;
+	}
+}
@@ -0,0 +1,58 @@
+package application.simu.framework;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * {@link Random}, jonka tila voidaan tallentaa ja palauttaa. Generaattori on sama 48-bittinen lineaarinen
+ * kongruenssigeneraattori kuin Randomissa, joten samalla siemenellä saadaan samat luvut.
+ * {@link #nextGaussian()}-metodin välimuistissa oleva luku ei kuulu tallennettavaan tilaan.
+ */
+public class Arpa extends Random implements Tilallinen {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final long KERROIN = 0x5DEECE66DL;
+	private static final long LISAYS = 0xBL;
+	private static final long MASKI = (1L << 48) - 1;
+
+	// Random kutsuu setSeed-metodia konstruktorissaan, joten kentällä ei saa olla alustinta
+	private long tila;
+
+	/**
+	 * Arpa, jonka siemen on eri jokaisella luontikerralla kuten {@link Random#Random()}
+	 */
+	public Arpa(){
+		super();
+	}
+
+	/**
+	 * @param siemen siemen kuten {@link Random#Random(long)}
+	 */
+	public Arpa(long siemen){
+		super(siemen);
+	}
+
+	@Override
+	public void setSeed(long siemen){
+		tila = (siemen ^ KERROIN) & MASKI;
+	}
+
+	@Override
+	protected int next(int bitit){
+		tila = (tila * KERROIN + LISAYS) & MASKI;
+		return (int) (tila >>> (48 - bitit));
+	}
+
+	@Override
+	public void tallennaTila(DataOutput out) throws IOException {
+		out.writeLong(tila);
+	}
+
+	@Override
+	public void palautaTila(DataInput in) throws IOException {
+		tila = in.readLong();
+	}
+}
@@ -0,0 +1,111 @@
+package application.simu.framework;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import application.eduni.distributions.ContinuousGenerator;
+
+/**
+ * Jakauma, joka arpoo lukunsa etukäteen lohkoina ({@link ContinuousGenerator#sample(double[], int, int)}) ja antaa ne
+ * yksi kerrallaan. Luvut ovat samat ja samassa järjestyksessä kuin suoraan jakaumasta arvottuina, mutta jakaumaa
+ * kutsutaan vain kerran lohkoa kohden, ja lohkon luvut arvotaan yhdessä tiiviissä silmukassa.
+ * <p>
+ * Jakauman siemen on käyttämättömien lukujen edellä, joten tilaan ({@link Tilallinen}) kuuluvat siemenen lisäksi
+ * lohkon käyttämättömät luvut.
+ */
+public class Esihaku implements ContinuousGenerator, Tilallinen {
+
+	private final ContinuousGenerator jakauma;
+
+	private final double[] lohko;
+
+	/**
+	 * Seuraavan käyttämättömän luvun indeksi, lohkon pituus kun lohko on käytetty
+	 */
+	private int seuraava;
+
+	/**
+	 * @param jakauma jakauma, josta luvut arvotaan
+	 * @param koko lohkon koko, vähintään 1
+	 */
+	public Esihaku(ContinuousGenerator jakauma, int koko){
+		if (koko < 1){
+			throw new IllegalArgumentException("Lohkon koon on oltava vähintään 1: " + koko);
+		}
+		this.jakauma = jakauma;
+		this.lohko = new double[koko];
+		this.seuraava = koko;
+	}
+
+	@Override
+	public double sample(){
+		if (seuraava == lohko.length){
+			jakauma.sample(lohko, 0, lohko.length);
+			seuraava = 0;
+		}
+		return lohko[seuraava++];
+	}
+
+	@Override
+	public void sample(double[] dst, int off, int len){
+		int n = Math.min(len, lohko.length - seuraava);
+		System.arraycopy(lohko, seuraava, dst, off, n);
+		seuraava += n;
+		jakauma.sample(dst, off + n, len - n);
+	}
+
+	/**
+	 * Asettaa jakauman siemenen ja hylkää etukäteen arvotut luvut
+	 * @param seed siemen
+	 */
+	@Override
+	public void setSeed(long seed){
+		jakauma.setSeed(seed);
+		seuraava = lohko.length;
+	}
+
+	/**
+	 * @return jakauman siemen, joka on käyttämättömien lukujen edellä
+	 */
+	@Override
+	public long getSeed(){
+		return jakauma.getSeed();
+	}
+
+	@Override
+	public void reseed(){
+		jakauma.reseed();
+		seuraava = lohko.length;
+	}
+
+	/**
+	 * getteri
+	 * @return jakauma, josta luvut arvotaan
+	 */
+	public ContinuousGenerator getJakauma(){
+		return jakauma;
+	}
+
+	@Override
+	public void tallennaTila(DataOutput out) throws IOException {
+		out.writeLong(jakauma.getSeed());
+		out.writeInt(lohko.length - seuraava);
+		for (int i = seuraava; i < lohko.length; i++){
+			out.writeDouble(lohko[i]);
+		}
+	}
+
+	@Override
+	public void palautaTila(DataInput in) throws IOException {
+		jakauma.setSeed(in.readLong());
+		int n = in.readInt();
+		if (n < 0 || n > lohko.length){
+			throw new IOException("Tilannekuvassa on " + n + " etukäteen arvottua lukua, lohkossa tilaa " + lohko.length);
+		}
+		seuraava = lohko.length - n;
+		for (int i = seuraava; i < lohko.length; i++){
+			lohko[i] = in.readDouble();
+		}
+	}
+}
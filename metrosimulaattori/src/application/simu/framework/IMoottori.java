@@ -1,6 +1,8 @@
 package application.simu.framework;
 
+import application.eduni.distributions.ContinuousGenerator;
 import application.simu.model.Palvelupiste;
+import application.simu.model.TapahtumanTyyppi;
 
 public interface IMoottori { // UUSI
 
@@ -12,9 +14,13 @@ public interface IMoottori { // UUSI
 
 	public long getViive();
 
+	public Kello getKello();
+
 
 	public abstract Palvelupiste[] getPalvelupisteet();
 
+	public abstract Palvelupiste getPalvelupiste(TapahtumanTyyppi tt);
+
 	public abstract double getLapimenoaika();
 
 	public abstract int getMetroCapacity();
@@ -32,4 +38,6 @@ public interface IMoottori { // UUSI
 	public void setMobiililippujakauma(int mobiililippujakauma);
 
 	public int getMobiililippujakauma();
+
+	public void setSaapumisjakauma(ContinuousGenerator jakauma);
 }
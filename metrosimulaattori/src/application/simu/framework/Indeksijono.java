@@ -0,0 +1,193 @@
+package application.simu.framework;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * FIFO-jono int-arvoille (esim. asiakkaiden paikoille {@code Asiakasvarasto}ssa).
+ * Rengaspuskuri kasvaa tarvittaessa kaksinkertaiseksi, joten lisäys ja poisto ovat tasoitetusti O(1)
+ * eivätkä luo olioita.
+ * <p>
+ * Optimistisessa ajossa jono kirjaa muutoksensa {@link Muutosloki}in ({@link #setMuutosloki(Muutosloki)}),
+ * jolloin sitä ei tarvitse kopioida tarkistuspisteisiin.
+ */
+public class Indeksijono implements Tilallinen, Muutosloki.Kumottava {
+
+	// muutosten lajit lokissa
+	private static final int LISATTY = 0;
+	private static final int LISATTY_ALKUUN = 1;
+	private static final int POISTETTU = 2;
+
+	private int[] alkiot;
+	private int maski;
+	private int alku = 0;
+	private int koko = 0;
+
+	/**
+	 * Loki, johon muutokset kirjataan, null jos muutoksia ei kirjata
+	 */
+	private Muutosloki loki;
+
+	private int lokitunnus;
+
+	public Indeksijono(){
+		this(16);
+	}
+
+	/**
+	 * @param kapasiteetti alkukapasiteetti, pyöristetään ylöspäin kahden potenssiksi
+	 */
+	public Indeksijono(int kapasiteetti){
+		int n = Integer.highestOneBit(Math.max(kapasiteetti, 2) - 1) << 1;
+		alkiot = new int[n];
+		maski = n - 1;
+	}
+
+	public void lisaa(int arvo){
+		if (koko == alkiot.length){
+			kasvata();
+		}
+		alkiot[(alku + koko) & maski] = arvo;
+		koko++;
+		if (loki != null){
+			loki.kirjaa(lokitunnus, LISATTY, 0, 0);
+		}
+	}
+
+	/**
+	 * Lisää arvon jonon alkuun, jolloin se poistetaan seuraavaksi
+	 */
+	public void lisaaAlkuun(int arvo){
+		lisaaAlkuunKirjaamatta(arvo);
+		if (loki != null){
+			loki.kirjaa(lokitunnus, LISATTY_ALKUUN, 0, 0);
+		}
+	}
+
+	/**
+	 * Poistaa jonon ensimmäisen arvon
+	 * @return poistettu arvo
+	 */
+	public int poista(){
+		if (koko == 0){
+			throw new IllegalStateException("Jono on tyhjä");
+		}
+		int arvo = alkiot[alku];
+		alku = (alku + 1) & maski;
+		koko--;
+		if (loki != null){
+			loki.kirjaa(lokitunnus, POISTETTU, arvo, 0);
+		}
+		return arvo;
+	}
+
+	/**
+	 * Poistaa jonon alusta enintään n arvoa kerralla ja kopioi ne taulukkoon jonojärjestyksessä.
+	 * Rengaspuskurista kopioidaan enintään kaksi yhtenäistä pätkää.
+	 * @param kohde taulukko, johon arvot kopioidaan
+	 * @param alku ensimmäisen arvon indeksi kohdetaulukossa
+	 * @param n poistettavien arvojen enimmäismäärä
+	 * @return poistettujen arvojen määrä, min(n, jonon koko)
+	 */
+	public int poista(int[] kohde, int alku, int n){
+		int m = Math.min(Math.max(n, 0), koko);
+		int ensin = Math.min(m, alkiot.length - this.alku);
+		System.arraycopy(alkiot, this.alku, kohde, alku, ensin);
+		System.arraycopy(alkiot, 0, kohde, alku + ensin, m - ensin);
+		this.alku = (this.alku + m) & maski;
+		koko -= m;
+		if (loki != null){
+			for (int i = alku; i < alku + m; i++){
+				loki.kirjaa(lokitunnus, POISTETTU, kohde[i], 0);
+			}
+		}
+		return m;
+	}
+
+	/**
+	 * @return jonon ensimmäinen arvo poistamatta sitä
+	 */
+	public int ensimmainen(){
+		if (koko == 0){
+			throw new IllegalStateException("Jono on tyhjä");
+		}
+		return alkiot[alku];
+	}
+
+	public boolean onTyhja(){
+		return koko == 0;
+	}
+
+	public int getKoko(){
+		return koko;
+	}
+
+	/**
+	 * Kytkee jonon muutoslokiin. Kytketyn jonon lisäykset ja poistot kirjataan lokiin, jotta ne voidaan kumota.
+	 * @param loki muutosloki, null jos muutoksia ei kirjata
+	 */
+	public void setMuutosloki(Muutosloki loki){
+		this.loki = loki;
+		lokitunnus = loki == null ? 0 : loki.rekisteroi(this);
+	}
+
+	@Override
+	public void kumoa(int laji, int paikka, long arvo){
+		switch (laji){
+			case LISATTY:
+				koko--;
+				break;
+			case LISATTY_ALKUUN:
+				alku = (alku + 1) & maski;
+				koko--;
+				break;
+			case POISTETTU:
+				lisaaAlkuunKirjaamatta(paikka);
+				break;
+			default:
+				throw new IllegalArgumentException("Tuntematon muutos " + laji);
+		}
+	}
+
+	@Override
+	public void tallennaTila(DataOutput out) throws IOException {
+		out.writeInt(koko);
+		for (int i = 0; i < koko; i++){
+			out.writeInt(alkiot[(alku + i) & maski]);
+		}
+	}
+
+	@Override
+	public void palautaTila(DataInput in) throws IOException {
+		int n = in.readInt();
+		alku = 0;
+		koko = 0;
+		while (alkiot.length < n){
+			kasvata();
+		}
+		for (int i = 0; i < n; i++){
+			alkiot[i] = in.readInt();
+		}
+		koko = n;
+	}
+
+	private void lisaaAlkuunKirjaamatta(int arvo){
+		if (koko == alkiot.length){
+			kasvata();
+		}
+		alku = (alku - 1) & maski;
+		alkiot[alku] = arvo;
+		koko++;
+	}
+
+	// Kopioi alkiot kaksinkertaiseen taulukkoon niin, että jono alkaa indeksistä 0
+	private void kasvata(){
+		int[] uusi = Arrays.copyOfRange(alkiot, alku, alku + 2 * alkiot.length);
+		System.arraycopy(alkiot, 0, uusi, alkiot.length - alku, alku);
+		alkiot = uusi;
+		maski = uusi.length - 1;
+		alku = 0;
+	}
+}
@@ -0,0 +1,71 @@
+package application.simu.framework;
+
+import application.eduni.distributions.ContinuousGenerator;
+import application.eduni.distributions.LogNormal;
+import application.eduni.distributions.Normal;
+import application.eduni.distributions.RandomGenerator;
+import application.eduni.distributions.ShiftedExponential;
+import application.eduni.distributions.TruncatedNormal;
+
+/**
+ * Jakaumaperhe, josta palvelu- ja saapumisajat arvotaan annetulla odotusarvolla ja varianssilla.
+ * Normaalijakauma voi antaa negatiivisia aikoja, jotka ajoittavat tapahtumia menneisyyteen; suurella varianssilla
+ * niitä tulee paljon. Muut perheet antavat vain ei-negatiivisia aikoja, ja ne arvotaan kääntämällä kertymäfunktio
+ * (lognormaalijakauma normaalijakauman kvantiilifunktion kautta, {@link Normal.Method#INVERSION}), joten yksi luku
+ * vie aina yhden tasajakautuneen luvun eikä hylkäyssilmukoita ole. Normaalijakauma arvotaan asetetulla menetelmällä.
+ */
+public enum Jakaumatyyppi {
+	/**
+	 * Normaalijakauma sellaisenaan. Tulokset ovat samat kuin aiemmin.
+	 */
+	NORMAALI,
+	/**
+	 * Normaalijakauma katkaistuna välille [0, &infin;). Odotusarvo on hieman annettua suurempi ja varianssi
+	 * pienempi sitä enemmän, mitä suurempi osa jakaumasta jää nollan alle.
+	 */
+	KATKAISTU_NORMAALI,
+	/**
+	 * Lognormaalijakauma, jolla on annettu odotusarvo ja varianssi. Odotusarvon on oltava positiivinen.
+	 * Arvotaan aina kääntämällä normaalijakauman kertymäfunktio asetetusta menetelmästä riippumatta.
+	 */
+	LOGNORMAALI,
+	/**
+	 * Siirretty eksponenttijakauma: vähimmäisaika odotusarvo - keskihajonta ja sen päälle eksponentiaalinen osa,
+	 * jolloin odotusarvo ja varianssi ovat annetut. Jos keskihajonta on odotusarvoa suurempi, vähimmäisaika on 0
+	 * ja varianssi odotusarvon neliö.
+	 */
+	SIIRRETTY_EKSPONENTTI;
+
+	/**
+	 * Luo jakauman, jonka siemen tulee eduni-kirjaston siemengeneraattorilta ja jonka normaaliluvut arvotaan
+	 * Box-Müller-menetelmällä, kuten siementämättömällä {@link Normal}-jakaumalla
+	 * @param odotusarvo odotusarvo
+	 * @param varianssi varianssi
+	 * @return uusi jakauma
+	 */
+	public ContinuousGenerator luo(double odotusarvo, double varianssi){
+		return luo(odotusarvo, varianssi, new RandomGenerator(), Normal.Method.BOX_MULLER);
+	}
+
+	/**
+	 * Luo jakauman, joka arvotaan annetusta lähteestä
+	 * @param odotusarvo odotusarvo
+	 * @param varianssi varianssi
+	 * @param lahde tasajakautuneiden lukujen lähde, jonka siemen on jakauman siemen
+	 * @param menetelma menetelmä, jolla normaalijakauma arvotaan
+	 * @return uusi jakauma
+	 */
+	public ContinuousGenerator luo(double odotusarvo, double varianssi, ContinuousGenerator lahde, Normal.Method menetelma){
+		switch (this){
+			case KATKAISTU_NORMAALI:
+				return new TruncatedNormal(odotusarvo, varianssi, 0, Double.POSITIVE_INFINITY, lahde);
+			case LOGNORMAALI:
+				return LogNormal.withMeanAndStdDev(odotusarvo, Math.sqrt(varianssi), lahde, Normal.Method.INVERSION);
+			case SIIRRETTY_EKSPONENTTI:
+				double vahimmais = Math.max(0, odotusarvo - Math.sqrt(varianssi));
+				return new ShiftedExponential(vahimmais, odotusarvo, lahde);
+			default:
+				return new Normal(odotusarvo, varianssi, lahde, menetelma);
+		}
+	}
+}
@@ -0,0 +1,213 @@
+package application.simu.framework;
+
+import application.simu.model.TapahtumanTyyppi;
+
+/**
+ * Kalenterijono (R. Brown, "Calendar queues", CACM 1988). Aika-akseli jaetaan {@link #leveys}-levyisiin
+ * päiviin, jotka kiertävät {@link #lokerot}-taulukossa kuin vuoden päivät kalenterissa. Jokainen lokero on
+ * aikajärjestyksessä oleva lista. Lokeroiden määrä kaksinkertaistetaan tai puolitetaan tapahtumien
+ * määrän mukaan ja päivän leveys arvioidaan uudelleen jonon alun tapahtumaväleistä,
+ * joten lisäys ja poisto ovat tasoitetusti O(1).
+ */
+public class KalenteriTapahtumalista implements Tapahtumalista {
+
+	private static final int LOPPU = Tapahtumavarasto.LOPPU;
+	private static final int MIN_LOKEROT = 2;
+	private static final int NAYTTEITA = 25;
+
+	private final Tapahtumavarasto v = new Tapahtumavarasto(64);
+
+	private int[] lokerot;
+	private int maski;
+	private double leveys = 1.0;
+
+	/**
+	 * Päivä (aika / leveys), josta seuraavaa tapahtumaa etsitään. Yhdenkään tapahtuman päivä ei ole tätä pienempi.
+	 */
+	private long nykyinen = 0;
+
+	/**
+	 * Aikaisimman tapahtuman paikka, jos se on jo etsitty
+	 */
+	private int seuraava = LOPPU;
+
+	private int koko = 0;
+
+	private final int[] naytteet = new int[NAYTTEITA];
+
+	public KalenteriTapahtumalista(){
+		lokerot = uudetLokerot(MIN_LOKEROT);
+		maski = MIN_LOKEROT - 1;
+	}
+
+	@Override
+	public void lisaa(TapahtumanTyyppi tyyppi, double aika, int kohde){
+		int e = v.varaa(aika, tyyppi.ordinal(), kohde);
+		long paiva = paiva(aika);
+		lisaaLokeroon(e, paiva);
+		koko++;
+		if (paiva < nykyinen){
+			nykyinen = paiva; // tapahtuma menneisyyteen
+		}
+		if (seuraava != LOPPU && v.ennen(e, seuraava)){
+			seuraava = LOPPU;
+		}
+		if (koko > 2 * lokerot.length){
+			muutaKokoa(2 * lokerot.length);
+		}
+	}
+
+	@Override
+	public TapahtumanTyyppi poista(){
+		int e = irrota();
+		if (e == LOPPU){
+			throw new IllegalStateException("Tapahtumalista on tyhjä");
+		}
+		int tyyppi = v.tyyppi[e];
+		v.vapauta(e);
+		if (koko < lokerot.length / 2 && lokerot.length > MIN_LOKEROT){
+			muutaKokoa(lokerot.length / 2);
+		}
+		return Tapahtumavarasto.TYYPIT[tyyppi];
+	}
+
+	@Override
+	public double getSeuraavanAika(){
+		int e = etsi();
+		return e == LOPPU ? Double.POSITIVE_INFINITY : v.aika[e];
+	}
+
+	@Override
+	public TapahtumanTyyppi getSeuraavanTyyppi(){
+		int e = etsi();
+		return e == LOPPU ? null : Tapahtumavarasto.TYYPIT[v.tyyppi[e]];
+	}
+
+	@Override
+	public int getSeuraavanKohde(){
+		int e = etsi();
+		return e == LOPPU ? 0 : v.kohde[e];
+	}
+
+	@Override
+	public int getKoko(){
+		return koko;
+	}
+
+	private long paiva(double aika){
+		return (long) Math.floor(aika / leveys);
+	}
+
+	private static int[] uudetLokerot(int n){
+		int[] l = new int[n];
+		java.util.Arrays.fill(l, LOPPU);
+		return l;
+	}
+
+	// Lisää paikan lokeronsa listaan tapahtumajärjestykseen
+	private void lisaaLokeroon(int e, long paiva){
+		int b = (int) (paiva & maski);
+		int p = lokerot[b];
+		if (p == LOPPU || v.ennen(e, p)){
+			v.seuraava[e] = p;
+			lokerot[b] = e;
+			return;
+		}
+		int q = v.seuraava[p];
+		while (q != LOPPU && !v.ennen(e, q)){
+			p = q;
+			q = v.seuraava[q];
+		}
+		v.seuraava[e] = q;
+		v.seuraava[p] = e;
+	}
+
+	// Etsii aikaisimman tapahtuman käymällä päiviä läpi nykyisestä eteenpäin korkeintaan vuoden verran
+	private int etsi(){
+		if (seuraava != LOPPU || koko == 0){
+			return seuraava;
+		}
+		for (int n = 0; n <= maski; n++){
+			long paiva = nykyinen + n;
+			int e = lokerot[(int) (paiva & maski)];
+			if (e != LOPPU && paiva(v.aika[e]) <= paiva){
+				nykyinen = paiva;
+				seuraava = e;
+				return e;
+			}
+		}
+		// vuoden aikana ei ollut tapahtumia: haetaan pienin suoraan lokeroiden alusta
+		int min = LOPPU;
+		for (int e : lokerot){
+			if (e != LOPPU && (min == LOPPU || v.ennen(e, min))){
+				min = e;
+			}
+		}
+		nykyinen = paiva(v.aika[min]);
+		seuraava = min;
+		return min;
+	}
+
+	// Irrottaa aikaisimman tapahtuman vapauttamatta sen paikkaa
+	private int irrota(){
+		int e = etsi();
+		if (e == LOPPU){
+			return LOPPU;
+		}
+		int b = (int) (paiva(v.aika[e]) & maski);
+		lokerot[b] = v.seuraava[e];
+		seuraava = LOPPU;
+		koko--;
+		return e;
+	}
+
+	/**
+	 * Vaihtaa lokeroiden määrän ja arvioi päivän leveyden uudelleen: jonon alusta otetaan
+	 * korkeintaan {@link #NAYTTEITA} tapahtumaa, ja leveydeksi tulee kolme kertaa niiden keskimääräinen väli
+	 * (poikkeuksellisen pitkät välit pois lukien).
+	 */
+	private void muutaKokoa(int uusiKoko){
+		int n = Math.min(koko, NAYTTEITA);
+		for (int i = 0; i < n; i++){
+			naytteet[i] = irrota();
+		}
+		double uusiLeveys = arvioiLeveys(n);
+
+		int[] vanhat = lokerot;
+		lokerot = uudetLokerot(uusiKoko);
+		maski = uusiKoko - 1;
+		if (uusiLeveys > 0){
+			leveys = uusiLeveys;
+		}
+		for (int i = 0; i < n; i++){
+			lisaaLokeroon(naytteet[i], paiva(v.aika[naytteet[i]]));
+		}
+		for (int e : vanhat){
+			while (e != LOPPU){
+				int seur = v.seuraava[e];
+				lisaaLokeroon(e, paiva(v.aika[e]));
+				e = seur;
+			}
+		}
+		koko += n;
+		seuraava = LOPPU;
+		nykyinen = n > 0 ? paiva(v.aika[naytteet[0]]) : 0;
+	}
+
+	private double arvioiLeveys(int n){
+		if (n < 2){
+			return 0;
+		}
+		double vali = (v.aika[naytteet[n - 1]] - v.aika[naytteet[0]]) / (n - 1);
+		double summa = 0;
+		int lkm = 0;
+		for (int i = 1; i < n; i++){
+			double d = v.aika[naytteet[i]] - v.aika[naytteet[i - 1]];
+			if (d <= 2 * vali){
+				summa += d;
+				lkm++;
+			}
+		}
+		return lkm == 0 ? 0 : 3 * summa / lkm;
+	}
+}
@@ -0,0 +1,128 @@
+package application.simu.framework;
+
+import java.util.Arrays;
+
+import application.simu.model.TapahtumanTyyppi;
+
+/**
+ * Tapahtumakalenteri binäärikekona (oletustoteutus). Tapahtumien ajat ja tyypit säilytetään rinnakkaisissa
+ * primitiivitaulukoissa, joten tapahtuman lisääminen tai poistaminen ei luo olioita
+ * (taulukot kasvatetaan tarvittaessa kaksinkertaisiksi). Lisäys ja poisto ovat O(log n).
+ * Samanaikaiset tapahtumat järjestetään tyypin prioriteetin ja lisäysjärjestyksen mukaan kuten muissakin toteutuksissa.
+ */
+public class KekoTapahtumalista implements Tapahtumalista {
+
+	private static final TapahtumanTyyppi[] TYYPIT = TapahtumanTyyppi.values();
+
+	private double[] ajat;
+	private int[] tyypit; // TapahtumanTyyppi.ordinal()
+	private long[] avaimet; // prioriteetti ja lisäysjärjestys, ks. Tapahtumavarasto.avain
+	private int[] kohteet;
+	private int koko = 0;
+	private long jarjestys = 0;
+
+	public KekoTapahtumalista(){
+		this(64);
+	}
+
+	public KekoTapahtumalista(int alkukapasiteetti){
+		ajat = new double[Math.max(alkukapasiteetti, 2)];
+		tyypit = new int[ajat.length];
+		avaimet = new long[ajat.length];
+		kohteet = new int[ajat.length];
+	}
+
+	@Override
+	public TapahtumanTyyppi poista(){
+		if (koko == 0){
+			throw new IllegalStateException("Tapahtumalista on tyhjä");
+		}
+		int tyyppi = tyypit[0];
+		koko--;
+		if (koko > 0){
+			valuAlas(ajat[koko], tyypit[koko], avaimet[koko], kohteet[koko]);
+		}
+		return TYYPIT[tyyppi];
+	}
+
+	@Override
+	public void lisaa(TapahtumanTyyppi tyyppi, double aika, int kohde){
+		if (koko == ajat.length){
+			ajat = Arrays.copyOf(ajat, koko * 2);
+			tyypit = Arrays.copyOf(tyypit, koko * 2);
+			avaimet = Arrays.copyOf(avaimet, koko * 2);
+			kohteet = Arrays.copyOf(kohteet, koko * 2);
+		}
+		int t = tyyppi.ordinal();
+		valuYlos(koko++, aika, t, Tapahtumavarasto.avain(t, jarjestys++), kohde);
+	}
+
+	@Override
+	public double getSeuraavanAika(){
+		return koko == 0 ? Double.POSITIVE_INFINITY : ajat[0];
+	}
+
+	@Override
+	public TapahtumanTyyppi getSeuraavanTyyppi(){
+		return koko == 0 ? null : TYYPIT[tyypit[0]];
+	}
+
+	@Override
+	public int getSeuraavanKohde(){
+		return koko == 0 ? 0 : kohteet[0];
+	}
+
+	@Override
+	public int getKoko(){
+		return koko;
+	}
+
+	// Siirretään vanhempia alaspäin kunnes uudelle tapahtumalle löytyy paikka (ei vaihtoja)
+	private void valuYlos(int i, double aika, int tyyppi, long avain, int kohde){
+		while (i > 0){
+			int vanhempi = (i - 1) >>> 1;
+			if (!ennen(aika, avain, vanhempi)){
+				break;
+			}
+			siirra(vanhempi, i);
+			i = vanhempi;
+		}
+		ajat[i] = aika;
+		tyypit[i] = tyyppi;
+		avaimet[i] = avain;
+		kohteet[i] = kohde;
+	}
+
+	// Täytetään juuresta vapautunut paikka siirtämällä pienempää lasta ylöspäin
+	private void valuAlas(double aika, int tyyppi, long avain, int kohde){
+		int i = 0;
+		int puolet = koko >>> 1;
+		while (i < puolet){
+			int lapsi = 2 * i + 1;
+			if (lapsi + 1 < koko && ennen(ajat[lapsi + 1], avaimet[lapsi + 1], lapsi)){
+				lapsi++;
+			}
+			if (ennen(aika, avain, lapsi)){
+				break;
+			}
+			siirra(lapsi, i);
+			i = lapsi;
+		}
+		ajat[i] = aika;
+		tyypit[i] = tyyppi;
+		avaimet[i] = avain;
+		kohteet[i] = kohde;
+	}
+
+	// Tuleeko tapahtuma (aika, avain) ennen kohdassa j olevaa tapahtumaa
+	private boolean ennen(double aika, long avain, int j){
+		return aika < ajat[j] || (aika == ajat[j] && avain < avaimet[j]);
+	}
+
+	private void siirra(int mista, int mihin){
+		ajat[mihin] = ajat[mista];
+		tyypit[mihin] = tyypit[mista];
+		avaimet[mihin] = avaimet[mista];
+		kohteet[mihin] = kohteet[mista];
+	}
+}
@@ -3,19 +3,12 @@ package application.simu.framework;
 public class Kello {
 
 	private double aika;
-	private static Kello instanssi;
 	
-	private Kello(){
+	// Jokaisella moottorilla on oma kellonsa, jotta useita simulaatioita voidaan ajaa rinnakkain
+	public Kello(){
 		aika = 0;
 	}
 	
-	public static Kello getInstance(){
-		if (instanssi == null){
-			instanssi = new Kello();	
-		}
-		return instanssi;
-	}
-	
 	public void setAika(double aika){
 		this.aika = aika;
 	}
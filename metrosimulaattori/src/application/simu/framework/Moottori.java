@@ -1,28 +1,54 @@
 package application.simu.framework;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.BitSet;
+
 import application.controller.IKontrolleri;
 import application.simu.model.Palvelupiste;
+import application.simu.model.TapahtumanTyyppi;
 
-public abstract class Moottori extends Thread implements IMoottori{  // UUDET MÄÄRITYKSET
+/**
+ * Kolmivaiheinen simulointimoottori. Moottorin tila ({@link Tilallinen}) voidaan tallentaa {@link Tilannekuva}ksi
+ * kierrosten välissä ja palauttaa samalla tavalla rakennettuun moottoriin, joka jatkaa siitä {@link #aja()}-metodilla.
+ */
+public abstract class Moottori extends Thread implements IMoottori, Tilallinen{  // UUDET MÄÄRITYKSET
 	
 	private double simulointiaika = 0;
 	private long viive = 0;
+	private long suoritettujaTapahtumia = 0;
+
+	/**
+	 * Onko ensimmäiset tapahtumat jo luotu (tai tila palautettu tilannekuvasta)
+	 */
+	private boolean alustettu = false;
 	
-	private Kello kello;
+	protected Kello kello;
 	
 	protected Tapahtumalista tapahtumalista;
 	protected Palvelupiste[] palvelupisteet;
+
+	/**
+	 * Palvelupisteet, joiden jono tai palvelimet ovat muuttuneet edellisen C-vaiheen jälkeen.
+	 * Vain niissä voi alkaa uusi palvelu, joten C-vaihe ei käy läpi kaikkia palvelupisteitä.
+	 */
+	private final BitSet muuttuneet = new BitSet();
 	
 	protected IKontrolleri kontrolleri; // UUSI
 	
 
 	public Moottori(IKontrolleri kontrolleri){  // UUSITTU
+		this(kontrolleri, new KekoTapahtumalista());
+	}
+
+	public Moottori(IKontrolleri kontrolleri, Tapahtumalista tapahtumalista){
 		
-		this.kontrolleri = kontrolleri;  //UUSI
+		this.kontrolleri = kontrolleri;  //UUSI, null kun ajetaan ilman käyttöliittymää
 
-		kello = Kello.getInstance(); // Otetaan kello muuttujaan yksinkertaistamaan koodia
+		kello = new Kello(); // Jokaisella moottorilla on oma kello, joka annetaan mallin olioille
 		
-		tapahtumalista = new Tapahtumalista();
+		this.tapahtumalista = tapahtumalista; // toteutus valitaan tapahtumien määrän ja aikajakauman mukaan
 		
 		// Palvelupisteet luodaan simu.model-pakkauksessa Moottorin aliluokassa 
 		
@@ -43,28 +69,131 @@ public abstract class Moottori extends Thread implements IMoottori{  // UUDET M
 	public long getViive() {
 		return viive;
 	}
+
+	@Override
+	public Kello getKello() {
+		return kello;
+	}
+	
+	/**
+	 * @return kuinka monta B-tapahtumaa moottori on suorittanut (suorituskykymittauksia varten)
+	 */
+	public long getSuoritettujaTapahtumia() {
+		return suoritettujaTapahtumia;
+	}
 	
 	@Override
 	public void run(){ // Entinen aja()
-		alustukset(); // luodaan mm. ensimmäinen tapahtuma
+		if (!alustettu){
+			alusta(); // luodaan mm. ensimmäinen tapahtuma
+		}
 		while (simuloidaan()){
 			viive(); // UUSI
-			kello.setAika(nykyaika());
-			suoritaBTapahtumat();
-			yritaCTapahtumat();
+			suoritaKierros();
 		}
 		tulokset();
 	}
+
+	/**
+	 * Ajaa simulaation loppuun kutsuvassa säikeessä ilman viivettä.
+	 * Tarkoitettu eräajoihin (esim. parametrien läpikäynti main-metodista tai testistä),
+	 * joten säiettä ei käynnistetä eikä käyttöliittymää tarvita.
+	 * Jos moottori on jo edennyt ({@link #etene(double)}) tai sen tila on palautettu, ajoa jatketaan siitä.
+	 */
+	public void aja(){
+		etene(Double.POSITIVE_INFINITY);
+		tulokset();
+	}
+
+	/**
+	 * Suorittaa kierroksia, kunnes seuraava kierros olisi rajalla tai sen jälkeen tai simulointiaika on kulunut.
+	 * Tällä ajetaan esim. lämmitysjakso ennen tilannekuvan ottamista.
+	 * @param raja ensimmäinen aika, jota ei suoriteta
+	 */
+	public void etene(double raja){
+		if (!alustettu){
+			alusta();
+		}
+		while (simuloidaan() && nykyaika() < raja){
+			suoritaKierros();
+		}
+	}
+
+	private void alusta(){
+		kytkePalvelupisteet();
+		alustukset();
+		alustettu = true;
+	}
+
+	/**
+	 * Kirjoittaa kellon, tapahtumalaskurin, tapahtumalistan ja palvelupisteiden tilan. Aliluokka lisää mallin oman tilan.
+	 * Simulointiaika, viive ja muut asetukset eivät kuulu tilaan, joten niitä voi muuttaa palautuksen jälkeen.
+	 * @param out kohde
+	 * @throws IOException jos kirjoitus epäonnistuu
+	 */
+	@Override
+	public void tallennaTila(DataOutput out) throws IOException {
+		out.writeDouble(kello.getAika());
+		out.writeLong(suoritettujaTapahtumia);
+		tapahtumalista.tallennaTila(out);
+		out.writeInt(palvelupisteet.length);
+		for (Palvelupiste p : palvelupisteet){
+			p.tallennaTila(out);
+		}
+	}
+
+	/**
+	 * Palauttaa tilan moottoriin, jonka palvelupisteet on luotu samalla topologialla. Moottoria ei alusteta
+	 * uudelleen, vaan {@link #aja()} jatkaa palautetusta tilasta.
+	 * @param in lähde
+	 * @throws IOException jos luku epäonnistuu tai palvelupisteitä on eri määrä
+	 */
+	@Override
+	public void palautaTila(DataInput in) throws IOException {
+		kello.setAika(in.readDouble());
+		suoritettujaTapahtumia = in.readLong();
+		tapahtumalista.palautaTila(in);
+		int n = in.readInt();
+		if (n != palvelupisteet.length){
+			throw new IOException("Tilannekuvassa on " + n + " palvelupistettä, moottorissa " + palvelupisteet.length);
+		}
+		kytkePalvelupisteet();
+		for (Palvelupiste p : palvelupisteet){
+			p.palautaTila(in);
+		}
+		alustettu = true;
+	}
+
+	private void kytkePalvelupisteet(){
+		muuttuneet.clear();
+		for (int i = 0; i < palvelupisteet.length; i++){
+			palvelupisteet[i].setMuuttuneet(muuttuneet, i);
+		}
+	}
+
+	private void suoritaKierros(){
+		kello.setAika(nykyaika());
+		suoritaBTapahtumat();
+		yritaCTapahtumat();
+	}
 	
 	private void suoritaBTapahtumat(){
+		// Kello on asetettu suoraan listan seuraavasta ajasta, joten vertailu on tarkka. Samanaikaiset tapahtumat,
+		// myös tämän kierroksen aikana lisätyt, suoritetaan listan määräämässä järjestyksessä.
 		while (tapahtumalista.getSeuraavanAika() == kello.getAika()){
-			suoritaTapahtuma(tapahtumalista.poista());
+			int kohde = tapahtumalista.getSeuraavanKohde();
+			suoritaTapahtuma(tapahtumalista.poista(), kohde);
+			suoritettujaTapahtumia++;
 		}
 	}
 
 	private void yritaCTapahtumat(){    // määrittele protectediksi, josa haluat ylikirjoittaa
-		for (Palvelupiste p: palvelupisteet){
-			if (!p.onVarattu() && p.onJonossa()){
+		// Palvelupisteet käydään indeksijärjestyksessä kuten ennenkin, joten tapahtumien järjestys ei muutu.
+		// aloitaPalvelu ei merkitse palvelupistettä, joten käsitelty palvelupiste jää pois joukosta.
+		for (int i = muuttuneet.nextSetBit(0); i >= 0; i = muuttuneet.nextSetBit(i + 1)){
+			muuttuneet.clear(i);
+			Palvelupiste p = palvelupisteet[i];
+			while (!p.onVarattu() && p.onJonossa()){ // palvelu aloitetaan jokaisella vapaalla palvelimella
 				p.aloitaPalvelu();
 			}
 		}
@@ -76,13 +205,15 @@ public abstract class Moottori extends Thread implements IMoottori{  // UUDET M
 	}
 	
 	private boolean simuloidaan(){
-		Trace.out(Trace.Level.INFO, "Kello on: " + kello.getAika());
+		if (Trace.isEnabled(Trace.Level.INFO)){
+			Trace.out(Trace.Level.INFO, "Kello on: " + kello.getAika());
+		}
 		return kello.getAika() < simulointiaika;
 	}
 	
 			
 	private void viive() { // UUSI
-		Trace.out(Trace.Level.INFO, "Viive " + viive);
+		Trace.out(Trace.Level.INFO, () -> "Viive " + viive);
 		try {
 			sleep(viive);
 		} catch (InterruptedException e) {
@@ -92,7 +223,7 @@ public abstract class Moottori extends Thread implements IMoottori{  // UUDET M
 
 	protected abstract void alustukset(); // Määritellään simu.model-pakkauksessa Moottorin aliluokassa
 	
-	protected abstract void suoritaTapahtuma(Tapahtuma t);  // Määritellään simu.model-pakkauksessa Moottorin aliluokassa
+	protected abstract void suoritaTapahtuma(TapahtumanTyyppi tyyppi, int kohde);  // Määritellään simu.model-pakkauksessa Moottorin aliluokassa
 	
 	protected abstract void tulokset(); // Määritellään simu.model-pakkauksessa Moottorin aliluokassa
 	
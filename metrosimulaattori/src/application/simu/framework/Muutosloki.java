@@ -0,0 +1,151 @@
+package application.simu.framework;
+
+import java.util.Arrays;
+
+/**
+ * Muutosloki optimistisen ajon tarkistuspisteitä varten (inkrementaalinen tilan tallennus). Rakenteet, joiden koko
+ * kasvaa kuorman mukana (jonot ja asiakasvarasto), eivät kuulu tarkistuspisteeseen, vaan ne kirjaavat jokaisesta
+ * muutoksestaan lokiin tiedon, jolla muutos voidaan kumota. Tarkistuspisteeseen tallennetaan lokin {@link #getLoppu() loppu},
+ * ja peruutus kumoaa muutokset käänteisessä järjestyksessä siihen asti.
+ * <p>
+ * Tarkistuspisteen hinta ei siis riipu jonojen pituudesta, ja lokissa on vain vanhimman säilytetyn tarkistuspisteen
+ * jälkeen tehdyt muutokset. Merkinnät ovat rengaspuskurissa rinnakkaisissa primitiivitaulukoissa, joten kirjaaminen
+ * ei luo olioita.
+ */
+public class Muutosloki {
+
+	/**
+	 * Rakenne, joka kirjaa muutoksensa lokiin
+	 */
+	public interface Kumottava {
+
+		/**
+		 * Kumoaa kirjatun muutoksen. Kumoaminen ei kirjaa lokiin.
+		 * @param laji rakenteen oma muutoksen laji
+		 * @param paikka muutoksen kohde rakenteessa, esim. indeksi
+		 * @param arvo muutoksen kumoamiseen tarvittava arvo, esim. korvattu arvo
+		 */
+		void kumoa(int laji, int paikka, long arvo);
+	}
+
+	/**
+	 * Lajille varatut bitit merkinnän ensimmäisessä kentässä, ylemmät bitit ovat rakenteen tunnus
+	 */
+	private static final int LAJIBITIT = 8;
+
+	private Kumottava[] rakenteet = new Kumottava[0];
+
+	private int[] lajit;
+	private int[] paikat;
+	private long[] arvot;
+	private int maski;
+
+	/**
+	 * Vanhimman säilytetyn merkinnän järjestysnumero
+	 */
+	private long alku = 0;
+
+	/**
+	 * Seuraavan merkinnän järjestysnumero
+	 */
+	private long loppu = 0;
+
+	public Muutosloki(){
+		this(1024);
+	}
+
+	/**
+	 * @param kapasiteetti alkukapasiteetti merkintöinä, pyöristetään ylöspäin kahden potenssiksi
+	 */
+	public Muutosloki(int kapasiteetti){
+		int n = Integer.highestOneBit(Math.max(kapasiteetti, 2) - 1) << 1;
+		lajit = new int[n];
+		paikat = new int[n];
+		arvot = new long[n];
+		maski = n - 1;
+	}
+
+	/**
+	 * Rekisteröi rakenteen, joka kirjaa muutoksensa lokiin
+	 * @param rakenne rakenne
+	 * @return tunnus, jolla rakenne kirjaa muutoksensa
+	 */
+	public int rekisteroi(Kumottava rakenne){
+		rakenteet = Arrays.copyOf(rakenteet, rakenteet.length + 1);
+		rakenteet[rakenteet.length - 1] = rakenne;
+		return rakenteet.length - 1;
+	}
+
+	/**
+	 * Kirjaa muutoksen
+	 * @param tunnus rakenteen tunnus ({@link #rekisteroi(Kumottava)})
+	 * @param laji rakenteen oma muutoksen laji, 0 .. 255
+	 * @param paikka muutoksen kohde rakenteessa
+	 * @param arvo muutoksen kumoamiseen tarvittava arvo
+	 */
+	public void kirjaa(int tunnus, int laji, int paikka, long arvo){
+		if (loppu - alku == lajit.length){
+			kasvata();
+		}
+		int p = (int) loppu & maski;
+		lajit[p] = tunnus << LAJIBITIT | laji;
+		paikat[p] = paikka;
+		arvot[p] = arvo;
+		loppu++;
+	}
+
+	/**
+	 * @return seuraavan merkinnän järjestysnumero, jonka tarkistuspiste tallentaa
+	 */
+	public long getLoppu(){
+		return loppu;
+	}
+
+	/**
+	 * @return säilytettyjen merkintöjen määrä
+	 */
+	public int getKoko(){
+		return (int) (loppu - alku);
+	}
+
+	/**
+	 * Kumoaa muutokset uusimmasta alkaen, kunnes lokin loppu on annettu kohta
+	 * @param kohta tarkistuspisteen tallentama {@link #getLoppu()}
+	 */
+	public void kumoa(long kohta){
+		if (kohta < alku){
+			throw new IllegalStateException("Muutokset ennen kohtaa " + alku + " on jo vapautettu: " + kohta);
+		}
+		while (loppu > kohta){
+			loppu--;
+			int p = (int) loppu & maski;
+			rakenteet[lajit[p] >>> LAJIBITIT].kumoa(lajit[p] & ((1 << LAJIBITIT) - 1), paikat[p], arvot[p]);
+		}
+	}
+
+	/**
+	 * Vapauttaa muutokset, joita ei enää tarvitse kumota
+	 * @param kohta vanhimman säilytettävän tarkistuspisteen {@link #getLoppu()}
+	 */
+	public void vapauta(long kohta){
+		alku = Math.max(alku, Math.min(kohta, loppu));
+	}
+
+	// Kopioi merkinnät kaksinkertaisiin taulukoihin samoille järjestysnumeroiden paikoille
+	private void kasvata(){
+		int n = 2 * lajit.length;
+		int[] uudetLajit = new int[n];
+		int[] uudetPaikat = new int[n];
+		long[] uudetArvot = new long[n];
+		for (long i = alku; i < loppu; i++){
+			int vanha = (int) i & maski, uusi = (int) i & (n - 1);
+			uudetLajit[uusi] = lajit[vanha];
+			uudetPaikat[uusi] = paikat[vanha];
+			uudetArvot[uusi] = arvot[vanha];
+		}
+		lajit = uudetLajit;
+		paikat = uudetPaikat;
+		arvot = uudetArvot;
+		maski = n - 1;
+	}
+}
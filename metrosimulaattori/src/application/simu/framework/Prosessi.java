@@ -0,0 +1,494 @@
+package application.simu.framework;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import application.simu.model.Palvelupiste;
+import application.simu.model.TapahtumanTyyppi;
+
+/**
+ * Looginen prosessi: itsenäinen osa suurempaa simulaatiota (esim. linjan yksi asema), jolla on oma kello,
+ * tapahtumalista ja palvelupisteet. Prosessit vaikuttavat toisiinsa vain aikaleimatuilla viesteillä,
+ * joten ne voidaan suorittaa missä järjestyksessä tahansa, kunhan prosessi ei etene ohi viestin, jota se ei ole vielä saanut.
+ * <p>
+ * Prosessi etenee kuten {@link Moottori}: ajanhetken viestit ja B-tapahtumat suoritetaan ensin ja sitten
+ * C-tapahtumat niissä palvelupisteissä, joiden tila muuttui. Samanaikaisista viesteistä ja tapahtumista
+ * viestit käsitellään ensin.
+ * <p>
+ * Optimistisessa ajossa ({@link #setOptimistinen(int)}) prosessi etenee viesteistä välittämättä ja peruu tarvittaessa:
+ * kun saapuu viesti (tai antiviesti) jo suoritetulle ajanhetkelle, prosessi palaa viimeisimpään sitä edeltävään
+ * tarkistuspisteeseen, palauttaa sen jälkeen käsitellyt viestit jonoon ja lähettää antiviestit viesteille, jotka se lähetti
+ * viestin ajanhetkellä tai sen jälkeen. Tarkistuspisteiden välillä olevat kierrokset suoritetaan uudelleen lähettämättä
+ * niiden viestejä toiseen kertaan. Tarkistuspiste otetaan {@link #setOptimistinen(int) tarkistusvälin} kierroksen välein.
+ * <p>
+ * Tila tallennetaan tarkistuspisteisiin inkrementaalisesti: jonot ja asiakkaat, joiden koko kasvaa kuorman mukana, kirjaavat
+ * muutoksensa {@link Muutosloki}in ({@link #kirjaaMuutokset(Muutosloki)}), ja tarkistuspiste on muun tilan
+ * ({@link #tallennaTarkistuspiste(DataOutput)}) tavutaulukko ja lokin kohta. Tarkistuspisteen koko ja hinta riippuvat siis
+ * vain palvelimien ja tapahtumien määrästä, ja peruutus kumoaa lokista tarkistuspisteen jälkeiset muutokset.
+ */
+public abstract class Prosessi implements Tilallinen {
+
+	protected final Kello kello = new Kello();
+
+	protected final Tapahtumalista tapahtumalista;
+
+	protected Palvelupiste[] palvelupisteet;
+
+	/**
+	 * Prosessin tunnus, jolla viestit osoitetaan
+	 */
+	private final int tunnus;
+
+	/**
+	 * Palvelupisteet, joiden jono tai palvelimet ovat muuttuneet edellisen C-vaiheen jälkeen
+	 */
+	private final BitSet muuttuneet = new BitSet();
+
+	/**
+	 * Saapuneet, vielä käsittelemättömät viestit järjestyksessä
+	 */
+	private final PriorityQueue<Viesti> saapuneet = new PriorityQueue<>();
+
+	private Viestinvalitys valitys;
+
+	private long lahetettyja = 0;
+
+	private long suoritettujaTapahtumia = 0;
+
+	/**
+	 * Tarkistuspiste: prosessin tila, kun kaikki kierrokset {@link #aika}an asti oli suoritettu
+	 * ja {@link #kasiteltyja} viestiä käsitelty
+	 */
+	private static final class Tarkistuspiste {
+		private final double aika;
+		private final long kasiteltyja;
+		private final long muutoksia;
+		private final byte[] tila;
+
+		private Tarkistuspiste(double aika, long kasiteltyja, long muutoksia, byte[] tila){
+			this.aika = aika;
+			this.kasiteltyja = kasiteltyja;
+			this.muutoksia = muutoksia;
+			this.tila = tila;
+		}
+	}
+
+	/**
+	 * Tarkistuspisteeseen tallennettava osa tilasta
+	 */
+	private final Tilallinen tarkistuspisteenTila = new Tilallinen() {
+		@Override
+		public void tallennaTila(DataOutput out) throws IOException {
+			tallennaTarkistuspiste(out);
+		}
+
+		@Override
+		public void palautaTila(DataInput in) throws IOException {
+			palautaTarkistuspiste(in);
+		}
+	};
+
+	/**
+	 * Optimistisessa ajossa loki, johon jonot ja asiakkaat kirjaavat muutoksensa, muuten null
+	 */
+	private Muutosloki muutosloki;
+
+	private boolean optimistinen = false;
+
+	/**
+	 * Kuinka monen kierroksen välein optimistisessa ajossa otetaan tarkistuspiste
+	 */
+	private int tarkistusvali = 1;
+
+	private int kierroksiaTarkistuksesta = 0;
+
+	/**
+	 * Suurin suoritettu kierrosaika, -ääretön ennen ensimmäistä kierrosta. Kierrokset eivät ole aina aikajärjestyksessä,
+	 * koska palvelupiste voi ajoittaa tapahtuman menneisyyteen, jos palveluaika arvotaan negatiiviseksi.
+	 */
+	private double viimeisinKierros = Double.NEGATIVE_INFINITY;
+
+	/**
+	 * Kierrokset, jotka ovat aikaisempia kuin tämä, suoritetaan uudelleen peruutuksen jälkeen, eikä niiden viestejä lähetetä uudestaan
+	 */
+	private double rullausraja = Double.NEGATIVE_INFINITY;
+
+	private final ArrayDeque<Tarkistuspiste> tarkistuspisteet = new ArrayDeque<>();
+
+	/**
+	 * Käsitellyt viestit käsittelyjärjestyksessä, jotta ne voidaan peruutuksessa palauttaa jonoon
+	 */
+	private final ArrayDeque<Viesti> kasitellyt = new ArrayDeque<>();
+
+	/**
+	 * Kuinka monta käsiteltyä viestiä on vapautettu {@link #kasitellyt}-jonon alusta
+	 */
+	private long vapautettuja = 0;
+
+	/**
+	 * Lähetetyt viestit lähetysjärjestyksessä, jotta ne voidaan peruutuksessa perua
+	 */
+	private final ArrayDeque<Viesti> lahetetyt = new ArrayDeque<>();
+
+	/**
+	 * Muista säikeistä saapuneet viestit, jotka prosessi siirtää jonoonsa omassa säikeessään
+	 */
+	private final ConcurrentLinkedQueue<Viesti> posti = new ConcurrentLinkedQueue<>();
+
+	private long peruutuksia = 0;
+
+	/**
+	 * Käsitellyt tapahtumat ja viestit mukaan lukien perutut ja uudelleen suoritetut
+	 */
+	private long tapahtumiaYhteensa = 0;
+
+	/**
+	 * @param tunnus {@link #tunnus}
+	 * @param tapahtumalista prosessin oma tapahtumalista
+	 */
+	protected Prosessi(int tunnus, Tapahtumalista tapahtumalista){
+		this.tunnus = tunnus;
+		this.tapahtumalista = tapahtumalista;
+	}
+
+	public int getTunnus(){
+		return tunnus;
+	}
+
+	public Kello getKello(){
+		return kello;
+	}
+
+	public Palvelupiste[] getPalvelupisteet(){
+		return palvelupisteet;
+	}
+
+	/**
+	 * @param valitys viestinvälitys, jonka kautta prosessi lähettää viestinsä
+	 */
+	public void setViestinvalitys(Viestinvalitys valitys){
+		this.valitys = valitys;
+	}
+
+	/**
+	 * @return kuinka monta B-tapahtumaa ja viestiä prosessi on käsitellyt (optimistisessa ajossa perumattomat)
+	 */
+	public long getSuoritettujaTapahtumia(){
+		return suoritettujaTapahtumia;
+	}
+
+	/**
+	 * @return kuinka monta B-tapahtumaa ja viestiä prosessi on käsitellyt perutut ja uudelleen suoritetut mukaan lukien
+	 */
+	public long getTapahtumiaYhteensa(){
+		return tapahtumiaYhteensa;
+	}
+
+	/**
+	 * @return kuinka monta kertaa prosessi on peruttu aikaisempaan tarkistuspisteeseen
+	 */
+	public long getPeruutuksia(){
+		return peruutuksia;
+	}
+
+	/**
+	 * Asettaa prosessin optimistiseen ajoon. Kutsutaan ennen {@link #alusta()}-metodia.
+	 * @param tarkistusvali {@link #tarkistusvali}, vähintään 1
+	 */
+	public void setOptimistinen(int tarkistusvali){
+		if (tarkistusvali < 1){
+			throw new IllegalArgumentException("Tarkistusvälin on oltava vähintään yksi kierros: " + tarkistusvali);
+		}
+		this.optimistinen = true;
+		this.tarkistusvali = tarkistusvali;
+		muutosloki = new Muutosloki();
+		kirjaaMuutokset(muutosloki);
+	}
+
+	/**
+	 * Kytkee muutoslokiin rakenteet, jotka eivät kuulu tarkistuspisteeseen (ks. {@link #tallennaKirjattavat(DataOutput)}).
+	 * Prosessi kytkee palvelupisteiden jonot, ja aliluokka kytkee lisäksi omat rakenteensa.
+	 * @param loki muutosloki
+	 */
+	protected void kirjaaMuutokset(Muutosloki loki){
+		for (Palvelupiste p : palvelupisteet){
+			p.setMuutosloki(loki);
+		}
+	}
+
+	/**
+	 * Kytkee palvelupisteet C-vaiheeseen ja luo ensimmäiset tapahtumat. Kutsutaan kerran ennen suoritusta.
+	 */
+	public void alusta(){
+		muuttuneet.clear();
+		for (int i = 0; i < palvelupisteet.length; i++){
+			palvelupisteet[i].setMuuttuneet(muuttuneet, i);
+		}
+		alustukset();
+		if (optimistinen){
+			tarkistuspiste();
+		}
+	}
+
+	/**
+	 * @return seuraavan tapahtuman tai viestin aika, ääretön jos kumpaakaan ei ole
+	 */
+	public double getSeuraavanAika(){
+		Viesti v = saapuneet.peek();
+		return v == null ? tapahtumalista.getSeuraavanAika() : Math.min(v.getAika(), tapahtumalista.getSeuraavanAika());
+	}
+
+	/**
+	 * Ottaa vastaan viestin prosessin omassa säikeessä. Viesti ei saa olla aikaisempi kuin prosessin kello,
+	 * paitsi optimistisessa ajossa, jossa myöhästynyt viesti tai antiviesti peruu prosessin viestin aikaan.
+	 * @param viesti vastaanotettava viesti
+	 */
+	public void vastaanota(Viesti viesti){
+		if (!optimistinen){
+			if (viesti.getAika() < kello.getAika()){
+				throw new IllegalStateException("Prosessi " + tunnus + " on jo ajassa " + kello.getAika() + ", viesti ajalle " + viesti.getAika());
+			}
+			saapuneet.add(viesti);
+			return;
+		}
+		if (viesti.getAika() <= viimeisinKierros || viesti.getAika() < rullausraja){
+			peruuta(viesti.getAika());
+		}
+		if (viesti.getPeruttava() == null){
+			saapuneet.add(viesti);
+		} else if (!saapuneet.remove(viesti.getPeruttava())){
+			throw new IllegalStateException("Prosessi " + tunnus + " ei löytänyt peruttavaa viestiä ajalle " + viesti.getAika());
+		}
+	}
+
+	/**
+	 * Ottaa vastaan viestin mistä tahansa säikeestä. Prosessi käsittelee viestin vasta {@link #kasittelePosti()}-kutsussa.
+	 * @param viesti vastaanotettava viesti
+	 */
+	public void postita(Viesti viesti){
+		posti.add(viesti);
+	}
+
+	/**
+	 * @return onko postissa viestejä, joita ei ole vielä siirretty jonoon
+	 */
+	public boolean onPostia(){
+		return !posti.isEmpty();
+	}
+
+	/**
+	 * Siirtää postitetut viestit prosessin jonoon ({@link #vastaanota(Viesti)}) saapumisjärjestyksessä
+	 */
+	public void kasittelePosti(){
+		Viesti v;
+		while ((v = posti.poll()) != null){
+			vastaanota(v);
+		}
+	}
+
+	/**
+	 * Suorittaa seuraavan ajanhetken viestit, B-tapahtumat ja C-tapahtumat
+	 */
+	public void suoritaKierros(){
+		double aika = getSeuraavanAika();
+		if (optimistinen && ++kierroksiaTarkistuksesta >= tarkistusvali){
+			tarkistuspiste();
+		}
+		kello.setAika(aika);
+		viimeisinKierros = Math.max(viimeisinKierros, aika);
+		long alussa = suoritettujaTapahtumia;
+		while (!saapuneet.isEmpty() && saapuneet.peek().getAika() == aika){
+			Viesti v = saapuneet.poll();
+			if (optimistinen){
+				kasitellyt.addLast(v);
+			}
+			kasitteleViesti(v);
+			suoritettujaTapahtumia++;
+		}
+		while (tapahtumalista.getSeuraavanAika() == aika){
+			int kohde = tapahtumalista.getSeuraavanKohde();
+			suoritaTapahtuma(tapahtumalista.poista(), kohde);
+			suoritettujaTapahtumia++;
+		}
+		tapahtumiaYhteensa += suoritettujaTapahtumia - alussa;
+		for (int i = muuttuneet.nextSetBit(0); i >= 0; i = muuttuneet.nextSetBit(i + 1)){
+			muuttuneet.clear(i);
+			Palvelupiste p = palvelupisteet[i];
+			while (!p.onVarattu() && p.onJonossa()){
+				p.aloitaPalvelu();
+			}
+		}
+	}
+
+	/**
+	 * Suorittaa kaikki ajanhetket, jotka ovat aikaisempia kuin raja
+	 * @param raja ensimmäinen aika, jota ei suoriteta
+	 */
+	public void etene(double raja){
+		while (getSeuraavanAika() < raja){
+			suoritaKierros();
+		}
+	}
+
+	/**
+	 * Lähettää viestin toiselle prosessille (tai itselle)
+	 * @param vastaanottaja vastaanottajan tunnus
+	 * @param aika viestin käsittelyaika, vähintään prosessin kello
+	 * @param sisalto viestin sisältö
+	 */
+	protected void laheta(int vastaanottaja, double aika, Object sisalto){
+		if (aika < kello.getAika()){
+			throw new IllegalArgumentException("Viestiä ei voi lähettää menneisyyteen: " + aika + " < " + kello.getAika());
+		}
+		Viesti v = new Viesti(aika, Math.max(kello.getAika(), viimeisinKierros), tunnus, lahetettyja++, vastaanottaja, sisalto);
+		// alustuksissa lähetettyjä viestejä ei voi perua
+		if (optimistinen && viimeisinKierros > Double.NEGATIVE_INFINITY){
+			if (v.getLahetysaika() < rullausraja){
+				return; // viesti lähetettiin jo ennen peruutusta
+			}
+			lahetetyt.addLast(v);
+		}
+		valitys.valita(v);
+	}
+
+	/**
+	 * Ottaa tarkistuspisteen nykyisestä tilasta
+	 */
+	private void tarkistuspiste(){
+		tarkistuspisteet.addLast(new Tarkistuspiste(viimeisinKierros, vapautettuja + kasitellyt.size(), muutosloki.getLoppu(),
+				Tilannekuva.ota(tarkistuspisteenTila)));
+		kierroksiaTarkistuksesta = 0;
+	}
+
+	/**
+	 * Peruu prosessin tilaan, jossa ajanhetkeä ei ole vielä suoritettu
+	 * @param aika myöhästyneen viestin aika
+	 */
+	private void peruuta(double aika){
+		peruutuksia++;
+		while (tarkistuspisteet.peekLast().aika >= aika){
+			tarkistuspisteet.pollLast();
+		}
+		Tarkistuspiste t = tarkistuspisteet.peekLast();
+		muutosloki.kumoa(t.muutoksia);
+		Tilannekuva.palauta(tarkistuspisteenTila, t.tila);
+		kierroksiaTarkistuksesta = 0;
+		while (vapautettuja + kasitellyt.size() > t.kasiteltyja){
+			saapuneet.add(kasitellyt.pollLast());
+		}
+		while (!lahetetyt.isEmpty() && lahetetyt.peekLast().getLahetysaika() >= aika){
+			Viesti v = lahetetyt.pollLast();
+			if (v.getVastaanottaja() == tunnus){
+				saapuneet.remove(v);
+			} else {
+				valitys.valita(v.peruutus());
+			}
+		}
+		rullausraja = aika;
+	}
+
+	/**
+	 * Vapauttaa tarkistuspisteet ja viestit, joita ei enää voi tarvita peruutuksessa
+	 * @param gvt globaali virtuaaliaika: mikään prosessi ei voi enää peruuntua tätä aikaisemmaksi
+	 */
+	public void keraaFossiilit(double gvt){
+		Tarkistuspiste t = tarkistuspisteet.pollFirst();
+		while (!tarkistuspisteet.isEmpty() && tarkistuspisteet.peekFirst().aika < gvt){
+			t = tarkistuspisteet.pollFirst();
+		}
+		tarkistuspisteet.addFirst(t);
+		muutosloki.vapauta(t.muutoksia);
+		while (vapautettuja < t.kasiteltyja){
+			kasitellyt.pollFirst();
+			vapautettuja++;
+		}
+		while (!lahetetyt.isEmpty() && lahetetyt.peekFirst().getLahetysaika() < gvt){
+			lahetetyt.pollFirst();
+		}
+	}
+
+	/**
+	 * Kirjoittaa prosessin koko tilan: {@link #tallennaTarkistuspiste(DataOutput)} ja {@link #tallennaKirjattavat(DataOutput)}.
+	 * Saapuneet viestit eivät kuulu tilaan.
+	 * @param out kohde
+	 * @throws IOException jos kirjoitus epäonnistuu
+	 */
+	@Override
+	public void tallennaTila(DataOutput out) throws IOException {
+		tallennaTarkistuspiste(out);
+		tallennaKirjattavat(out);
+	}
+
+	@Override
+	public void palautaTila(DataInput in) throws IOException {
+		palautaTarkistuspiste(in);
+		palautaKirjattavat(in);
+	}
+
+	/**
+	 * Kirjoittaa tarkistuspisteeseen kuuluvan tilan: kellon, laskurit, tapahtumalistan ja palvelupisteiden tilan jonoja
+	 * lukuun ottamatta. Aliluokka lisää mallin oman tilan lukuun ottamatta muutoslokiin kytkemiään rakenteita.
+	 * @param out kohde
+	 * @throws IOException jos kirjoitus epäonnistuu
+	 */
+	protected void tallennaTarkistuspiste(DataOutput out) throws IOException {
+		out.writeDouble(kello.getAika());
+		out.writeDouble(viimeisinKierros);
+		out.writeLong(lahetettyja);
+		out.writeLong(suoritettujaTapahtumia);
+		tapahtumalista.tallennaTila(out);
+		for (Palvelupiste p : palvelupisteet){
+			p.tallennaTilaIlmanJonoa(out);
+		}
+	}
+
+	/**
+	 * Palauttaa {@link #tallennaTarkistuspiste(DataOutput)}:lla kirjoitetun tilan
+	 * @param in lähde
+	 * @throws IOException jos luku epäonnistuu
+	 */
+	protected void palautaTarkistuspiste(DataInput in) throws IOException {
+		kello.setAika(in.readDouble());
+		viimeisinKierros = in.readDouble();
+		lahetettyja = in.readLong();
+		suoritettujaTapahtumia = in.readLong();
+		tapahtumalista.palautaTila(in);
+		for (Palvelupiste p : palvelupisteet){
+			p.palautaTilaIlmanJonoa(in);
+		}
+	}
+
+	/**
+	 * Kirjoittaa rakenteet, jotka optimistisessa ajossa kirjaavat muutoksensa muutoslokiin ({@link #kirjaaMuutokset(Muutosloki)}):
+	 * palvelupisteiden jonot. Aliluokka lisää omansa.
+	 * @param out kohde
+	 * @throws IOException jos kirjoitus epäonnistuu
+	 */
+	protected void tallennaKirjattavat(DataOutput out) throws IOException {
+		for (Palvelupiste p : palvelupisteet){
+			p.tallennaJono(out);
+		}
+	}
+
+	/**
+	 * Palauttaa {@link #tallennaKirjattavat(DataOutput)}:lla kirjoitetut rakenteet
+	 * @param in lähde
+	 * @throws IOException jos luku epäonnistuu
+	 */
+	protected void palautaKirjattavat(DataInput in) throws IOException {
+		for (Palvelupiste p : palvelupisteet){
+			p.palautaJono(in);
+		}
+	}
+
+	protected abstract void alustukset();
+
+	protected abstract void suoritaTapahtuma(TapahtumanTyyppi tyyppi, int kohde);
+
+	protected abstract void kasitteleViesti(Viesti viesti);
+}
@@ -2,21 +2,50 @@ package application.simu.framework;
 import application.eduni.distributions.ContinuousGenerator;
 import application.eduni.distributions.*;
 import application.simu.model.TapahtumanTyyppi;
-public class Saapumisprosessi {
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+public class Saapumisprosessi implements Tilallinen {
 	
 	private ContinuousGenerator generaattori;
 	private Tapahtumalista tapahtumalista;
+	private Kello kello;
 	private TapahtumanTyyppi tyyppi;
 
-	public Saapumisprosessi(ContinuousGenerator g, Tapahtumalista tl, TapahtumanTyyppi tyyppi){
+	public Saapumisprosessi(ContinuousGenerator g, Tapahtumalista tl, Kello kello, TapahtumanTyyppi tyyppi){
 		this.generaattori = g;
 		this.tapahtumalista = tl;
+		this.kello = kello;
 		this.tyyppi = tyyppi;
 	}
 
+	/**
+	 * Vaihtaa jakauman, josta saapumisten väliset ajat arvotaan. Vaikuttaa seuraavasta arvonnasta alkaen.
+	 * @param g uusi jakauma
+	 */
+	public void setGeneraattori(ContinuousGenerator g){
+		this.generaattori = g;
+	}
+
 	public void generoiSeuraava(){
-		Tapahtuma t = new Tapahtuma(tyyppi, Kello.getInstance().getAika()+generaattori.sample());
-		tapahtumalista.lisaa(t);
+		tapahtumalista.lisaa(tyyppi, kello.getAika()+generaattori.sample());
+	}
+
+	/**
+	 * Kirjoittaa generaattorin tilan. Seuraava saapuminen on jo tapahtumalistassa, joten muuta tilaa ei ole.
+	 * @param out kohde
+	 * @throws IOException jos kirjoitus epäonnistuu
+	 */
+	@Override
+	public void tallennaTila(DataOutput out) throws IOException {
+		Tilannekuva.tallennaJakauma(generaattori, out);
+	}
+
+	@Override
+	public void palautaTila(DataInput in) throws IOException {
+		Tilannekuva.palautaJakauma(generaattori, in);
 	}
 
 }
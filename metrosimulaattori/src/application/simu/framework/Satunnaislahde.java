@@ -0,0 +1,36 @@
+package application.simu.framework;
+
+import application.eduni.distributions.ContinuousGenerator;
+import application.eduni.distributions.RandomGenerator;
+import application.eduni.distributions.SplitMix64;
+
+/**
+ * Tasajakautuneiden satunnaislukujen lähde, josta moottorin jakaumat (esim. palveluajat) arvotaan.
+ * Lähde valitaan moottorikohtaisesti, ja sama siemen tuottaa samalla lähteellä aina saman simulaation.
+ * Lähteen koko tila on sen siemen, joten tilannekuvat ({@link Tilannekuva}) toimivat kummallakin lähteellä.
+ */
+public enum Satunnaislahde {
+	/**
+	 * eduni-kirjaston 31-bittinen Lehmerin generaattori, jakso 2<sup>31</sup>-2. Tulokset ovat samat kuin aiemmin.
+	 */
+	LEHMER,
+	/**
+	 * 64-bittinen jaettava generaattori ({@link SplitMix64}), jakso 2<sup>64</sup>. Nopeampi, eikä virta lopu
+	 * tai ala toistaa itseään pitkissäkään, monen replikaation ajoissa.
+	 */
+	SPLITMIX;
+
+	/**
+	 * Luo lähteen annetulla siemenellä
+	 * @param siemen siemen
+	 * @return uusi generaattori
+	 */
+	public ContinuousGenerator luo(long siemen){
+		switch (this){
+			case SPLITMIX:
+				return new SplitMix64(siemen);
+			default:
+				return new RandomGenerator(siemen);
+		}
+	}
+}
@@ -1,25 +1,153 @@
 package application.simu.framework;
 
-import java.util.PriorityQueue;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 
-public class Tapahtumalista {
-	private PriorityQueue<Tapahtuma> lista = new PriorityQueue<Tapahtuma>();
-	
-	public Tapahtumalista(){
-	 
+import application.simu.model.TapahtumanTyyppi;
+
+/**
+ * Moottorin tapahtumakalenteri. Tapahtumat poistetaan aikajärjestyksessä. Samanaikaiset tapahtumat
+ * poistetaan tyypin prioriteetin ({@link TapahtumanTyyppi#getPrioriteetti()}) ja sitten lisäysjärjestyksen mukaan,
+ * joten kaikki toteutukset suorittavat tapahtumat täsmälleen samassa järjestyksessä.
+ * Toteutus valitaan moottorikohtaisesti sen mukaan, kuinka paljon tapahtumia kalenterissa on yhtä aikaa
+ * ja miten niiden ajat jakautuvat (ks. {@link Toteutus}).
+ */
+public interface Tapahtumalista extends Tilallinen {
+
+	/**
+	 * Valittavissa olevat toteutukset
+	 */
+	enum Toteutus {
+		/**
+		 * Binäärikeko, O(log n). Hyvä oletus pienille ja keskikokoisille kalentereille.
+		 */
+		KEKO,
+		/**
+		 * Kalenterijono (Brown 1988), tasoitetusti O(1) kun tapahtuma-ajat jakautuvat tasaisesti.
+		 */
+		KALENTERIJONO,
+		/**
+		 * Tikapuujono (Tang, Goh & Thng 2005), tasoitetusti O(1) myös vinoille aikajakaumille.
+		 */
+		TIKAPUUJONO;
+
+		public Tapahtumalista luo(){
+			switch (this){
+				case KALENTERIJONO:
+					return new KalenteriTapahtumalista();
+				case TIKAPUUJONO:
+					return new TikapuuTapahtumalista();
+				default:
+					return new KekoTapahtumalista();
+			}
+		}
+	}
+
+	/**
+	 * Poistaa aikaisimman tapahtuman. Tapahtuman aika on sama kuin {@link #getSeuraavanAika()} ennen poistoa.
+	 * @return poistetun tapahtuman tyyppi
+	 */
+	TapahtumanTyyppi poista();
+
+	/**
+	 * Lisää tapahtuman luomatta sille oliota.
+	 * @param tyyppi tapahtuman tyyppi
+	 * @param aika tapahtuman aika
+	 * @param kohde tapahtuman kohde, esim. palvelupisteen palvelin, jonka palvelu päättyy
+	 */
+	void lisaa(TapahtumanTyyppi tyyppi, double aika, int kohde);
+
+	/**
+	 * Lisää tapahtuman, jolla ei ole kohdetta (kohde 0).
+	 * @param tyyppi tapahtuman tyyppi
+	 * @param aika tapahtuman aika
+	 */
+	default void lisaa(TapahtumanTyyppi tyyppi, double aika){
+		lisaa(tyyppi, aika, 0);
+	}
+
+	/**
+	 * @return aikaisimman tapahtuman aika, tai ääretön jos lista on tyhjä
+	 */
+	double getSeuraavanAika();
+
+	/**
+	 * @return aikaisimman tapahtuman tyyppi, tai null jos lista on tyhjä
+	 */
+	TapahtumanTyyppi getSeuraavanTyyppi();
+
+	/**
+	 * @return aikaisimman tapahtuman kohde, tai 0 jos lista on tyhjä
+	 */
+	int getSeuraavanKohde();
+
+	/**
+	 * @return tapahtumien määrä
+	 */
+	int getKoko();
+
+	default boolean onTyhja(){
+		return getKoko() == 0;
 	}
-	
-	public Tapahtuma poista(){
-		return lista.remove();
+
+	default void lisaa(Tapahtuma t){
+		lisaa(t.getTyyppi(), t.getAika());
 	}
-	
-	public void lisaa(Tapahtuma t){
-		lista.add(t);
+
+	/**
+	 * Poistaa aikaisimman tapahtuman ja kopioi sen tiedot annettuun olioon, jota voi käyttää uudelleen.
+	 * @param kohde olio, johon tapahtuman tyyppi ja aika kirjoitetaan
+	 * @return kohde
+	 */
+	default Tapahtuma poista(Tapahtuma kohde){
+		kohde.setAika(getSeuraavanAika());
+		kohde.setTyyppi(poista());
+		return kohde;
+	}
+
+	/**
+	 * Kirjoittaa tapahtumat poistojärjestyksessä. Tapahtumat poistetaan ja lisätään takaisin samassa järjestyksessä,
+	 * joten niiden keskinäinen järjestys säilyy ja myöhemmin lisättävät tapahtumat tulevat samanaikaisista viimeisiksi.
+	 * @param out kohde
+	 * @throws IOException jos kirjoitus epäonnistuu
+	 */
+	@Override
+	default void tallennaTila(DataOutput out) throws IOException {
+		int n = getKoko();
+		TapahtumanTyyppi[] tyypit = new TapahtumanTyyppi[n];
+		double[] ajat = new double[n];
+		int[] kohteet = new int[n];
+		for (int i = 0; i < n; i++){
+			ajat[i] = getSeuraavanAika();
+			kohteet[i] = getSeuraavanKohde();
+			tyypit[i] = poista();
+		}
+		out.writeInt(n);
+		for (int i = 0; i < n; i++){
+			out.writeByte(tyypit[i].ordinal());
+			out.writeDouble(ajat[i]);
+			out.writeInt(kohteet[i]);
+			lisaa(tyypit[i], ajat[i], kohteet[i]);
+		}
 	}
-	
-	public double getSeuraavanAika(){
-		return lista.peek().getAika();
+
+	/**
+	 * Korvaa listan tapahtumat {@link #tallennaTila(DataOutput)}:lla kirjoitetuilla
+	 * @param in lähde
+	 * @throws IOException jos luku epäonnistuu
+	 */
+	@Override
+	default void palautaTila(DataInput in) throws IOException {
+		while (!onTyhja()){
+			poista();
+		}
+		TapahtumanTyyppi[] tyypit = TapahtumanTyyppi.values();
+		int n = in.readInt();
+		for (int i = 0; i < n; i++){
+			TapahtumanTyyppi tyyppi = tyypit[in.readUnsignedByte()];
+			double aika = in.readDouble();
+			lisaa(tyyppi, aika, in.readInt());
+		}
 	}
-	
-	
 }
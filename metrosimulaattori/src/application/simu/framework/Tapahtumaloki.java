@@ -0,0 +1,234 @@
+package application.simu.framework;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Asynkroninen tapahtumaloki. Malli kirjaa rakenteisia tietueita (laji, aika, asiakas, palvelupiste, arvo)
+ * rengaspuskuriin, ja erillinen säie kirjoittaa ne tiedostoon erissä puolipisteillä eroteltuina riveinä.
+ * Kirjaaminen ei luo olioita, ei lukitse eikä odota levyä, joten se ei hidasta moottoria kuten System.out.
+ * <p>
+ * Puskurissa on yksi kirjoittaja ja yksi lukija: lokia käyttää vain yksi moottori (säie).
+ * Jos puskuri täyttyy, toimitaan {@link Ylivuoto}-asetuksen mukaan.
+ */
+public class Tapahtumaloki implements AutoCloseable {
+
+	/**
+	 * Tietueiden lajit
+	 */
+	public enum Tietue {
+		/**
+		 * Asiakas siirtyi palvelupisteen jonoon, arvo on asiakkaan siihenastinen aika järjestelmässä
+		 */
+		SIIRTO,
+		/**
+		 * Asiakas poistui järjestelmästä, arvo on asiakkaan läpimenoaika
+		 */
+		POISTUMINEN
+	}
+
+	/**
+	 * Mitä tehdään, kun kirjoitussäie ei pysy perässä
+	 */
+	public enum Ylivuoto {
+		/**
+		 * Odotetaan, kunnes puskurissa on tilaa. Mitään ei menetetä, mutta moottori voi hidastua.
+		 */
+		ODOTA,
+		/**
+		 * Uudet tietueet hylätään, kun puskuri on täynnä.
+		 */
+		HYLKAA,
+		/**
+		 * Kun puskuri on yli kolmeneljäsosaa täynnä, kirjataan vain joka {@link #otantavali}:s tietue. Täydestä puskurista hylätään.
+		 */
+		OTANTA
+	}
+
+	private static final int ERA = 1024;
+	private static final long ODOTUS_NS = 1_000_000;
+
+	private final int kapasiteetti;
+	private final int maski;
+	private final int[] laji;
+	private final double[] aika;
+	private final int[] asiakas;
+	private final int[] palvelupiste;
+	private final double[] arvo;
+
+	/**
+	 * Julkaistujen tietueiden määrä. Vain tuottaja kirjoittaa.
+	 */
+	private final AtomicLong kirjoitettu = new AtomicLong();
+
+	/**
+	 * Kirjoitettujen (vapautettujen) tietueiden määrä. Vain kirjoitussäie kirjoittaa.
+	 */
+	private final AtomicLong luettu = new AtomicLong();
+
+	// tuottajan omat kentät
+	private long seuraava = 0;
+	private long luettuTiedossa = 0;
+	private long otantalaskuri = 0;
+	private long hylattyja = 0;
+
+	private final Ylivuoto ylivuoto;
+	private final int otantavali;
+
+	private final Writer kirjoittaja;
+	private final Thread kirjoitussaie;
+	private volatile boolean suljettu = false;
+	private IOException virhe;
+
+	/**
+	 * Loki, jonka puskurissa on 65536 tietuetta ja joka odottaa täyttyessään
+	 * @param tiedosto kirjoitettava tiedosto, korvataan jos on olemassa
+	 * @throws IOException jos tiedostoa ei voi avata
+	 */
+	public Tapahtumaloki(Path tiedosto) throws IOException {
+		this(tiedosto, 1 << 16, Ylivuoto.ODOTA, 1);
+	}
+
+	/**
+	 * @param tiedosto kirjoitettava tiedosto, korvataan jos on olemassa
+	 * @param kapasiteetti puskurin koko tietueina, pyöristetään ylöspäin kahden potenssiksi
+	 * @param ylivuoto toiminta puskurin täyttyessä
+	 * @param otantavali {@link Ylivuoto#OTANTA}-tilassa kirjattavien tietueiden väli
+	 * @throws IOException jos tiedostoa ei voi avata
+	 */
+	public Tapahtumaloki(Path tiedosto, int kapasiteetti, Ylivuoto ylivuoto, int otantavali) throws IOException {
+		if (kapasiteetti < 2 || kapasiteetti > 1 << 30 || otantavali < 1){
+			throw new IllegalArgumentException("kapasiteetti " + kapasiteetti + ", otantaväli " + otantavali);
+		}
+		this.kapasiteetti = Integer.highestOneBit(kapasiteetti - 1) << 1;
+		maski = this.kapasiteetti - 1;
+		laji = new int[this.kapasiteetti];
+		aika = new double[this.kapasiteetti];
+		asiakas = new int[this.kapasiteetti];
+		palvelupiste = new int[this.kapasiteetti];
+		arvo = new double[this.kapasiteetti];
+		this.ylivuoto = ylivuoto;
+		this.otantavali = otantavali;
+
+		kirjoittaja = new BufferedWriter(Files.newBufferedWriter(tiedosto, StandardCharsets.UTF_8), 1 << 16);
+		kirjoittaja.write("aika;tietue;asiakas;palvelupiste;arvo\n");
+		kirjoitussaie = new Thread(this::kirjoita, "Tapahtumaloki");
+		kirjoitussaie.setDaemon(true);
+		kirjoitussaie.start();
+	}
+
+	/**
+	 * Kirjaa tietueen. Kutsutaan vain moottorin säikeestä.
+	 * @param tietue tietueen laji
+	 * @param aika simulaation aika
+	 * @param asiakas asiakkaan id
+	 * @param palvelupiste palvelupisteen indeksi
+	 * @param arvo lajin mukainen arvo
+	 */
+	public void kirjaa(Tietue tietue, double aika, int asiakas, int palvelupiste, double arvo){
+		long i = seuraava;
+		long vapaana = kapasiteetti - (i - luettuTiedossa);
+		if (vapaana <= kapasiteetti / 4){
+			luettuTiedossa = luettu.get();
+			vapaana = kapasiteetti - (i - luettuTiedossa);
+			if (ylivuoto == Ylivuoto.OTANTA && vapaana <= kapasiteetti / 4 && otantalaskuri++ % otantavali != 0){
+				hylattyja++;
+				return;
+			}
+		}
+		while (vapaana == 0){
+			if (ylivuoto != Ylivuoto.ODOTA || suljettu){
+				hylattyja++;
+				return;
+			}
+			LockSupport.unpark(kirjoitussaie);
+			Thread.yield();
+			luettuTiedossa = luettu.get();
+			vapaana = kapasiteetti - (i - luettuTiedossa);
+		}
+		int p = (int) i & maski;
+		this.laji[p] = tietue.ordinal();
+		this.aika[p] = aika;
+		this.asiakas[p] = asiakas;
+		this.palvelupiste[p] = palvelupiste;
+		this.arvo[p] = arvo;
+		seuraava = i + 1;
+		kirjoitettu.lazySet(i + 1);
+	}
+
+	/**
+	 * @return kuinka monta tietuetta on hylätty tai jätetty otannassa pois. Luetaan moottorin säikeestä tai lokin sulkemisen jälkeen.
+	 */
+	public long getHylattyja(){
+		return hylattyja;
+	}
+
+	/**
+	 * Kirjoittaa puskurissa olevat tietueet, odottaa kirjoitussäikeen päättymistä ja sulkee tiedoston.
+	 * @throws IOException jos tiedostoon kirjoittaminen epäonnistui
+	 */
+	@Override
+	public void close() throws IOException {
+		suljettu = true;
+		LockSupport.unpark(kirjoitussaie);
+		try {
+			kirjoitussaie.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		try {
+			kirjoittaja.close();
+		} catch (IOException e) {
+			if (virhe == null) virhe = e;
+		}
+		if (virhe != null){
+			throw virhe;
+		}
+	}
+
+	// Kirjoitussäie: muotoilee tietueet erissä ja vapauttaa puskurin paikat heti lukemisen jälkeen
+	private void kirjoita(){
+		Tietue[] lajit = Tietue.values();
+		StringBuilder sb = new StringBuilder(ERA * 48);
+		while (true){
+			long alku = luettu.get();
+			long loppu = kirjoitettu.get();
+			if (alku == loppu){
+				if (suljettu && kirjoitettu.get() == alku){
+					return;
+				}
+				kirjoitaTiedostoon(sb, true);
+				LockSupport.parkNanos(this, ODOTUS_NS);
+				continue;
+			}
+			long raja = Math.min(loppu, alku + ERA);
+			for (long i = alku; i < raja; i++){
+				int p = (int) i & maski;
+				sb.append(aika[p]).append(';').append(lajit[laji[p]]).append(';')
+						.append(asiakas[p]).append(';').append(palvelupiste[p]).append(';').append(arvo[p]).append('\n');
+			}
+			luettu.lazySet(raja);
+			kirjoitaTiedostoon(sb, false);
+		}
+	}
+
+	private void kirjoitaTiedostoon(StringBuilder sb, boolean tyhjenna){
+		if (virhe == null){
+			try {
+				kirjoittaja.append(sb);
+				if (tyhjenna){
+					kirjoittaja.flush();
+				}
+			} catch (IOException e) {
+				virhe = e; // tietueet luetaan silti puskurista, jottei moottori jää odottamaan
+			}
+		}
+		sb.setLength(0);
+	}
+}
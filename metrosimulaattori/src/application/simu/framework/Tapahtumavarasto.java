@@ -0,0 +1,123 @@
+package application.simu.framework;
+
+import java.util.Arrays;
+
+import application.simu.model.TapahtumanTyyppi;
+
+/**
+ * Tapahtumien säilö kalenteri- ja tikapuujonolle. Jokainen tapahtuma on paikka (int) rinnakkaisissa
+ * taulukoissa, ja {@link #seuraava} ketjuttaa paikat listoiksi, joten jonojen lokerot ovat pelkkiä
+ * int-osoittimia. Vapautetut paikat kierrätetään, joten tapahtumien lisääminen ei luo olioita.
+ */
+class Tapahtumavarasto {
+
+	static final TapahtumanTyyppi[] TYYPIT = TapahtumanTyyppi.values();
+
+	static final int LOPPU = -1;
+
+	/**
+	 * Samanaikaiset tapahtumat järjestetään avaimella, jonka ylimmissä biteissä on tyypin prioriteetti
+	 * ja alimmissa 48 bitissä lisäysjärjestys. Järjestys on siis täysin määrätty eikä riipu toteutuksesta.
+	 */
+	static long avain(int tyyppi, long jarjestys){
+		return ((long) TYYPIT[tyyppi].getPrioriteetti() << 48) | jarjestys;
+	}
+
+	double[] aika;
+	int[] tyyppi;
+	long[] avain;
+	int[] kohde;
+	int[] seuraava;
+
+	private long jarjestys = 0;
+
+	private int vapaat = LOPPU;
+	private int kaytetty = 0;
+
+	private int[] apu = new int[0];
+
+	Tapahtumavarasto(int kapasiteetti){
+		aika = new double[kapasiteetti];
+		tyyppi = new int[kapasiteetti];
+		avain = new long[kapasiteetti];
+		kohde = new int[kapasiteetti];
+		seuraava = new int[kapasiteetti];
+	}
+
+	int varaa(double a, int t, int k){
+		int i;
+		if (vapaat != LOPPU){
+			i = vapaat;
+			vapaat = seuraava[i];
+		} else {
+			if (kaytetty == aika.length){
+				int n = Math.max(2 * kaytetty, 16);
+				aika = Arrays.copyOf(aika, n);
+				tyyppi = Arrays.copyOf(tyyppi, n);
+				avain = Arrays.copyOf(avain, n);
+				kohde = Arrays.copyOf(kohde, n);
+				seuraava = Arrays.copyOf(seuraava, n);
+			}
+			i = kaytetty++;
+		}
+		aika[i] = a;
+		tyyppi[i] = t;
+		avain[i] = avain(t, jarjestys++);
+		kohde[i] = k;
+		seuraava[i] = LOPPU;
+		return i;
+	}
+
+	void vapauta(int i){
+		seuraava[i] = vapaat;
+		vapaat = i;
+	}
+
+	/**
+	 * @return tuleeko paikan a tapahtuma ennen paikan b tapahtumaa
+	 */
+	boolean ennen(int a, int b){
+		return aika[a] < aika[b] || (aika[a] == aika[b] && avain[a] < avain[b]);
+	}
+
+	/**
+	 * Järjestää paikat tapahtumajärjestykseen lomituslajittelulla.
+	 */
+	void lajittele(int[] p, int n){
+		if (apu.length < n){
+			apu = new int[Math.max(n, 2 * apu.length)];
+		}
+		// lyhyet pätkät lisäyslajittelulla
+		final int PATKA = 16;
+		for (int alku = 0; alku < n; alku += PATKA){
+			int loppu = Math.min(alku + PATKA, n);
+			for (int i = alku + 1; i < loppu; i++){
+				int x = p[i];
+				int j = i - 1;
+				while (j >= alku && ennen(x, p[j])){
+					p[j + 1] = p[j];
+					j--;
+				}
+				p[j + 1] = x;
+			}
+		}
+		int[] lahde = p, kohde = apu;
+		for (int leveys = PATKA; leveys < n; leveys *= 2){
+			for (int vasen = 0; vasen < n; vasen += 2 * leveys){
+				int keski = Math.min(vasen + leveys, n), oikea = Math.min(vasen + 2 * leveys, n);
+				int i = vasen, j = keski, k = vasen;
+				while (i < keski && j < oikea){
+					kohde[k++] = ennen(lahde[j], lahde[i]) ? lahde[j++] : lahde[i++];
+				}
+				while (i < keski) kohde[k++] = lahde[i++];
+				while (j < oikea) kohde[k++] = lahde[j++];
+			}
+			int[] t = lahde;
+			lahde = kohde;
+			kohde = t;
+		}
+		if (lahde != p){
+			System.arraycopy(lahde, 0, p, 0, n);
+		}
+	}
+}
@@ -0,0 +1,261 @@
+package application.simu.framework;
+
+import java.util.Arrays;
+
+import application.simu.model.TapahtumanTyyppi;
+
+/**
+ * Tikapuujono (W. T. Tang, R. S. M. Goh, I. L.-J. Thng, "Ladder queue", ACM TOMACS 2005).
+ * Jono koostuu kolmesta osasta:
+ * <ul>
+ * <li>yläosa: järjestämätön lista kaukaisista tapahtumista (aika &ge; {@link #ylaRaja})</li>
+ * <li>portaat: lokerotaulukoita, joista jokainen alempi porras jakaa yhden ylemmän portaan lokeron hienommiksi lokeroiksi</li>
+ * <li>alaosa: lyhyt aikajärjestyksessä oleva lista, josta tapahtumat poistetaan</li>
+ * </ul>
+ * Tapahtumat lajitellaan vasta, kun niiden lokero siirretään alaosaan, ja liian täydet lokerot jaetaan
+ * uudeksi portaaksi, joten lisäys ja poisto ovat tasoitetusti O(1) myös vinoilla aikajakaumilla.
+ */
+public class TikapuuTapahtumalista implements Tapahtumalista {
+
+	private static final int LOPPU = Tapahtumavarasto.LOPPU;
+
+	/**
+	 * Lokero, jossa on tätä enemmän tapahtumia, jaetaan uudeksi portaaksi alaosaan siirtämisen sijaan
+	 */
+	private static final int KYNNYS = 50;
+
+	private static final int MAX_PORTAAT = 8;
+
+	private final Tapahtumavarasto v = new Tapahtumavarasto(64);
+
+	// yläosa
+	private int ylaLista = LOPPU;
+	private int ylaKoko = 0;
+	private double ylaMin = Double.POSITIVE_INFINITY, ylaMax = Double.NEGATIVE_INFINITY;
+	private double ylaRaja = Double.NEGATIVE_INFINITY;
+
+	// portaat, indeksi 0 on karkein
+	private int portaita = 0;
+	private final double[] alku = new double[MAX_PORTAAT];
+	private final double[] leveys = new double[MAX_PORTAAT];
+	private final int[] lokeroita = new int[MAX_PORTAAT];
+	private final int[] nyk = new int[MAX_PORTAAT]; // ensimmäinen käsittelemätön lokero
+	private final int[] tapahtumia = new int[MAX_PORTAAT];
+	private final int[][] lokerot = new int[MAX_PORTAAT][0];
+	private final int[][] lokeroKoot = new int[MAX_PORTAAT][0];
+
+	// alaosa
+	private int alaLista = LOPPU, alaHanta = LOPPU;
+	private int alaKoko = 0;
+
+	private int koko = 0;
+	private int[] lajittelu = new int[KYNNYS + 1];
+
+	@Override
+	public void lisaa(TapahtumanTyyppi tyyppi, double aika, int kohde){
+		int e = v.varaa(aika, tyyppi.ordinal(), kohde);
+		koko++;
+		if (aika >= ylaRaja){
+			v.seuraava[e] = ylaLista;
+			ylaLista = e;
+			ylaKoko++;
+			if (aika < ylaMin) ylaMin = aika;
+			if (aika > ylaMax) ylaMax = aika;
+			return;
+		}
+		for (int r = 0; r < portaita; r++){
+			int i = lokero(r, aika);
+			if (i >= nyk[r]){
+				v.seuraava[e] = lokerot[r][i];
+				lokerot[r][i] = e;
+				lokeroKoot[r][i]++;
+				tapahtumia[r]++;
+				return;
+			}
+		}
+		lisaaAlaosaan(e);
+		if (alaKoko > KYNNYS && portaita < MAX_PORTAAT && v.aika[alaHanta] > v.aika[alaLista]){
+			// alaosa kasvoi liian pitkäksi: siitä tehdään uusi alin porras
+			int lista = alaLista, n = alaKoko;
+			double min = v.aika[alaLista], max = v.aika[alaHanta];
+			alaLista = alaHanta = LOPPU;
+			alaKoko = 0;
+			luoPorras(lista, n, min, max);
+		}
+	}
+
+	@Override
+	public TapahtumanTyyppi poista(){
+		if (!valmistele()){
+			throw new IllegalStateException("Tapahtumalista on tyhjä");
+		}
+		int e = alaLista;
+		alaLista = v.seuraava[e];
+		if (alaLista == LOPPU){
+			alaHanta = LOPPU;
+		}
+		alaKoko--;
+		koko--;
+		int tyyppi = v.tyyppi[e];
+		v.vapauta(e);
+		return Tapahtumavarasto.TYYPIT[tyyppi];
+	}
+
+	@Override
+	public double getSeuraavanAika(){
+		return valmistele() ? v.aika[alaLista] : Double.POSITIVE_INFINITY;
+	}
+
+	@Override
+	public TapahtumanTyyppi getSeuraavanTyyppi(){
+		return valmistele() ? Tapahtumavarasto.TYYPIT[v.tyyppi[alaLista]] : null;
+	}
+
+	@Override
+	public int getSeuraavanKohde(){
+		return valmistele() ? v.kohde[alaLista] : 0;
+	}
+
+	@Override
+	public int getKoko(){
+		return koko;
+	}
+
+	// Lokeron indeksi portaalla r. Kasvaa monotonisesti ajan mukana, joten järjestys säilyy portaiden välillä.
+	private int lokero(int r, double aika){
+		double x = (aika - alku[r]) / leveys[r];
+		if (!(x > 0)){
+			return 0;
+		}
+		return x >= lokeroita[r] - 1 ? lokeroita[r] - 1 : (int) x;
+	}
+
+	/**
+	 * Täyttää alaosan, jos se on tyhjä.
+	 * @return onko jonossa tapahtumia
+	 */
+	private boolean valmistele(){
+		while (alaKoko == 0){
+			if (portaita == 0){
+				if (ylaKoko == 0){
+					return false;
+				}
+				int lista = ylaLista, n = ylaKoko;
+				double min = ylaMin, max = ylaMax;
+				ylaLista = LOPPU;
+				ylaKoko = 0;
+				ylaMin = Double.POSITIVE_INFINITY;
+				ylaMax = Double.NEGATIVE_INFINITY;
+				if (max > min){
+					luoPorras(lista, n, min, max);
+					ylaRaja = alku[0] + leveys[0] * lokeroita[0];
+				} else {
+					// kaikki samaan aikaan: suoraan alaosaan
+					siirraAlaosaan(lista, n);
+					ylaRaja = Math.nextUp(max);
+				}
+				continue;
+			}
+			int r = portaita - 1;
+			if (tapahtumia[r] == 0){
+				portaita--;
+				continue;
+			}
+			while (lokeroKoot[r][nyk[r]] == 0){
+				nyk[r]++;
+			}
+			int b = nyk[r]++;
+			int lista = lokerot[r][b], n = lokeroKoot[r][b];
+			lokerot[r][b] = LOPPU;
+			lokeroKoot[r][b] = 0;
+			tapahtumia[r] -= n;
+			if (n > KYNNYS && portaita < MAX_PORTAAT){
+				double min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY;
+				for (int e = lista; e != LOPPU; e = v.seuraava[e]){
+					min = Math.min(min, v.aika[e]);
+					max = Math.max(max, v.aika[e]);
+				}
+				if (max > min){
+					luoPorras(lista, n, min, max);
+					continue;
+				}
+			}
+			siirraAlaosaan(lista, n);
+		}
+		return true;
+	}
+
+	// Jakaa listan n tapahtumaa uudelle alimmalle portaalle n+1 lokeroon välille [min, max]
+	private void luoPorras(int lista, int n, double min, double max){
+		int r = portaita++;
+		int lkm = n + 1;
+		if (lokerot[r].length < lkm){
+			lokerot[r] = new int[Math.max(lkm, 2 * lokerot[r].length)];
+			lokeroKoot[r] = new int[lokerot[r].length];
+		}
+		Arrays.fill(lokerot[r], 0, lkm, LOPPU);
+		Arrays.fill(lokeroKoot[r], 0, lkm, 0);
+		alku[r] = min;
+		leveys[r] = (max - min) / n;
+		lokeroita[r] = lkm;
+		nyk[r] = 0;
+		tapahtumia[r] = n;
+		int e = lista;
+		while (e != LOPPU){
+			int seur = v.seuraava[e];
+			int i = lokero(r, v.aika[e]);
+			v.seuraava[e] = lokerot[r][i];
+			lokerot[r][i] = e;
+			lokeroKoot[r][i]++;
+			e = seur;
+		}
+	}
+
+	// Lajittelee listan ja asettaa sen alaosaksi (alaosa on tyhjä)
+	private void siirraAlaosaan(int lista, int n){
+		if (lajittelu.length < n){
+			lajittelu = new int[Math.max(n, 2 * lajittelu.length)];
+		}
+		int k = 0;
+		for (int e = lista; e != LOPPU; e = v.seuraava[e]){
+			lajittelu[k++] = e;
+		}
+		v.lajittele(lajittelu, n);
+		for (int i = 0; i < n - 1; i++){
+			v.seuraava[lajittelu[i]] = lajittelu[i + 1];
+		}
+		v.seuraava[lajittelu[n - 1]] = LOPPU;
+		alaLista = lajittelu[0];
+		alaHanta = lajittelu[n - 1];
+		alaKoko = n;
+	}
+
+	// Lisää tapahtuman tapahtumajärjestyksessä olevaan alaosaan
+	private void lisaaAlaosaan(int e){
+		alaKoko++;
+		if (alaLista == LOPPU){
+			v.seuraava[e] = LOPPU;
+			alaLista = alaHanta = e;
+			return;
+		}
+		if (!v.ennen(e, alaHanta)){
+			v.seuraava[e] = LOPPU;
+			v.seuraava[alaHanta] = e;
+			alaHanta = e;
+			return;
+		}
+		if (v.ennen(e, alaLista)){
+			v.seuraava[e] = alaLista;
+			alaLista = e;
+			return;
+		}
+		int p = alaLista;
+		int q = v.seuraava[p];
+		while (!v.ennen(e, q)){
+			p = q;
+			q = v.seuraava[q];
+		}
+		v.seuraava[e] = q;
+		v.seuraava[p] = e;
+	}
+}
@@ -0,0 +1,27 @@
+package application.simu.framework;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Simulaation osa, jonka muuttuva tila voidaan kirjoittaa tavuvirtaan ja palauttaa myöhemmin samaan olioon,
+ * esim. optimistisen rinnakkaisajon tarkistuspisteitä varten. Palautus edellyttää, että olio on rakennettu
+ * samoilla asetuksilla kuin tallennettaessa: tilaan kuuluvat vain simulaation aikana muuttuvat tiedot.
+ */
+public interface Tilallinen {
+
+	/**
+	 * Kirjoittaa olion tilan
+	 * @param out kohde
+	 * @throws IOException jos kirjoitus epäonnistuu
+	 */
+	void tallennaTila(DataOutput out) throws IOException;
+
+	/**
+	 * Palauttaa {@link #tallennaTila(DataOutput)}:lla kirjoitetun tilan
+	 * @param in lähde
+	 * @throws IOException jos luku epäonnistuu
+	 */
+	void palautaTila(DataInput in) throws IOException;
+}
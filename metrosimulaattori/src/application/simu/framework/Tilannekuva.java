@@ -0,0 +1,149 @@
+package application.simu.framework;
+
+import application.eduni.distributions.ContinuousGenerator;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Tilannekuvat: {@link Tilallinen}-olion tila tavutaulukkona tai tiedostona. Tilannekuvasta voi jatkaa pitkää ajoa
+ * esim. kaatumisen jälkeen tai haarauttaa lämmitetystä tilasta useita "entä jos" -ajoja ilman, että lämmitysjaksoa
+ * simuloidaan joka kerta uudelleen.
+ * <p>
+ * Tila palautetaan olioon, joka on rakennettu samalla topologialla ja samoilla palvelinmäärillä kuin tallennettu,
+ * sillä tilannekuvaan kuuluvat vain simulaation aikana muuttuvat tiedot. Tiedoston alussa on tunniste ja versio,
+ * ja palautus tarkistaa, että koko tilannekuva tuli luetuksi.
+ */
+public final class Tilannekuva {
+
+	/**
+	 * Tilannekuvatiedoston tunniste ("SIMU")
+	 */
+	private static final int TUNNISTE = 0x53494D55;
+
+	/**
+	 * Tiedostomuodon versio, kasvatetaan kun tallennettava tila muuttuu
+	 */
+	private static final int VERSIO = 1;
+
+	private Tilannekuva(){
+	}
+
+	/**
+	 * Kirjoittaa olion tilan tavutaulukkoon
+	 * @param olio tallennettava olio
+	 * @return tila
+	 */
+	public static byte[] ota(Tilallinen olio){
+		ByteArrayOutputStream tavut = new ByteArrayOutputStream();
+		try (DataOutputStream out = new DataOutputStream(tavut)){
+			olio.tallennaTila(out);
+		} catch (IOException e){
+			throw new UncheckedIOException(e);
+		}
+		return tavut.toByteArray();
+	}
+
+	/**
+	 * Palauttaa {@link #ota(Tilallinen)}:lla otetun tilan olioon
+	 * @param olio olio, johon tila palautetaan
+	 * @param tila tila
+	 * @throws IllegalArgumentException jos tila ei vastaa oliota
+	 */
+	public static void palauta(Tilallinen olio, byte[] tila){
+		try {
+			lue(olio, new ByteArrayInputStream(tila));
+		} catch (IOException e){
+			throw new IllegalArgumentException("Tilannekuva ei vastaa oliota " + olio.getClass().getName(), e);
+		}
+	}
+
+	/**
+	 * Kirjoittaa olion tilan tiedostoon. Tila kirjoitetaan ensin väliaikaiseen tiedostoon ja siirretään sitten
+	 * paikalleen, joten kesken jäänyt tallennus ei korvaa aiempaa tilannekuvaa.
+	 * @param olio tallennettava olio
+	 * @param tiedosto kohdetiedosto
+	 * @throws IOException jos kirjoitus epäonnistuu
+	 */
+	public static void tallenna(Tilallinen olio, Path tiedosto) throws IOException {
+		Path absoluuttinen = tiedosto.toAbsolutePath();
+		Path valiaikainen = Files.createTempFile(absoluuttinen.getParent(), absoluuttinen.getFileName().toString(), ".tmp");
+		try {
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(valiaikainen), 1 << 16))){
+				out.writeInt(TUNNISTE);
+				out.writeInt(VERSIO);
+				olio.tallennaTila(out);
+			}
+			Files.move(valiaikainen, absoluuttinen, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(valiaikainen);
+		}
+	}
+
+	/**
+	 * Palauttaa {@link #tallenna(Tilallinen, Path)}:lla kirjoitetun tilan olioon
+	 * @param olio olio, johon tila palautetaan
+	 * @param tiedosto tilannekuvatiedosto
+	 * @throws IOException jos luku epäonnistuu tai tiedosto ei ole tilannekuva tai ei vastaa oliota
+	 */
+	public static void palauta(Tilallinen olio, Path tiedosto) throws IOException {
+		try (InputStream in = new BufferedInputStream(Files.newInputStream(tiedosto), 1 << 16)){
+			DataInputStream data = new DataInputStream(in);
+			if (data.readInt() != TUNNISTE){
+				throw new IOException(tiedosto + " ei ole tilannekuva");
+			}
+			int versio = data.readInt();
+			if (versio != VERSIO){
+				throw new IOException("Tilannekuvan versiota " + versio + " ei tueta: " + tiedosto);
+			}
+			lue(olio, in);
+		}
+	}
+
+	/**
+	 * Kirjoittaa jakauman tilan. Jakauman tila on sen siemen (viimeisin tuotettu luku), ellei jakauma tallenna
+	 * tilaansa itse (esim. {@link Esihaku}, jonka etukäteen arvotut luvut kuuluvat tilaan).
+	 * @param jakauma jakauma
+	 * @param out kohde
+	 * @throws IOException jos kirjoitus epäonnistuu
+	 */
+	public static void tallennaJakauma(ContinuousGenerator jakauma, DataOutput out) throws IOException {
+		if (jakauma instanceof Tilallinen){
+			((Tilallinen) jakauma).tallennaTila(out);
+		} else {
+			out.writeLong(jakauma.getSeed());
+		}
+	}
+
+	/**
+	 * Palauttaa {@link #tallennaJakauma(ContinuousGenerator, DataOutput)}:lla kirjoitetun tilan jakaumaan
+	 * @param jakauma jakauma
+	 * @param in lähde
+	 * @throws IOException jos luku epäonnistuu
+	 */
+	public static void palautaJakauma(ContinuousGenerator jakauma, DataInput in) throws IOException {
+		if (jakauma instanceof Tilallinen){
+			((Tilallinen) jakauma).palautaTila(in);
+		} else {
+			jakauma.setSeed(in.readLong());
+		}
+	}
+
+	private static void lue(Tilallinen olio, InputStream in) throws IOException {
+		olio.palautaTila(new DataInputStream(in));
+		if (in.read() != -1){
+			throw new IOException("Tilannekuvaan jäi lukematonta tietoa");
+		}
+	}
+}
@@ -0,0 +1,106 @@
+package application.simu.framework;
+
+/**
+ * Kerää yhden suureen havainnot (esim. yhden palvelupisteen keskijonoajan jokaisesta replikaatiosta)
+ * ja laskee niistä keskiarvon, keskihajonnan ja 95 %:n luottamusvälin.
+ * Keskiarvo ja varianssi päivitetään Welfordin menetelmällä, joten havaintoja ei tarvitse säilyttää.
+ *
+ * @author Eetu Soronen, Emil Ålgars
+ * @version 1
+ */
+public class Tilasto {
+
+	/**
+	 * Havaintojen lukumäärä
+	 */
+	private int n = 0;
+
+	/**
+	 * Havaintojen juokseva keskiarvo
+	 */
+	private double keskiarvo = 0;
+
+	/**
+	 * Poikkeamien neliösumma keskiarvosta
+	 */
+	private double nelioSumma = 0;
+
+	/**
+	 * Lisää havainnon. Arvot, joita ei voitu laskea (NaN, esim. palvelupiste ei palvellut ketään), ohitetaan.
+	 * @param x havainto
+	 */
+	public void lisaa(double x) {
+		if (Double.isNaN(x)) {
+			return;
+		}
+		n++;
+		double delta = x - keskiarvo;
+		keskiarvo += delta / n;
+		nelioSumma += delta * (x - keskiarvo);
+	}
+
+	/**
+	 * @return havaintojen lukumäärä
+	 */
+	public int getLukumaara() {
+		return n;
+	}
+
+	/**
+	 * @return havaintojen keskiarvo, NaN jos havaintoja ei ole
+	 */
+	public double getKeskiarvo() {
+		return n == 0 ? Double.NaN : keskiarvo;
+	}
+
+	/**
+	 * @return otoskeskihajonta, NaN jos havaintoja on alle kaksi
+	 */
+	public double getKeskihajonta() {
+		return n < 2 ? Double.NaN : Math.sqrt(nelioSumma / (n - 1));
+	}
+
+	/**
+	 * Keskiarvon 95 %:n luottamusvälin puolileveys t-jakauman perusteella.
+	 * @return t * s / √n, NaN jos havaintoja on alle kaksi
+	 */
+	public double getLuottamusvali95() {
+		if (n < 2) {
+			return Double.NaN;
+		}
+		return tKvantiili975(n - 1) * getKeskihajonta() / Math.sqrt(n);
+	}
+
+	/**
+	 * t-jakauman 97,5 %:n kvantiilit vapausasteille 1 .. 30
+	 */
+	private static final double[] T_KVANTIILIT_975 = {
+			12.706204736, 4.302652730, 3.182446305, 2.776445105, 2.570581836,
+			2.446911851, 2.364624252, 2.306004135, 2.262157163, 2.228138852,
+			2.200985160, 2.178812830, 2.160368656, 2.144786688, 2.131449546,
+			2.119905299, 2.109815578, 2.100922040, 2.093024054, 2.085963447,
+			2.079613845, 2.073873068, 2.068657610, 2.063898562, 2.059538553,
+			2.055529439, 2.051830516, 2.048407142, 2.045229642, 2.042272456
+	};
+
+	/**
+	 * t-jakauman 97,5 %:n kvantiili: taulukosta enintään 30 vapausasteella, muuten Cornish-Fisher
+	 * -sarjakehitelmällä normaalijakauman kvantiilista (virhe alle 10<sup>-5</sup> yli 30 vapausasteella).
+	 */
+	private static double tKvantiili975(int vapausasteet) {
+		if (vapausasteet <= T_KVANTIILIT_975.length) {
+			return T_KVANTIILIT_975[vapausasteet - 1];
+		}
+		double z = 1.959963984540054;
+		double v = vapausasteet;
+		double z3 = z * z * z, z5 = z3 * z * z, z7 = z5 * z * z;
+		return z + (z3 + z) / (4 * v)
+				+ (5 * z5 + 16 * z3 + 3 * z) / (96 * v * v)
+				+ (3 * z7 + 19 * z5 + 17 * z3 - 15 * z) / (384 * v * v * v);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%.4f ± %.4f (n=%d)", getKeskiarvo(), getLuottamusvali95(), n);
+	}
+}
@@ -1,20 +1,76 @@
 package application.simu.framework;
 
+import java.util.Locale;
+import java.util.function.Supplier;
+
+/**
+ * Jäljitystulosteet. Tulostettava viesti kannattaa rakentaa vasta, kun taso on päällä:
+ * joko {@link #isEnabled(Level)}-tarkistuksen sisällä, {@link Supplier}-versiolla tai muotoilupohjalla.
+ * <p>
+ * Järjestelmäominaisuus {@code -Dsimu.trace=OFF} (tai INFO, WAR, ERR, kirjainkoolla ei väliä) asettaa käynnistyksessä alimman tason,
+ * jota ajon aikana voidaan ylipäätään käyttää. Koska se on vakio, JIT poistaa OFF-tasolla tarkistukset
+ * ja niiden sisällä olevan merkkijonojen rakentamisen kokonaan.
+ */
 public class Trace {
 
-	public enum Level{INFO, WAR, ERR}
-	
-	private static Level traceLevel;
-	
+	public enum Level{INFO, WAR, ERR, OFF}
+
+	private static final Level KAYNNISTYSTASO = kaynnistystaso(System.getProperty("simu.trace", "INFO"));
+
+	private static final boolean KAYTOSSA = KAYNNISTYSTASO != Level.OFF;
+
+	private static final int KAYNNISTYSTASO_ORD = KAYNNISTYSTASO.ordinal();
+
+	private static Level traceLevel = Level.WAR;
+
+	/**
+	 * Tulkitsee järjestelmäominaisuuden kirjainkoosta välittämättä. Tuntematon arvo ei saa kaataa luokan
+	 * alustusta (ja sen mukana kaikkia moottoreita), joten silloin käytetään INFO-tasoa.
+	 */
+	private static Level kaynnistystaso(String arvo){
+		try {
+			return Level.valueOf(arvo.trim().toUpperCase(Locale.ROOT));
+		} catch (IllegalArgumentException e){
+			System.err.println("Tuntematon simu.trace-taso \"" + arvo + "\", käytetään tasoa INFO");
+			return Level.INFO;
+		}
+	}
+
 	public static void setTraceLevel(Level lvl){
 		traceLevel = lvl;
 	}
+
+	/**
+	 * @param lvl viestin taso
+	 * @return tulostetaanko tämän tason viestit
+	 */
+	public static boolean isEnabled(Level lvl){
+		return KAYTOSSA && lvl != Level.OFF && lvl.ordinal() >= KAYNNISTYSTASO_ORD && lvl.ordinal() >= traceLevel.ordinal();
+	}
+
 	public static void out(Level lvl, String txt){
-		if (lvl.ordinal() >= traceLevel.ordinal()){
+		if (isEnabled(lvl)){
 			System.out.println(txt);
 		}
 	}
-	
-	
-	
-}
\ No newline at end of file
+
+	/**
+	 * Viesti rakennetaan vain, jos taso on päällä
+	 */
+	public static void out(Level lvl, Supplier<String> txt){
+		if (isEnabled(lvl)){
+			System.out.println(txt.get());
+		}
+	}
+
+	/**
+	 * Viesti muotoillaan ({@link String#format}) vain, jos taso on päällä.
+	 * Huom. primitiiviparametrit paketoidaan jo kutsussa, joten kuumissa kohdissa isEnabled-tarkistus on halvempi.
+	 */
+	public static void out(Level lvl, String muoto, Object... args){
+		if (isEnabled(lvl)){
+			System.out.println(String.format(muoto, args));
+		}
+	}
+
+}
@@ -0,0 +1,89 @@
+package application.simu.framework;
+
+/**
+ * Loogisten prosessien ({@link Prosessi}) välinen aikaleimattu viesti.
+ * Viestit järjestetään ajan, lähettäjän ja lähettäjän oman juoksevan numeron mukaan. Järjestys ei siis riipu siitä,
+ * missä järjestyksessä prosessit suoritetaan tai viestit saapuvat, joten rinnakkainen ajo tuottaa saman tuloksen kuin peräkkäinen.
+ */
+public class Viesti implements Comparable<Viesti> {
+
+	private final double aika;
+	private final double lahetysaika;
+	private final int lahettaja;
+	private final long numero;
+	private final int vastaanottaja;
+	private final Object sisalto;
+
+	/**
+	 * Viesti, jonka tämä viesti peruu (antiviesti), tai null tavalliselle viestille
+	 */
+	private final Viesti peruttava;
+
+	/**
+	 * @param aika simulaation aika, jolloin viesti käsitellään vastaanottajassa
+	 * @param lahetysaika mihin aikaan lähettäjä oli edennyt lähetyshetkellä
+	 * @param lahettaja lähettäjäprosessin tunnus
+	 * @param numero lähettäjän viestien juokseva numero
+	 * @param vastaanottaja vastaanottajaprosessin tunnus
+	 * @param sisalto mallin määräämä sisältö
+	 */
+	public Viesti(double aika, double lahetysaika, int lahettaja, long numero, int vastaanottaja, Object sisalto){
+		this(aika, lahetysaika, lahettaja, numero, vastaanottaja, sisalto, null);
+	}
+
+	private Viesti(double aika, double lahetysaika, int lahettaja, long numero, int vastaanottaja, Object sisalto, Viesti peruttava){
+		this.aika = aika;
+		this.lahetysaika = lahetysaika;
+		this.lahettaja = lahettaja;
+		this.numero = numero;
+		this.vastaanottaja = vastaanottaja;
+		this.sisalto = sisalto;
+		this.peruttava = peruttava;
+	}
+
+	/**
+	 * Luo antiviestin, joka peruu tämän viestin vastaanottajassa (optimistinen ajo)
+	 * @return antiviesti samalle vastaanottajalle ja ajalle
+	 */
+	public Viesti peruutus(){
+		return new Viesti(aika, lahetysaika, lahettaja, numero, vastaanottaja, null, this);
+	}
+
+	public double getAika(){
+		return aika;
+	}
+
+	public double getLahetysaika(){
+		return lahetysaika;
+	}
+
+	/**
+	 * @return viesti, jonka tämä antiviesti peruu, tai null jos tämä on tavallinen viesti
+	 */
+	public Viesti getPeruttava(){
+		return peruttava;
+	}
+
+	public int getLahettaja(){
+		return lahettaja;
+	}
+
+	public long getNumero(){
+		return numero;
+	}
+
+	public int getVastaanottaja(){
+		return vastaanottaja;
+	}
+
+	public Object getSisalto(){
+		return sisalto;
+	}
+
+	@Override
+	public int compareTo(Viesti v){
+		if (aika != v.aika) return aika < v.aika ? -1 : 1;
+		if (lahettaja != v.lahettaja) return lahettaja < v.lahettaja ? -1 : 1;
+		return Long.compare(numero, v.numero);
+	}
+}
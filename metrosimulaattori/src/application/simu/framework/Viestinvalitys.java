@@ -0,0 +1,13 @@
+package application.simu.framework;
+
+/**
+ * Toimittaa prosessin lähettämät viestit vastaanottajille. Toteutus määrää, miten ja milloin prosessit suoritetaan.
+ */
+public interface Viestinvalitys {
+
+	/**
+	 * Toimittaa viestin vastaanottajalle {@link Viesti#getVastaanottaja()}
+	 * @param viesti toimitettava viesti
+	 */
+	void valita(Viesti viesti);
+}
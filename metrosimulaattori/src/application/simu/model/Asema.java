@@ -0,0 +1,442 @@
+package application.simu.model;
+
+import application.eduni.distributions.ContinuousGenerator;
+import application.simu.framework.Arpa;
+import application.simu.framework.Indeksijono;
+import application.simu.framework.Muutosloki;
+import application.simu.framework.Prosessi;
+import application.simu.framework.Saapumisprosessi;
+import application.simu.framework.Viesti;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Metrolinjan yksi asema loogisena prosessina. Asemalla on oma kello, tapahtumalista, asiakasvarasto ja satunnaislukuvirrat,
+ * ja se on yhteydessä muihin asemiin vain {@link Juna}-viesteillä.
+ * <p>
+ * Asiakkaat kulkevat topologian palvelupisteiden läpi kuten {@link OmaMoottori}ssa, mutta junaa kuvaavan palvelupisteen sijaan
+ * ne jäävät laiturille odottamaan arvotun kohdeasemansa suuntaan kulkevaa junaa. Saapuva juna jättää kohdeasemalle tulleet
+ * matkustajat uloskäynnin jonoon ja ottaa laiturilta kyytiin niin monta kuin mahtuu. Linjan päätyasemat lähettävät itselleen
+ * uuden junan vuorovälin välein.
+ *
+ * @author Eetu Soronen, Emil Ålgars
+ * @version 1
+ */
+public class Asema extends Prosessi {
+
+	/**
+	 * Aseman paikka linjalla (0 .. asemia - 1), sama kuin prosessin tunnus
+	 */
+	private final int indeksi;
+
+	private final Linjaasetukset linja;
+
+	/**
+	 * Aseman palvelupisteet ja reitit
+	 */
+	private final Topologia topologia;
+
+	/**
+	 * Palvelupisteiden toiminnot palvelupistetaulukon järjestyksessä
+	 */
+	private final Topologia.Toiminta[] toiminnot;
+
+	private final Reititys reititys;
+
+	/**
+	 * Uloskäynnin indeksi palvelupistetaulukossa (topologian palvelupisteiden jälkeen)
+	 */
+	private final int uloskaynti;
+
+	/**
+	 * Asemalla olevien asiakkaiden tiedot
+	 */
+	private final Asiakasvarasto asiakkaat;
+
+	/**
+	 * Asemalta lähteneiden asiakkaiden läpimenoajat: uloskäynnistä poistuneille koko matka, topologian kautta poistuneille asemalla vietetty aika
+	 */
+	private final Asiakastilasto asiakastilasto = new Asiakastilasto();
+
+	private final Saapumisprosessi saapumisprosessi;
+
+	/**
+	 * Arpoo haarautuvien reittien kohteet
+	 */
+	private final Arpa reittiarpa;
+
+	/**
+	 * Arpoo laiturille tulevan asiakkaan kohdeaseman
+	 */
+	private final Arpa kohdearpa;
+
+	/**
+	 * Laiturijonot suunnittain, ks. {@link Juna#MENO} ja {@link Juna#PALUU}
+	 */
+	private final Indeksijono[] laiturit = {new Indeksijono(), new Indeksijono()};
+
+	/**
+	 * Aseman maksimikapasiteetti sisään tuleville asiakkaille
+	 */
+	private final int stationCapacity;
+
+	/**
+	 * Sisäänkäynnin läpäisseiden, vielä asemalla olevien asiakkaiden määrä. Junasta jääneitä ei lasketa.
+	 */
+	private int customersWithin = 0;
+
+	/**
+	 * Junaan nousseiden ja junasta jääneiden asiakkaiden määrät
+	 */
+	private long noussut = 0, jaaneet = 0;
+
+	/**
+	 * Aika, jonka junaan nousseet asiakkaat ovat yhteensä odottaneet laiturilla
+	 */
+	private double laiturijonotus = 0;
+
+	/**
+	 * Junaan kerralla nousevien asiakkaiden paikat
+	 */
+	private int[] nousijat = new int[0];
+
+	/**
+	 * @param indeksi {@link #indeksi}
+	 * @param linja linjan asetukset
+	 * @param topologia aseman topologia, yleensä linjan asema-asetusten topologia
+	 * @param siemenet {@link #siemenia(Topologia)} siementä: palvelupisteet topologian järjestyksessä, saapuminen,
+	 *                 reittien arvonta, uloskäynti ja kohdeaseman arvonta
+	 */
+	public Asema(int indeksi, Linjaasetukset linja, Topologia topologia, long[] siemenet) {
+		super(indeksi, linja.getAsema().getTapahtumalista().luo());
+		Simulaatioasetukset asetukset = linja.getAsema();
+		int n = topologia.getPisteet().size();
+		if (siemenet.length < siemenia(topologia)) {
+			throw new IllegalArgumentException("Siemeniä tarvitaan " + siemenia(topologia) + ", annettiin " + siemenet.length);
+		}
+		this.indeksi = indeksi;
+		this.linja = linja;
+		this.topologia = topologia;
+		this.stationCapacity = asetukset.getAsemanKapasiteetti();
+		asiakkaat = new Asiakasvarasto(kello);
+		toiminnot = new Topologia.Toiminta[n];
+		palvelupisteet = new Palvelupiste[n + 1];
+		for (int i = 0; i < n; i++) {
+			Topologia.Piste piste = topologia.getPisteet().get(i);
+			ContinuousGenerator jakauma = asetukset.jakauma(piste.getOdotusarvo(), piste.getVarianssi(), siemenet[i]);
+			toiminnot[i] = piste.getToiminta();
+			if (toiminnot[i] == Topologia.Toiminta.SISAANKAYNTI) {
+				palvelupisteet[i] = new Palvelupiste(jakauma, tapahtumalista, kello, asiakkaat, piste.getTyyppi(), stationCapacity);
+			} else {
+				palvelupisteet[i] = new Palvelupiste(jakauma, tapahtumalista, kello, asiakkaat, piste.getTyyppi());
+			}
+			palvelupisteet[i].setPalvelimia(piste.getPalvelimia());
+		}
+		int[] exit = asetukset.getPPJakauma(TapahtumanTyyppi.EXIT);
+		uloskaynti = n;
+		palvelupisteet[n] = new Palvelupiste(asetukset.jakauma(exit[0], exit[1], siemenet[n + 2]), tapahtumalista, kello, asiakkaat, TapahtumanTyyppi.EXIT);
+		palvelupisteet[n].setPalvelimia(asetukset.getPalvelimia(TapahtumanTyyppi.EXIT));
+
+		int[] arrival = asetukset.getPPJakauma(TapahtumanTyyppi.ARRIVAL);
+		saapumisprosessi = new Saapumisprosessi(asetukset.jakauma(arrival[0], arrival[1], siemenet[n]), tapahtumalista, kello, TapahtumanTyyppi.ARRIVAL);
+		reittiarpa = new Arpa(siemenet[n + 1]);
+		kohdearpa = new Arpa(siemenet[n + 3]);
+		reititys = topologia.reititys(asetukset.getMobiililippujakauma());
+	}
+
+	/**
+	 * Kuinka monta siementä {@link #Asema(int, Linjaasetukset, Topologia, long[])} tarvitsee
+	 * @param topologia aseman topologia
+	 * @return {@link OmaMoottori#siemenia(Topologia)} + 2 (uloskäynti ja kohdeasema)
+	 */
+	public static int siemenia(Topologia topologia) {
+		return OmaMoottori.siemenia(topologia) + 2;
+	}
+
+	/**
+	 * Luo ensimmäisen saapumisen. Päätyasemat lähettävät itselleen ensimmäisen junansa.
+	 */
+	@Override
+	protected void alustukset() {
+		saapumisprosessi.generoiSeuraava();
+		if (indeksi == 0) {
+			laheta(indeksi, 0, new Juna(0, Juna.MENO));
+		}
+		if (indeksi == linja.getAsemia() - 1) {
+			laheta(indeksi, 0, new Juna(0, Juna.PALUU));
+		}
+	}
+
+	/**
+	 * Saapumiset ja palvelun päättymiset
+	 * @param tyyppi käsiteltävän tapahtuman tyyppi
+	 * @param kohde palvelun päättymistapahtumissa palvelupiste ja palvelin
+	 */
+	@Override
+	protected void suoritaTapahtuma(TapahtumanTyyppi tyyppi, int kohde) {
+		if (tyyppi == TapahtumanTyyppi.ARRIVAL) {
+			int id = (asiakastilasto.uusiId() - 1) * linja.getAsemia() + indeksi;
+			siirra(asiakkaat.luo(id), reititys.saapumiskohde(reittiarpa));
+			saapumisprosessi.generoiSeuraava();
+			return;
+		}
+
+		int i = Palvelupiste.palvelupisteenIndeksi(kohde);
+		Palvelupiste p = palvelupisteet[i];
+		if (i == uloskaynti) {
+			poistu(p.otaPalvelusta(kohde));
+			return;
+		}
+		switch (toiminnot[i]) {
+			case TAVALLINEN:
+				ohjaa(p.otaPalvelusta(kohde), i);
+				break;
+			case SISAANKAYNTI:
+				if (customersWithin < stationCapacity) {
+					int a = p.otaPalvelusta(kohde);
+					customersWithin++;
+					ohjaa(a, i);
+				} else {
+					p.palautaJonoon(kohde);
+				}
+				break;
+			case JUNA:
+				// junaa kuvaavaan palvelupisteeseen ei tule asiakkaita, koska ne ohjataan laiturille
+				throw new IllegalStateException("Asemalla " + indeksi + " palvelu päättyi junan palvelupisteessä " + i);
+		}
+	}
+
+	/**
+	 * Juna saapuu asemalle. Päätyaseman itselleen lähettämä juna on uusi vuoro, jolle lähetetään seuraaja vuorovälin päähän.
+	 * @param viesti viesti, jonka sisältö on {@link Juna}
+	 */
+	@Override
+	protected void kasitteleViesti(Viesti viesti) {
+		Juna juna = (Juna) viesti.getSisalto();
+		if (viesti.getLahettaja() == indeksi) {
+			laheta(indeksi, kello.getAika() + linja.getVuorovali(), new Juna(juna.getNumero() + 1, juna.getSuunta()));
+		}
+		double aika = kello.getAika();
+		int kapasiteetti = linja.getJunanKapasiteetti();
+
+		// kohdeasemalle tulleet jäävät uloskäynnin jonoon, muut jatkavat
+		int lkm = juna.getLkm();
+		Indeksijono laituri = laiturit[juna.getSuunta()];
+		int[] id = new int[lkm + Math.min(Math.max(kapasiteetti - lkm, 0), laituri.getKoko())];
+		double[] saapumisaika = new double[id.length];
+		int[] kohde = new int[id.length];
+		int m = 0;
+		for (int i = 0; i < lkm; i++) {
+			if (juna.getKohde(i) == indeksi) {
+				int a = asiakkaat.luo(juna.getId(i));
+				asiakkaat.setSaapumisaika(a, juna.getSaapumisaika(i));
+				palvelupisteet[uloskaynti].lisaaJonoon(a);
+				jaaneet++;
+			} else {
+				id[m] = juna.getId(i);
+				saapumisaika[m] = juna.getSaapumisaika(i);
+				kohde[m] = juna.getKohde(i);
+				m++;
+			}
+		}
+
+		// laiturilta noustaan yhtenä eränä
+		if (nousijat.length < kapasiteetti) {
+			nousijat = new int[kapasiteetti];
+		}
+		int nousi = laituri.poista(nousijat, 0, Math.max(kapasiteetti - m, 0));
+		laiturijonotus += asiakkaat.jonotusaikojenSumma(nousijat, 0, nousi, aika);
+		for (int j = 0; j < nousi; j++) {
+			int a = nousijat[j];
+			id[m] = asiakkaat.getId(a);
+			saapumisaika[m] = asiakkaat.getSaapumisaika(a);
+			kohde[m] = asiakkaat.getKohde(a);
+			m++;
+		}
+		asiakkaat.poista(nousijat, nousi);
+		customersWithin -= nousi;
+		noussut += nousi;
+
+		int seuraava = juna.getSuunta() == Juna.MENO ? indeksi + 1 : indeksi - 1;
+		if (seuraava >= 0 && seuraava < linja.getAsemia()) {
+			double lahto = aika + linja.getPysahdysaika() + linja.getMatkaaika(Math.min(indeksi, seuraava));
+			laheta(seuraava, lahto, new Juna(juna.getNumero(), juna.getSuunta(), id, saapumisaika, kohde, m));
+		}
+	}
+
+	/**
+	 * Siirtää palvelupisteestä lähtevän asiakkaan reitin mukaiseen palvelupisteeseen tai poistaa sen asemalta
+	 * @param a asiakkaan paikka {@link #asiakkaat}-varastossa
+	 * @param piste palvelupiste, josta asiakas lähtee
+	 */
+	private void ohjaa(int a, int piste) {
+		int kohde = reititys.kohde(piste, reittiarpa);
+		if (kohde == Reititys.POISTUMINEN) {
+			customersWithin--;
+			poistu(a);
+		} else {
+			siirra(a, kohde);
+		}
+	}
+
+	/**
+	 * Siirtää asiakkaan palvelupisteen jonoon tai, jos palvelupiste kuvaa junaa, laiturille arvotun kohdeaseman suuntaan
+	 * @param a asiakkaan paikka {@link #asiakkaat}-varastossa
+	 * @param kohde palvelupisteen indeksi
+	 */
+	private void siirra(int a, int kohde) {
+		asiakkaat.setPpisteSaapumisaika(a, kello.getAika());
+		if (toiminnot[kohde] != Topologia.Toiminta.JUNA) {
+			palvelupisteet[kohde].lisaaJonoon(a);
+			return;
+		}
+		int asema = kohdearpa.nextInt(linja.getAsemia() - 1);
+		if (asema >= indeksi) {
+			asema++;
+		}
+		asiakkaat.setKohde(a, asema);
+		laiturit[asema > indeksi ? Juna.MENO : Juna.PALUU].lisaa(a);
+	}
+
+	/**
+	 * Kirjaa asiakkaan läpimenoajan ja poistaa sen simulaattorista
+	 * @param a asiakkaan paikka {@link #asiakkaat}-varastossa
+	 */
+	private void poistu(int a) {
+		asiakkaat.setPoistumisaika(a, kello.getAika());
+		asiakastilasto.poistui(kello.getAika() - asiakkaat.getSaapumisaika(a));
+		asiakkaat.raportti(a);
+		asiakkaat.poista(a);
+	}
+
+	/**
+	 * Kytkee muutoslokiin palvelupisteiden jonojen lisäksi asiakasvaraston ja laiturijonot
+	 * @param loki muutosloki
+	 */
+	@Override
+	protected void kirjaaMuutokset(Muutosloki loki) {
+		super.kirjaaMuutokset(loki);
+		asiakkaat.setMuutosloki(loki);
+		laiturit[Juna.MENO].setMuutosloki(loki);
+		laiturit[Juna.PALUU].setMuutosloki(loki);
+	}
+
+	/**
+	 * Kirjoittaa prosessin tarkistuspisteen tilan sekä satunnaislukuvirrat ja laskurit
+	 * @param out kohde
+	 * @throws IOException jos kirjoitus epäonnistuu
+	 */
+	@Override
+	protected void tallennaTarkistuspiste(DataOutput out) throws IOException {
+		super.tallennaTarkistuspiste(out);
+		asiakastilasto.tallennaTila(out);
+		saapumisprosessi.tallennaTila(out);
+		reittiarpa.tallennaTila(out);
+		kohdearpa.tallennaTila(out);
+		out.writeInt(customersWithin);
+		out.writeLong(noussut);
+		out.writeLong(jaaneet);
+		out.writeDouble(laiturijonotus);
+	}
+
+	@Override
+	protected void palautaTarkistuspiste(DataInput in) throws IOException {
+		super.palautaTarkistuspiste(in);
+		asiakastilasto.palautaTila(in);
+		saapumisprosessi.palautaTila(in);
+		reittiarpa.palautaTila(in);
+		kohdearpa.palautaTila(in);
+		customersWithin = in.readInt();
+		noussut = in.readLong();
+		jaaneet = in.readLong();
+		laiturijonotus = in.readDouble();
+	}
+
+	/**
+	 * Kirjoittaa palvelupisteiden jonot, asiakkaat ja laiturijonot
+	 * @param out kohde
+	 * @throws IOException jos kirjoitus epäonnistuu
+	 */
+	@Override
+	protected void tallennaKirjattavat(DataOutput out) throws IOException {
+		super.tallennaKirjattavat(out);
+		asiakkaat.tallennaTila(out);
+		laiturit[Juna.MENO].tallennaTila(out);
+		laiturit[Juna.PALUU].tallennaTila(out);
+	}
+
+	@Override
+	protected void palautaKirjattavat(DataInput in) throws IOException {
+		super.palautaKirjattavat(in);
+		asiakkaat.palautaTila(in);
+		laiturit[Juna.MENO].palautaTila(in);
+		laiturit[Juna.PALUU].palautaTila(in);
+	}
+
+	/**
+	 * getteri
+	 * @return {@link #indeksi}
+	 */
+	public int getIndeksi() {
+		return indeksi;
+	}
+
+	/**
+	 * getteri
+	 * @return {@link #topologia}
+	 */
+	public Topologia getTopologia() {
+		return topologia;
+	}
+
+	/**
+	 * getteri
+	 * @return {@link #asiakastilasto}
+	 */
+	public Asiakastilasto getAsiakastilasto() {
+		return asiakastilasto;
+	}
+
+	/**
+	 * getteri
+	 * @return {@link #noussut}
+	 */
+	public long getNoussut() {
+		return noussut;
+	}
+
+	/**
+	 * getteri
+	 * @return {@link #jaaneet}
+	 */
+	public long getJaaneet() {
+		return jaaneet;
+	}
+
+	/**
+	 * Palauttaa junaan nousseiden asiakkaiden keskimääräisen odotusajan laiturilla
+	 * @return {@link #laiturijonotus} / {@link #noussut}
+	 */
+	public double getLaiturijonotus() {
+		return noussut == 0 ? 0 : laiturijonotus / noussut;
+	}
+
+	/**
+	 * Palauttaa laiturilla junaa odottavien asiakkaiden määrän
+	 * @param suunta {@link Juna#MENO} tai {@link Juna#PALUU}
+	 * @return jonon pituus
+	 */
+	public int getLaiturijono(int suunta) {
+		return laiturit[suunta].getKoko();
+	}
+
+	/**
+	 * getteri
+	 * @return {@link #customersWithin}
+	 */
+	public int getCustomersWithin() {
+		return customersWithin;
+	}
+}
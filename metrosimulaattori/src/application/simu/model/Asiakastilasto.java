@@ -0,0 +1,89 @@
+package application.simu.model;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import application.simu.framework.Tilallinen;
+
+/**
+ * Yhden simulaatioajon asiakaslaskurit: jakaa asiakkaille tunnukset ja kerää poistuneiden asiakkaiden läpimenoajat.
+ * Jokaisella moottorilla on oma tilastonsa, joten rinnakkaiset ajot eivät vaikuta toistensa tuloksiin.
+ *
+ * @author Eetu Soronen, Emil Ålgars
+ * @version 1
+ */
+public class Asiakastilasto implements Tilallinen {
+
+	/**
+	 * Seuraavaksi luotavan asiakkaan id
+	 */
+	private int seuraavaId = 1;
+
+	/**
+	 * Simulaattorista poistuneiden asiakkaiden määrä
+	 */
+	private int poistuneita = 0;
+
+	/**
+	 * Aika, jonka poistuneet asiakkaat yhteensä ovat viettäneet simulaattorissa
+	 */
+	private double lapimenoaikojenSumma = 0;
+
+	/**
+	 * Varaa uudelle asiakkaalle id:n
+	 * @return {@link #seuraavaId}
+	 */
+	public int uusiId() {
+		return seuraavaId++;
+	}
+
+	/**
+	 * Kirjaa simulaattorista poistuneen asiakkaan läpimenoajan
+	 * @param lapimenoaika asiakkaan poistumisaika - saapumisaika
+	 */
+	public void poistui(double lapimenoaika) {
+		poistuneita++;
+		lapimenoaikojenSumma += lapimenoaika;
+	}
+
+	/**
+	 * Kirjaa kerralla poistuneen asiakasjoukon läpimenoajat
+	 * @param lkm poistuneiden asiakkaiden määrä
+	 * @param lapimenoaikojenSumma asiakkaiden läpimenoaikojen summa
+	 */
+	public void poistui(int lkm, double lapimenoaikojenSumma) {
+		poistuneita += lkm;
+		this.lapimenoaikojenSumma += lapimenoaikojenSumma;
+	}
+
+	/**
+	 * getteri
+	 * @return {@link #poistuneita}
+	 */
+	public int getPoistuneita() {
+		return poistuneita;
+	}
+
+	/**
+	 * Palauttaa yhden asiakkaan keskimäärin simulaattorissa viettämän ajan.
+	 * @return {@link #lapimenoaikojenSumma} / {@link #poistuneita}, tai 0 jos kukaan ei ole vielä poistunut
+	 */
+	public double getKeskiarvo() {
+		return poistuneita == 0 ? 0 : lapimenoaikojenSumma / poistuneita;
+	}
+
+	@Override
+	public void tallennaTila(DataOutput out) throws IOException {
+		out.writeInt(seuraavaId);
+		out.writeInt(poistuneita);
+		out.writeDouble(lapimenoaikojenSumma);
+	}
+
+	@Override
+	public void palautaTila(DataInput in) throws IOException {
+		seuraavaId = in.readInt();
+		poistuneita = in.readInt();
+		lapimenoaikojenSumma = in.readDouble();
+	}
+}
@@ -0,0 +1,436 @@
+package application.simu.model;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+import application.simu.framework.Kello;
+import application.simu.framework.Muutosloki;
+import application.simu.framework.Tilallinen;
+import application.simu.framework.Trace;
+
+/**
+ * Asiakkaat liikkuvat palvelupisteiden läpi pitäen aikaa omista saapumisistaan ja poistumisistaan.
+ * Jokaiselle asiakkaalle ei luoda omaa oliota, vaan asiakkaan tiedot ovat rinnakkaisissa primitiivitaulukoissa
+ * ja asiakas on paikka (int) niissä. Poistuneiden asiakkaiden paikat kierrätetään, joten asiakkaan saapuminen
+ * ei luo olioita ja yksi asiakas vie muistia vain muutamia kymmeniä tavuja.
+ * <p>
+ * Optimistisessa ajossa varasto kirjaa muutoksensa {@link Muutosloki}in ({@link #setMuutosloki(Muutosloki)}),
+ * jolloin sitä ei tarvitse kopioida tarkistuspisteisiin. Kun {@link #luo(int)} ottaa käyttöön vapautetun paikan,
+ * sen edellisen asiakkaan tiedot kirjataan, jotta poiston kumoaminen palauttaa ne.
+ *
+ * @author Eetu Soronen, Emil Ålgars
+ * @version 1
+ */
+public class Asiakasvarasto implements Tilallinen, Muutosloki.Kumottava {
+
+	private static final int LOPPU = -1;
+
+	// muutosten lajit lokissa
+	private static final int LUOTU = 0;
+	private static final int POISTETTU = 1;
+	private static final int SAAPUMISAIKA = 2;
+	private static final int PPISTE_SAAPUMISAIKA = 3;
+	private static final int POISTUMISAIKA = 4;
+	private static final int KOHDE = 5;
+	private static final int ID = 6;
+
+	/**
+	 * Asiakkaan id, jolla asikkaat erotetaan toisistaan.
+	 */
+	private int[] id;
+
+	/**
+	 * Asiakkaan saapumisaika (luomisaika)
+	 */
+	private double[] saapumisaika;
+
+	/**
+	 * Asiakkaan saapumisaika palvelupisteeseen
+	 */
+	private double[] ppisteSaapumisaika;
+
+	/**
+	 * Asiakkaan poistumisaika (simulaattorista)
+	 */
+	private double[] poistumisaika;
+
+	/**
+	 * Asiakkaan matkan kohde, esim. linjasimulaatiossa kohdeasema, -1 jos kohdetta ei ole
+	 */
+	private int[] kohde;
+
+	/**
+	 * Vapaiden paikkojen lista: vapaan paikan seuraava vapaa paikka
+	 */
+	private int[] seuraavaVapaa;
+
+	private int vapaat = LOPPU;
+	private int kaytetty = 0;
+	private int koko = 0;
+
+	/**
+	 * Sen moottorin kello, jonka simulaatiossa asiakkaat liikkuvat.
+	 */
+	private final Kello kello;
+
+	/**
+	 * Loki, johon muutokset kirjataan, null jos muutoksia ei kirjata
+	 */
+	private Muutosloki loki;
+
+	private int lokitunnus;
+
+	/**
+	 * Konstruktori
+	 * @param kello {@link #kello}
+	 */
+	public Asiakasvarasto(Kello kello){
+		this(kello, 64);
+	}
+
+	/**
+	 * Konstruktori
+	 * @param kello {@link #kello}
+	 * @param kapasiteetti kuinka monelle asiakkaalle varataan aluksi tilaa
+	 */
+	public Asiakasvarasto(Kello kello, int kapasiteetti){
+		this.kello = kello;
+		kapasiteetti = Math.max(kapasiteetti, 1);
+		id = new int[kapasiteetti];
+		saapumisaika = new double[kapasiteetti];
+		ppisteSaapumisaika = new double[kapasiteetti];
+		poistumisaika = new double[kapasiteetti];
+		kohde = new int[kapasiteetti];
+		seuraavaVapaa = new int[kapasiteetti];
+	}
+
+	/**
+	 * Luo uuden asiakkaan ja asettaa sen saapumisajaksi ja palvelupisteeseen saapumisajaksi kellon sen hetkisen ajan.
+	 * @param asiakasId asiakkaan id
+	 * @return asiakkaan paikka
+	 */
+	public int luo(int asiakasId){
+		int k;
+		boolean vapaista = vapaat != LOPPU;
+		if (vapaista){
+			k = vapaat;
+			vapaat = seuraavaVapaa[k];
+			if (loki != null){
+				loki.kirjaa(lokitunnus, ID, k, id[k]);
+				kirjaaAika(SAAPUMISAIKA, k, saapumisaika[k]);
+				kirjaaAika(PPISTE_SAAPUMISAIKA, k, ppisteSaapumisaika[k]);
+				kirjaaAika(POISTUMISAIKA, k, poistumisaika[k]);
+				loki.kirjaa(lokitunnus, KOHDE, k, kohde[k]);
+			}
+		} else {
+			if (kaytetty == id.length){
+				int n = 2 * kaytetty;
+				id = Arrays.copyOf(id, n);
+				saapumisaika = Arrays.copyOf(saapumisaika, n);
+				ppisteSaapumisaika = Arrays.copyOf(ppisteSaapumisaika, n);
+				poistumisaika = Arrays.copyOf(poistumisaika, n);
+				kohde = Arrays.copyOf(kohde, n);
+				seuraavaVapaa = Arrays.copyOf(seuraavaVapaa, n);
+			}
+			k = kaytetty++;
+		}
+		koko++;
+		double aika = kello.getAika();
+		id[k] = asiakasId;
+		saapumisaika[k] = aika;
+		ppisteSaapumisaika[k] = aika;
+		poistumisaika[k] = 0;
+		kohde[k] = -1;
+		if (loki != null){
+			loki.kirjaa(lokitunnus, LUOTU, k, vapaista ? 1 : 0);
+		}
+		if (Trace.isEnabled(Trace.Level.INFO)){
+			Trace.out(Trace.Level.INFO, "Uusi asiakas nro " + asiakasId + " saapui klo "+aika);
+		}
+		return k;
+	}
+
+	/**
+	 * Vapauttaa simulaattorista poistuneen asiakkaan paikan uudelleen käytettäväksi.
+	 * @param k asiakkaan paikka
+	 */
+	public void poista(int k){
+		if (loki != null){
+			loki.kirjaa(lokitunnus, POISTETTU, k, seuraavaVapaa[k]);
+		}
+		seuraavaVapaa[k] = vapaat;
+		vapaat = k;
+		koko--;
+	}
+
+	/**
+	 * Vapauttaa joukon poistuneita asiakkaita kerralla.
+	 * @param paikat asiakkaiden paikat
+	 * @param n paikkojen määrä taulukon alussa
+	 */
+	public void poista(int[] paikat, int n){
+		for (int i = 0; i < n; i++){
+			int k = paikat[i];
+			if (loki != null){
+				loki.kirjaa(lokitunnus, POISTETTU, k, seuraavaVapaa[k]);
+			}
+			seuraavaVapaa[k] = vapaat;
+			vapaat = k;
+		}
+		koko -= n;
+	}
+
+	/**
+	 * Asettaa joukolle asiakkaita saman poistumisajan.
+	 * @param paikat asiakkaiden paikat
+	 * @param n paikkojen määrä taulukon alussa
+	 * @param aika poistumisaika
+	 * @return asiakkaiden läpimenoaikojen summa
+	 */
+	public double poistuvat(int[] paikat, int n, double aika){
+		double summa = 0;
+		for (int i = 0; i < n; i++){
+			int k = paikat[i];
+			kirjaaAika(POISTUMISAIKA, k, poistumisaika[k]);
+			poistumisaika[k] = aika;
+			summa += aika - saapumisaika[k];
+		}
+		return summa;
+	}
+
+	/**
+	 * Laskee joukon asiakkaiden yhteenlasketun ajan nykyisessä palvelupisteessä.
+	 * @param paikat asiakkaiden paikat
+	 * @param alku ensimmäisen paikan indeksi taulukossa
+	 * @param n paikkojen määrä
+	 * @param aika nykyhetki
+	 * @return summa aika - {@link #ppisteSaapumisaika} kaikille asiakkaille
+	 */
+	public double jonotusaikojenSumma(int[] paikat, int alku, int n, double aika){
+		double summa = 0;
+		for (int i = alku; i < alku + n; i++){
+			summa += aika - ppisteSaapumisaika[paikat[i]];
+		}
+		return summa;
+	}
+
+	/**
+	 * @return simulaattorissa olevien asiakkaiden määrä
+	 */
+	public int getKoko(){
+		return koko;
+	}
+
+	/**
+	 * Palauttaa asiakkaan id:n.
+	 * @param k asiakkaan paikka
+	 * @return {@link #id}
+	 */
+	public int getId(int k){
+		return id[k];
+	}
+
+	/**
+	 * Palauttaa asiakkaan saapumisajan simulaattoriin.
+	 * @param k asiakkaan paikka
+	 * @return {@link #saapumisaika}
+	 */
+	public double getSaapumisaika(int k){
+		return saapumisaika[k];
+	}
+
+	/**
+	 * Asettaa asiakkaan saapumisajan simulaattoriin, esim. kun asiakas siirtyy toisesta simulaatiosta (asemalta).
+	 * @param k asiakkaan paikka
+	 * @param aika {@link #saapumisaika}
+	 */
+	public void setSaapumisaika(int k, double aika){
+		kirjaaAika(SAAPUMISAIKA, k, saapumisaika[k]);
+		saapumisaika[k] = aika;
+	}
+
+	/**
+	 * Palauttaa asiakkaan matkan kohteen.
+	 * @param k asiakkaan paikka
+	 * @return {@link #kohde}
+	 */
+	public int getKohde(int k){
+		return kohde[k];
+	}
+
+	/**
+	 * Asettaa asiakkaan matkan kohteen.
+	 * @param k asiakkaan paikka
+	 * @param kohde {@link #kohde}
+	 */
+	public void setKohde(int k, int kohde){
+		if (loki != null){
+			loki.kirjaa(lokitunnus, KOHDE, k, this.kohde[k]);
+		}
+		this.kohde[k] = kohde;
+	}
+
+	/**
+	 * Palauttaa asiakkaan saapumisajan palvelupisteeseen.
+	 * @param k asiakkaan paikka
+	 * @return {@link #ppisteSaapumisaika}
+	 */
+	public double getPpisteSaapumisaika(int k){
+		return ppisteSaapumisaika[k];
+	}
+
+	/**
+	 * Asettaa asiakkaan saapumisajan palvelupisteeseen.
+	 * @param k asiakkaan paikka
+	 * @param aika {@link #ppisteSaapumisaika}
+	 */
+	public void setPpisteSaapumisaika(int k, double aika){
+		kirjaaAika(PPISTE_SAAPUMISAIKA, k, ppisteSaapumisaika[k]);
+		ppisteSaapumisaika[k] = aika;
+	}
+
+	/**
+	 * Palauttaa asiakkaan poistumisajan simulaattorista
+	 * @param k asiakkaan paikka
+	 * @return {@link #poistumisaika}
+	 */
+	public double getPoistumisaika(int k){
+		return poistumisaika[k];
+	}
+
+	/**
+	 * Asettaa asiakkaan poistumisajan simulaattorista.
+	 * @param k asiakkaan paikka
+	 * @param aika {@link #poistumisaika}
+	 */
+	public void setPoistumisaika(int k, double aika){
+		kirjaaAika(POISTUMISAIKA, k, poistumisaika[k]);
+		poistumisaika[k] = aika;
+	}
+
+	/**
+	 * Kytkee varaston muutoslokiin. Kytketyn varaston asiakkaiden luonnit, poistot ja tietojen muutokset kirjataan lokiin,
+	 * jotta ne voidaan kumota.
+	 * @param loki muutosloki, null jos muutoksia ei kirjata
+	 */
+	public void setMuutosloki(Muutosloki loki){
+		this.loki = loki;
+		lokitunnus = loki == null ? 0 : loki.rekisteroi(this);
+	}
+
+	@Override
+	public void kumoa(int laji, int k, long arvo){
+		switch (laji){
+			case LUOTU:
+				if (arvo != 0){
+					vapaat = k; // seuraavaVapaa[k] osoittaa yhä samaan paikkaan kuin ennen luontia
+				} else {
+					kaytetty--;
+				}
+				koko--;
+				break;
+			case POISTETTU:
+				vapaat = seuraavaVapaa[k];
+				seuraavaVapaa[k] = (int) arvo; // paikan luonnin kumoaminen tarvitsee sen
+				koko++;
+				break;
+			case SAAPUMISAIKA:
+				saapumisaika[k] = Double.longBitsToDouble(arvo);
+				break;
+			case PPISTE_SAAPUMISAIKA:
+				ppisteSaapumisaika[k] = Double.longBitsToDouble(arvo);
+				break;
+			case POISTUMISAIKA:
+				poistumisaika[k] = Double.longBitsToDouble(arvo);
+				break;
+			case KOHDE:
+				kohde[k] = (int) arvo;
+				break;
+			case ID:
+				id[k] = (int) arvo;
+				break;
+			default:
+				throw new IllegalArgumentException("Tuntematon muutos " + laji);
+		}
+	}
+
+	private void kirjaaAika(int laji, int k, double vanha){
+		if (loki != null){
+			loki.kirjaa(lokitunnus, laji, k, Double.doubleToRawLongBits(vanha));
+		}
+	}
+
+	/**
+	 * Kirjoittaa käytössä olleiden paikkojen tiedot ja vapaiden paikkojen listan
+	 * @param out kohde
+	 * @throws IOException jos kirjoitus epäonnistuu
+	 */
+	@Override
+	public void tallennaTila(DataOutput out) throws IOException {
+		out.writeInt(kaytetty);
+		out.writeInt(vapaat);
+		out.writeInt(koko);
+		for (int k = 0; k < kaytetty; k++){
+			out.writeInt(id[k]);
+			out.writeDouble(saapumisaika[k]);
+			out.writeDouble(ppisteSaapumisaika[k]);
+			out.writeDouble(poistumisaika[k]);
+			out.writeInt(kohde[k]);
+			out.writeInt(seuraavaVapaa[k]);
+		}
+	}
+
+	/**
+	 * Palauttaa {@link #tallennaTila(DataOutput)}:lla kirjoitetut asiakkaat samoille paikoille
+	 * @param in lähde
+	 * @throws IOException jos luku epäonnistuu
+	 */
+	@Override
+	public void palautaTila(DataInput in) throws IOException {
+		kaytetty = in.readInt();
+		vapaat = in.readInt();
+		koko = in.readInt();
+		if (kaytetty > id.length){
+			id = Arrays.copyOf(id, kaytetty);
+			saapumisaika = Arrays.copyOf(saapumisaika, kaytetty);
+			ppisteSaapumisaika = Arrays.copyOf(ppisteSaapumisaika, kaytetty);
+			poistumisaika = Arrays.copyOf(poistumisaika, kaytetty);
+			kohde = Arrays.copyOf(kohde, kaytetty);
+			seuraavaVapaa = Arrays.copyOf(seuraavaVapaa, kaytetty);
+		}
+		for (int k = 0; k < kaytetty; k++){
+			id[k] = in.readInt();
+			saapumisaika[k] = in.readDouble();
+			ppisteSaapumisaika[k] = in.readDouble();
+			poistumisaika[k] = in.readDouble();
+			kohde[k] = in.readInt();
+			seuraavaVapaa[k] = in.readInt();
+		}
+	}
+
+	/**
+	 * Asiakkaan loppuraportti, joka tulostetaan jäljitykseen asiakkaan poistuessa.
+	 * @param k asiakkaan paikka
+	 */
+	public void raportti(int k){
+		if (Trace.isEnabled(Trace.Level.INFO)){
+			Trace.out(Trace.Level.INFO, "\nAsiakas "+id[k]+ " valmis! ");
+			Trace.out(Trace.Level.INFO, "Asiakas "+id[k]+ " saapui: " +saapumisaika[k]);
+			Trace.out(Trace.Level.INFO,"Asiakas "+id[k]+ " poistui: " +poistumisaika[k]);
+			Trace.out(Trace.Level.INFO,"Asiakas "+id[k]+ " viipyi: " +(poistumisaika[k]-saapumisaika[k]));
+		}
+	}
+
+	/**
+	 * Väliraportti tulostetaan jäljitykseen asiakkaan edetessä uuteen palvelupisteeseen.
+	 * @param k asiakkaan paikka
+	 */
+	public void valiraportti(int k){
+		if (Trace.isEnabled(Trace.Level.INFO)){
+			Trace.out(Trace.Level.INFO, "\nAsiakas "+id[k]+ " luotu aikaan " + saapumisaika[k]);
+			Trace.out(Trace.Level.INFO, "Asiakkaan ajan delta "+ (kello.getAika()-saapumisaika[k]) + "\n");
+		}
+	}
+}
@@ -0,0 +1,95 @@
+package application.simu.model;
+
+/**
+ * Linjalla kulkeva juna ja sen kuorma. Juna on asemien välisen viestin sisältö: asema, jolle juna saapuu,
+ * käsittelee viestin ja lähettää seuraavalle asemalle uuden Juna-olion, joten viestiä ei muuteta lähettämisen jälkeen.
+ * Matkustajien tiedot ovat rinnakkaisissa taulukoissa kuten {@link Asiakasvarasto}ssa.
+ *
+ * @author Eetu Soronen, Emil Ålgars
+ * @version 1
+ */
+public class Juna {
+
+	/**
+	 * Kasvavien asemanumeroiden suunta
+	 */
+	public static final int MENO = 0;
+
+	/**
+	 * Laskevien asemanumeroiden suunta
+	 */
+	public static final int PALUU = 1;
+
+	private final int numero;
+	private final int suunta;
+	private final int[] id;
+	private final double[] saapumisaika;
+	private final int[] kohde;
+	private final int lkm;
+
+	/**
+	 * Tyhjä juna
+	 * @param numero junan numero
+	 * @param suunta {@link #MENO} tai {@link #PALUU}
+	 */
+	public Juna(int numero, int suunta) {
+		this(numero, suunta, new int[0], new double[0], new int[0], 0);
+	}
+
+	/**
+	 * Juna ja sen matkustajat. Taulukoita ei kopioida, eikä niitä saa muuttaa tämän jälkeen.
+	 * @param numero junan numero
+	 * @param suunta {@link #MENO} tai {@link #PALUU}
+	 * @param id matkustajien id:t
+	 * @param saapumisaika matkustajien saapumisajat linjalle
+	 * @param kohde matkustajien kohdeasemat
+	 * @param lkm matkustajien määrä taulukoiden alussa
+	 */
+	public Juna(int numero, int suunta, int[] id, double[] saapumisaika, int[] kohde, int lkm) {
+		this.numero = numero;
+		this.suunta = suunta;
+		this.id = id;
+		this.saapumisaika = saapumisaika;
+		this.kohde = kohde;
+		this.lkm = lkm;
+	}
+
+	public int getNumero() {
+		return numero;
+	}
+
+	public int getSuunta() {
+		return suunta;
+	}
+
+	/**
+	 * @return matkustajien määrä
+	 */
+	public int getLkm() {
+		return lkm;
+	}
+
+	/**
+	 * @param i matkustajan indeksi junassa
+	 * @return matkustajan id
+	 */
+	public int getId(int i) {
+		return id[i];
+	}
+
+	/**
+	 * @param i matkustajan indeksi junassa
+	 * @return matkustajan saapumisaika linjalle
+	 */
+	public double getSaapumisaika(int i) {
+		return saapumisaika[i];
+	}
+
+	/**
+	 * @param i matkustajan indeksi junassa
+	 * @return matkustajan kohdeasema
+	 */
+	public int getKohde(int i) {
+		return kohde[i];
+	}
+}
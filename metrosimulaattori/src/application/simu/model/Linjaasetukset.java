@@ -0,0 +1,208 @@
+package application.simu.model;
+
+import java.util.Arrays;
+
+/**
+ * Usean aseman metrolinjan parametrit. Jokainen asema ajetaan samoilla {@link Simulaatioasetukset}illa
+ * (saapumiset, topologia, aseman kapasiteetti, mobiililippujen osuus), ja junat kulkevat linjan päistä
+ * vakiovuorovälein.
+ *
+ * @author Eetu Soronen, Emil Ålgars
+ * @version 1
+ */
+public class Linjaasetukset {
+
+	/**
+	 * Asemien määrä linjalla
+	 */
+	private int asemia = 10;
+
+	/**
+	 * Kauan linjaa simuloidaan (oletuksena vuorokausi)
+	 */
+	private int simukesto = 86400;
+
+	/**
+	 * Junien lähtöjen väli linjan päistä
+	 */
+	private double vuorovali = 300;
+
+	/**
+	 * Kauan juna seisoo asemalla ennen lähtöä
+	 */
+	private double pysahdysaika = 30;
+
+	/**
+	 * Kuinka monta matkustajaa junaan mahtuu
+	 */
+	private int junanKapasiteetti = 800;
+
+	/**
+	 * Ajoajat asemavälillä i .. i+1
+	 */
+	private double[] matkaajat = taytetty(asemia - 1, 120);
+
+	/**
+	 * Yksittäisen aseman asetukset
+	 */
+	private Simulaatioasetukset asema = new Simulaatioasetukset();
+
+	private static double[] taytetty(int n, double arvo) {
+		double[] t = new double[n];
+		Arrays.fill(t, arvo);
+		return t;
+	}
+
+	/**
+	 * Lyhin aika, jossa juna ehtii asemalta seuraavalle. Asema ei voi vaikuttaa toiseen asemaan tätä nopeammin.
+	 * @return {@link #pysahdysaika} + lyhin matka-aika
+	 */
+	public double getLyhinSiirtymaaika() {
+		double min = Double.POSITIVE_INFINITY;
+		for (double m : matkaajat) {
+			min = Math.min(min, m);
+		}
+		return pysahdysaika + min;
+	}
+
+	/**
+	 * getteri
+	 * @return {@link #asemia}
+	 */
+	public int getAsemia() {
+		return asemia;
+	}
+
+	/**
+	 * Asettaa asemien määrän. Uusien asemavälien ajoajaksi tulee viimeisen välin ajoaika.
+	 * @param asemia {@link #asemia}, vähintään 2
+	 */
+	public void setAsemia(int asemia) {
+		if (asemia < 2) {
+			throw new IllegalArgumentException("Linjalla on oltava vähintään kaksi asemaa: " + asemia);
+		}
+		int vanha = matkaajat.length;
+		matkaajat = Arrays.copyOf(matkaajat, asemia - 1);
+		for (int i = vanha; i < matkaajat.length; i++) {
+			matkaajat[i] = matkaajat[vanha - 1];
+		}
+		this.asemia = asemia;
+	}
+
+	/**
+	 * getteri
+	 * @return {@link #simukesto}
+	 */
+	public int getSimukesto() {
+		return simukesto;
+	}
+
+	/**
+	 * setteri
+	 * @param simukesto {@link #simukesto}
+	 */
+	public void setSimukesto(int simukesto) {
+		this.simukesto = simukesto;
+	}
+
+	/**
+	 * getteri
+	 * @return {@link #vuorovali}
+	 */
+	public double getVuorovali() {
+		return vuorovali;
+	}
+
+	/**
+	 * setteri
+	 * @param vuorovali {@link #vuorovali}, positiivinen
+	 */
+	public void setVuorovali(double vuorovali) {
+		if (!(vuorovali > 0)) {
+			throw new IllegalArgumentException("Vuorovälin on oltava positiivinen: " + vuorovali);
+		}
+		this.vuorovali = vuorovali;
+	}
+
+	/**
+	 * getteri
+	 * @return {@link #pysahdysaika}
+	 */
+	public double getPysahdysaika() {
+		return pysahdysaika;
+	}
+
+	/**
+	 * setteri
+	 * @param pysahdysaika {@link #pysahdysaika}
+	 */
+	public void setPysahdysaika(double pysahdysaika) {
+		if (!(pysahdysaika >= 0)) {
+			throw new IllegalArgumentException("Pysähdysaika ei voi olla negatiivinen: " + pysahdysaika);
+		}
+		this.pysahdysaika = pysahdysaika;
+	}
+
+	/**
+	 * getteri
+	 * @return {@link #junanKapasiteetti}
+	 */
+	public int getJunanKapasiteetti() {
+		return junanKapasiteetti;
+	}
+
+	/**
+	 * setteri
+	 * @param junanKapasiteetti {@link #junanKapasiteetti}
+	 */
+	public void setJunanKapasiteetti(int junanKapasiteetti) {
+		this.junanKapasiteetti = junanKapasiteetti;
+	}
+
+	/**
+	 * Palauttaa asemavälin ajoajan
+	 * @param vali asemavälin ensimmäinen asema (0 .. asemia - 2)
+	 * @return ajoaika asemalta vali asemalle vali + 1
+	 */
+	public double getMatkaaika(int vali) {
+		return matkaajat[vali];
+	}
+
+	/**
+	 * Asettaa asemavälin ajoajan
+	 * @param vali asemavälin ensimmäinen asema (0 .. asemia - 2)
+	 * @param aika ajoaika, positiivinen
+	 */
+	public void setMatkaaika(int vali, double aika) {
+		if (!(aika > 0)) {
+			throw new IllegalArgumentException("Ajoajan on oltava positiivinen: " + aika);
+		}
+		matkaajat[vali] = aika;
+	}
+
+	/**
+	 * Asettaa kaikkien asemavälien ajoajan
+	 * @param aika ajoaika, positiivinen
+	 */
+	public void setMatkaaika(double aika) {
+		for (int i = 0; i < matkaajat.length; i++) {
+			setMatkaaika(i, aika);
+		}
+	}
+
+	/**
+	 * getteri
+	 * @return {@link #asema}
+	 */
+	public Simulaatioasetukset getAsema() {
+		return asema;
+	}
+
+	/**
+	 * setteri
+	 * @param asema {@link #asema}
+	 */
+	public void setAsema(Simulaatioasetukset asema) {
+		this.asema = asema;
+	}
+}
@@ -0,0 +1,143 @@
+package application.simu.model;
+
+import application.simu.framework.Viesti;
+import application.simu.framework.Viestinvalitys;
+
+/**
+ * Ajaa metrolinjan asemat yhdessä säikeessä. Vuorossa on aina asema, jonka seuraava tapahtuma tai viesti on aikaisin,
+ * ja viestit toimitetaan suoraan vastaanottajalle. Koska juna on aina vähintään {@link Linjaasetukset#getLyhinSiirtymaaika()}
+ * matkalla, samanaikaisten asemien järjestyksellä ei ole väliä.
+ *
+ * @author Eetu Soronen, Emil Ålgars
+ * @version 1
+ */
+public class Linjamoottori implements Viestinvalitys {
+
+	protected final Linjaasetukset asetukset;
+
+	protected final Asema[] asemat;
+
+	/**
+	 * Luo linjan asemat ja siementää ne juurisiemenestä
+	 * @param asetukset linjan parametrit
+	 * @param juurisiemen SeedGeneratorin juurisiemen (1 .. 2<sup>31</sup>-2)
+	 */
+	public Linjamoottori(Linjaasetukset asetukset, long juurisiemen) {
+		this.asetukset = asetukset;
+		Topologia topologia = asetukset.getAsema().getTopologia();
+		long[][] siemenet = Replikaattori.siemenet(asetukset.getAsemia(), juurisiemen, Asema.siemenia(topologia),
+				asetukset.getAsema().getSatunnaislahde());
+		asemat = new Asema[asetukset.getAsemia()];
+		for (int i = 0; i < asemat.length; i++) {
+			asemat[i] = new Asema(i, asetukset, topologia, siemenet[i]);
+			asemat[i].setViestinvalitys(this);
+		}
+	}
+
+	/**
+	 * Ajaa linjaa simulointiajan loppuun
+	 */
+	public void aja() {
+		for (Asema asema : asemat) {
+			asema.alusta();
+		}
+		double loppu = asetukset.getSimukesto();
+		while (true) {
+			int seuraava = -1;
+			double aika = loppu;
+			for (int i = 0; i < asemat.length; i++) {
+				double t = asemat[i].getSeuraavanAika();
+				if (t < aika) {
+					aika = t;
+					seuraava = i;
+				}
+			}
+			if (seuraava < 0) {
+				break;
+			}
+			asemat[seuraava].suoritaKierros();
+		}
+	}
+
+	/**
+	 * Toimittaa viestin vastaanottaja-asemalle
+	 * @param viesti toimitettava viesti
+	 */
+	@Override
+	public void valita(Viesti viesti) {
+		asemat[viesti.getVastaanottaja()].vastaanota(viesti);
+	}
+
+	/**
+	 * getteri
+	 * @return linjan asemat
+	 */
+	public Asema[] getAsemat() {
+		return asemat;
+	}
+
+	/**
+	 * @return kaikkien asemien käsittelemät tapahtumat ja viestit
+	 */
+	public long getSuoritettujaTapahtumia() {
+		long n = 0;
+		for (Asema asema : asemat) {
+			n += asema.getSuoritettujaTapahtumia();
+		}
+		return n;
+	}
+
+	/**
+	 * @return simulaattorista poistuneiden asiakkaiden määrä
+	 */
+	public long getPoistuneita() {
+		long n = 0;
+		for (Asema asema : asemat) {
+			n += asema.getAsiakastilasto().getPoistuneita();
+		}
+		return n;
+	}
+
+	/**
+	 * @return simulaattorista poistuneiden asiakkaiden läpimenoaikojen keskiarvo
+	 */
+	public double getLapimenoaika() {
+		double summa = 0;
+		long n = 0;
+		for (Asema asema : asemat) {
+			Asiakastilasto t = asema.getAsiakastilasto();
+			summa += t.getKeskiarvo() * t.getPoistuneita();
+			n += t.getPoistuneita();
+		}
+		return n == 0 ? 0 : summa / n;
+	}
+
+	/**
+	 * @return junaan nousseiden asiakkaiden määrä
+	 */
+	public long getNoussut() {
+		long n = 0;
+		for (Asema asema : asemat) {
+			n += asema.getNoussut();
+		}
+		return n;
+	}
+
+	/**
+	 * Asemakohtaiset tulokset tekstinä
+	 * @return raportti
+	 */
+	public String raportti() {
+		StringBuilder sb = new StringBuilder();
+		sb.append(String.format("%-6s %10s %10s %10s %12s %12s %8s%n", "asema", "poistui", "nousi", "jäi", "läpimeno", "laiturilla", "jonossa"));
+		for (Asema asema : asemat) {
+			sb.append(String.format("%-6d %10d %10d %10d %12.2f %12.2f %8d%n", asema.getIndeksi(),
+					asema.getAsiakastilasto().getPoistuneita(), asema.getNoussut(), asema.getJaaneet(),
+					asema.getAsiakastilasto().getKeskiarvo(), asema.getLaiturijonotus(),
+					asema.getLaiturijono(Juna.MENO) + asema.getLaiturijono(Juna.PALUU)));
+		}
+		sb.append(String.format("Poistuneita %d, junaan nousi %d, läpimenoaikojen keskiarvo %.2f%n",
+				getPoistuneita(), getNoussut(), getLapimenoaika()));
+		return sb.toString();
+	}
+}
@@ -0,0 +1,137 @@
+package application.simu.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Rinnakkaisten linjamoottoreiden yhteinen runko. Asemat jaetaan säikeille yhtenäisinä lohkoina, ja simulointiaika
+ * edetään vaiheittain: vaiheiden välissä toimitetaan viestit ja haetaan aikaisin odottava tapahtuma tai viesti koko
+ * linjalla, ja vaiheen aikana jokainen säie ajaa lohkonsa asemia aliluokan määräämään rajaan asti.
+ * Aliluokka päättää, miten viestit kulkevat ja kuinka pitkälle vaihe saa edetä.
+ *
+ * @author Eetu Soronen, Emil Ålgars
+ * @version 1
+ */
+public abstract class Lohkomoottori extends Linjamoottori {
+
+	/**
+	 * Kuinka monessa säikeessä asemat ajetaan
+	 */
+	private final int saikeita;
+
+	/**
+	 * Kuinka monta vaihetta viimeisin ajo tarvitsi
+	 */
+	private long vaiheita = 0;
+
+	/**
+	 * Konstruktori
+	 * @param asetukset linjan parametrit
+	 * @param juurisiemen SeedGeneratorin juurisiemen (1 .. 2<sup>31</sup>-2)
+	 * @param saikeita {@link #saikeita}, enintään asemien määrä
+	 */
+	protected Lohkomoottori(Linjaasetukset asetukset, long juurisiemen, int saikeita) {
+		super(asetukset, juurisiemen);
+		if (saikeita < 1) {
+			throw new IllegalArgumentException("Säikeitä pitää olla vähintään yksi");
+		}
+		this.saikeita = Math.min(saikeita, asemat.length);
+	}
+
+	/**
+	 * @param p lohkon numero
+	 * @return lohkon ensimmäisen aseman indeksi
+	 */
+	protected int alku(int p) {
+		return (int) ((long) p * asemat.length / saikeita);
+	}
+
+	/**
+	 * Ajaa linjaa simulointiajan loppuun vaihe kerrallaan
+	 */
+	@Override
+	public void aja() {
+		for (Asema asema : asemat) {
+			asema.alusta();
+		}
+		vaiheita = 0;
+		double loppu = asetukset.getSimukesto();
+
+		ExecutorService pooli = Executors.newFixedThreadPool(saikeita);
+		try {
+			double[] raja = new double[1];
+			List<Callable<Void>> lohkot = new ArrayList<>(saikeita);
+			for (int p = 0; p < saikeita; p++) {
+				int ensimmainen = alku(p), viimeinen = alku(p + 1);
+				lohkot.add(() -> {
+					suoritaLohko(ensimmainen, viimeinen, raja[0]);
+					return null;
+				});
+			}
+
+			while (true) {
+				toimita();
+				double aika = Double.POSITIVE_INFINITY;
+				for (Asema asema : asemat) {
+					aika = Math.min(aika, asema.getSeuraavanAika());
+				}
+				if (aika >= loppu) {
+					break;
+				}
+				raja[0] = Math.min(vaiheenRaja(aika), loppu);
+				for (Future<Void> f : pooli.invokeAll(lohkot)) {
+					f.get();
+				}
+				vaiheita++;
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		} catch (ExecutionException e) {
+			throw new RuntimeException(e.getCause());
+		} finally {
+			pooli.shutdownNow();
+		}
+	}
+
+	/**
+	 * Toimittaa vaiheen aikana kertyneet viestit. Kutsutaan vaiheiden välissä, kun mikään asema ei ole käynnissä.
+	 */
+	protected abstract void toimita();
+
+	/**
+	 * Kutsutaan vaiheiden välissä ennen vaihetta
+	 * @param aika aikaisin odottava tapahtuma tai viesti koko linjalla
+	 * @return ensimmäinen aika, jota vaiheessa ei suoriteta (simulointiajan loppu rajoittaa sitä lisäksi)
+	 */
+	protected abstract double vaiheenRaja(double aika);
+
+	/**
+	 * Ajaa lohkon asemia rajaan asti. Kutsutaan lohkon säikeestä.
+	 * @param ensimmainen lohkon ensimmäinen asema
+	 * @param viimeinen lohkon viimeistä seuraava asema
+	 * @param raja ensimmäinen aika, jota ei suoriteta
+	 */
+	protected abstract void suoritaLohko(int ensimmainen, int viimeinen, double raja);
+
+	/**
+	 * getteri
+	 * @return {@link #saikeita}
+	 */
+	public int getSaikeita() {
+		return saikeita;
+	}
+
+	/**
+	 * getteri
+	 * @return {@link #vaiheita}
+	 */
+	public long getVaiheita() {
+		return vaiheita;
+	}
+}
@@ -1,13 +1,18 @@
 package application.simu.model;
 
 import application.controller.IKontrolleri;
-import application.eduni.distributions.Normal;
-import application.simu.framework.Kello;
+import application.eduni.distributions.ContinuousGenerator;
+import application.simu.framework.Arpa;
+import application.simu.framework.Jakaumatyyppi;
 import application.simu.framework.Moottori;
 import application.simu.framework.Saapumisprosessi;
 import application.simu.framework.Tapahtuma;
+import application.simu.framework.Tapahtumaloki;
+import application.simu.framework.Trace;
 
-import java.util.Random;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 
 /**
  * Simulaattori käynnistetään ja pyöritetään täältä käsin
@@ -17,6 +22,26 @@ import java.util.Random;
  */
 public class OmaMoottori extends Moottori{
 
+	/**
+	 * Kuinka monta siementä {@link #OmaMoottori(Simulaatioasetukset, long[])} tarvitsee oletustopologialla
+	 */
+	public static final int SIEMENIA = 6;
+
+	/**
+	 * Aseman palvelupisteet ja reitit
+	 */
+	private final Topologia topologia;
+
+	/**
+	 * Palvelupisteiden toiminnot palvelupistetaulukon järjestyksessä
+	 */
+	private final Topologia.Toiminta[] toiminnot;
+
+	/**
+	 * Topologian reitit käännettynä nykyisellä {@link #mobiililippujakauma}lla
+	 */
+	private Reititys reititys;
+
 	/**
 	 * Kuvaa simulaation aseman sisällä olevaa asiakaslukua
 	 */
@@ -45,16 +70,35 @@ public class OmaMoottori extends Moottori{
 
 
 	/**
-	 * yksittäisen asiakkaan keskiarvo aika simulaattorissa
-	 * (metrojen saapumisten välissä, tämä on järjestelmästä viimeisin poistettu asiakas)
+	 * Simulaatiossa olevien asiakkaiden tiedot
+	 */
+	private final Asiakasvarasto asiakkaat;
+
+	/**
+	 * Tämän ajon asiakastunnukset ja poistuneiden asiakkaiden läpimenoajat
 	 */
-	private double keskiarvoaika;
+	private final Asiakastilasto asiakastilasto = new Asiakastilasto();
 
 	/**
 	 * Kuvastaa kuinka suurella todennäköisyydellä saapuvalla asiakkaalla on lippu
 	 */
 	private int mobiililippujakauma = 50;
 
+	/**
+	 * Arpoo haarautuvien reittien kohteet, esim. onko asiakkaalla mobiililippu
+	 */
+	private final Arpa reittiarpa;
+
+	/**
+	 * Loki, johon asiakkaiden siirrot ja poistumiset kirjataan, tai null jos niitä ei kirjata
+	 */
+	private Tapahtumaloki loki;
+
+	/**
+	 * Metroon kerralla nousevien asiakkaiden paikat, kasvatetaan metron kapasiteetin mukaan
+	 */
+	private int[] nousijat = new int[1];
+
 	/**
 	 * Asiakkaiden saapumisten välinen odotusaika
 	 */
@@ -66,26 +110,117 @@ public class OmaMoottori extends Moottori{
 	private int arrivalVariance;
 
 	/**
-	 * Konstruktori
+	 * Konstruktori, joka luo oletusaseman. Palvelupisteiden jakaumat ja kapasiteetit asetetaan kontrollerista ennen käynnistystä.
 	 * @param kontrolleri sovelluksen pää kontrolleri, jota kutsutaan tarvittaessa
 	 * @param arrivalMean {@link #arrivalMean} Odotusaika asiakkaiden välissä
 	 * @param arrivalVariance {@link #arrivalVariance} Kuinka paljolla odotusaika voi heittää
 	 */
 	public OmaMoottori(IKontrolleri kontrolleri, int arrivalMean, int arrivalVariance){ // UUSI
+		this(kontrolleri, arrivalMean, arrivalVariance, Jakaumatyyppi.NORMAALI);
+	}
+
+	/**
+	 * Konstruktori, joka luo oletusaseman ja arpoo saapumis- ja käsittelyajat annetusta jakaumaperheestä.
+	 * Palvelupisteiden jakaumat ja kapasiteetit asetetaan kontrollerista ennen käynnistystä.
+	 * @param kontrolleri sovelluksen pää kontrolleri, jota kutsutaan tarvittaessa
+	 * @param arrivalMean {@link #arrivalMean} Odotusaika asiakkaiden välissä
+	 * @param arrivalVariance {@link #arrivalVariance} Kuinka paljolla odotusaika voi heittää
+	 * @param jakaumatyyppi jakaumaperhe, josta saapumisten väliset ajat ja palvelupisteiden käsittelyajat arvotaan
+	 */
+	public OmaMoottori(IKontrolleri kontrolleri, int arrivalMean, int arrivalVariance, Jakaumatyyppi jakaumatyyppi){
 
 		super(kontrolleri); //UUSI
 
-		palvelupisteet = new Palvelupiste[4];
-		palvelupisteet[0]=new Palvelupiste(new Normal(1000,1000), tapahtumalista, TapahtumanTyyppi.ENTRANCE, stationCapacity);
-		palvelupisteet[1]=new Palvelupiste(new Normal(1000,1000), tapahtumalista, TapahtumanTyyppi.TICKETSALES);
-		palvelupisteet[2]=new Palvelupiste(new Normal(1000,1000), tapahtumalista, TapahtumanTyyppi.TICKETCHECK);
-		palvelupisteet[3]=new Palvelupiste(new Normal(1000,1000), tapahtumalista, TapahtumanTyyppi.METRO);
+		topologia = Topologia.oletus(new Simulaatioasetukset());
+		asiakkaat = new Asiakasvarasto(kello);
+		toiminnot = new Topologia.Toiminta[topologia.getPisteet().size()];
+		luoPalvelupisteet(null, null, jakaumatyyppi, stationCapacity);
 
-		saapumisprosessi = new Saapumisprosessi(new Normal(arrivalMean,arrivalVariance), tapahtumalista, TapahtumanTyyppi.ARRIVAL);
+		saapumisprosessi = new Saapumisprosessi(jakaumatyyppi.luo(arrivalMean, arrivalVariance), tapahtumalista, kello, TapahtumanTyyppi.ARRIVAL);
+		reittiarpa = new Arpa();
+		reititys = topologia.reititys(mobiililippujakauma);
 		this.arrivalMean = arrivalMean;
 		this.arrivalVariance = arrivalVariance;
 	}
 
+	/**
+	 * Konstruktori, joka luo moottorin asetuksista ilman kontrolleria ja siementää kaikki jakaumat annetuilla siemenillä.
+	 * Samat asetukset ja siemenet tuottavat aina saman simulaation, joten replikaatiot ovat toistettavissa.
+	 * @param asetukset simulaation parametrit ja topologia
+	 * @param siemenet {@link #siemenia(Topologia)} siementä: yksi kullekin palvelupisteelle topologian järjestyksessä,
+	 *                 saapuminen ja reittien arvonta (oletustopologialla sisäänkäynti, lipunmyynti, lipuntarkastus, metro,
+	 *                 saapuminen ja mobiililippu)
+	 */
+	public OmaMoottori(Simulaatioasetukset asetukset, long[] siemenet){
+
+		super(null, asetukset.getTapahtumalista().luo());
+
+		topologia = asetukset.getTopologia();
+		int n = topologia.getPisteet().size();
+		if (siemenet.length < siemenia(topologia)) {
+			throw new IllegalArgumentException("Siemeniä tarvitaan " + siemenia(topologia) + ", annettiin " + siemenet.length);
+		}
+		int[] arrival = asetukset.getPPJakauma(TapahtumanTyyppi.ARRIVAL);
+
+		asiakkaat = new Asiakasvarasto(kello);
+		toiminnot = new Topologia.Toiminta[n];
+		luoPalvelupisteet(siemenet, asetukset, asetukset.getJakaumatyyppi(), asetukset.getAsemanKapasiteetti());
+
+		saapumisprosessi = new Saapumisprosessi(asetukset.jakauma(arrival[0], arrival[1], siemenet[n]), tapahtumalista, kello, TapahtumanTyyppi.ARRIVAL);
+
+		reittiarpa = new Arpa(siemenet[n + 1]);
+		this.arrivalMean = arrival[0];
+		this.arrivalVariance = arrival[1];
+
+		setSimulointiaika(asetukset.getSimukesto());
+		setStationCapacity(asetukset.getAsemanKapasiteetti());
+		setMetroCapacity(asetukset.getMetronKapasiteetti());
+		setMobiililippujakauma(asetukset.getMobiililippujakauma());
+	}
+
+	/**
+	 * Kuinka monta siementä {@link #OmaMoottori(Simulaatioasetukset, long[])} tarvitsee
+	 * @param topologia aseman topologia
+	 * @return palvelupisteiden määrä + 2
+	 */
+	public static int siemenia(Topologia topologia) {
+		return topologia.getPisteet().size() + 2;
+	}
+
+	/**
+	 * Luo topologian palvelupisteet
+	 * @param siemenet palvelupisteiden jakaumien siemenet, null jos siementä ei anneta
+	 * @param asetukset asetukset, joiden satunnaislähteellä ja menetelmällä siemennetyt jakaumat arvotaan
+	 * @param jakaumatyyppi jakaumaperhe, josta siementämättömät jakaumat arvotaan
+	 * @param asemanKapasiteetti sisäänkäyntien maksimikapasiteetti
+	 */
+	private void luoPalvelupisteet(long[] siemenet, Simulaatioasetukset asetukset, Jakaumatyyppi jakaumatyyppi, int asemanKapasiteetti) {
+		int n = topologia.getPisteet().size();
+		palvelupisteet = new Palvelupiste[n];
+		for (int i = 0; i < n; i++) {
+			Topologia.Piste piste = topologia.getPisteet().get(i);
+			ContinuousGenerator jakauma = siemenet == null ? jakaumatyyppi.luo(piste.getOdotusarvo(), piste.getVarianssi())
+					: asetukset.jakauma(piste.getOdotusarvo(), piste.getVarianssi(), siemenet[i]);
+			toiminnot[i] = piste.getToiminta();
+			if (toiminnot[i] == Topologia.Toiminta.SISAANKAYNTI) {
+				palvelupisteet[i] = new Palvelupiste(jakauma, tapahtumalista, kello, asiakkaat, piste.getTyyppi(), asemanKapasiteetti);
+			} else {
+				palvelupisteet[i] = new Palvelupiste(jakauma, tapahtumalista, kello, asiakkaat, piste.getTyyppi());
+			}
+			palvelupisteet[i].setPalvelimia(piste.getPalvelimia());
+		}
+	}
+
+	/**
+	 * Konstruktori ilman kontrolleria. Moottori ajetaan tällöin {@link #aja()}-metodilla
+	 * eikä se päivitä käyttöliittymää tai tallenna tuloksia tietokantaan.
+	 * @param arrivalMean {@link #arrivalMean} Odotusaika asiakkaiden välissä
+	 * @param arrivalVariance {@link #arrivalVariance} Kuinka paljolla odotusaika voi heittää
+	 */
+	public OmaMoottori(int arrivalMean, int arrivalVariance){
+		this(null, arrivalMean, arrivalVariance);
+	}
+
 	/**
 	 * Alustaa simulaatioon ensimmäiset asiakkaat
 	 */
@@ -96,99 +231,168 @@ public class OmaMoottori extends Moottori{
 
 	/**
 	 * Määrittelee miten eri tapahtumat käsitellään. (kutsutaan moottorista)
-	 * @param t käsiteltävän tapahtuman tyyppi
+	 * @param tyyppi käsiteltävän tapahtuman tyyppi
+	 * @param kohde palvelun päättymistapahtumissa palvelin, jonka palvelu päättyi
 	 */
 	@Override
-	protected void suoritaTapahtuma(Tapahtuma t){  // B-vaiheen tapahtumat
+	protected void suoritaTapahtuma(TapahtumanTyyppi tyyppi, int kohde){  // B-vaiheen tapahtumat
 
-		kontrolleri.paivitaUI(t);
-		System.out.println("Arrival jakauma: " + arrivalMean+ " " + arrivalVariance);
+		if (kontrolleri != null) {
+			// käyttöliittymä käsittelee tapahtuman myöhemmin omassa säikeessään, joten sille annetaan oma olio
+			kontrolleri.paivitaUI(new Tapahtuma(tyyppi, kello.getAika()));
+		}
 
-		Asiakas a;
+		if (tyyppi == TapahtumanTyyppi.ARRIVAL) {
+			palvelupisteet[reititys.saapumiskohde(reittiarpa)].lisaaJonoon(asiakkaat.luo(asiakastilasto.uusiId()));
+			saapumisprosessi.generoiSeuraava();
+			return;
+		}
 
-		switch (t.getTyyppi()){
-			// menee toistaiseksi suoraan ticketcheck-pisteeseen
-			case ARRIVAL:
-				palvelupisteet[0].lisaaJonoon(new Asiakas());
-				saapumisprosessi.generoiSeuraava();
-				break;
-			case TICKETSALES: a = palvelupisteet[1].otaJonosta();
-				a.setPpisteSaapumisaika(Kello.getInstance().getAika());
-				System.out.println("Asiakas " + a.getId() + " lisättiin palvelupisteen " + 2 + " jonoon");
-				a.valiraportti();
-				palvelupisteet[2].lisaaJonoon(a);
-				break;
-			case MOBILETICKET: a = palvelupisteet[1].otaJonosta();
-				a.setPpisteSaapumisaika(Kello.getInstance().getAika());
-				System.out.println("Asiakas " + a.getId() + " lisättiin palvelupisteen " + 3 + " jonoon");
-				a.valiraportti();
-				palvelupisteet[3].lisaaJonoon(a);
-				break;
-			case TICKETCHECK: a = palvelupisteet[2].otaJonosta();
-				a.setPpisteSaapumisaika(Kello.getInstance().getAika());
-				System.out.println("Asiakas " + a.getId() + " lisättiin palvelupisteen " + 3 + " jonoon");
-				a.valiraportti();
-				palvelupisteet[3].lisaaJonoon(a);
+		// palvelun päättymistapahtuman kohteesta saadaan palvelupiste, joten käsittely ei riipu palvelupisteiden määrästä
+		int i = Palvelupiste.palvelupisteenIndeksi(kohde);
+		Palvelupiste p = palvelupisteet[i];
+		int a;
+
+		switch (toiminnot[i]){
+			case TAVALLINEN:
+				ohjaa(p.otaPalvelusta(kohde), i);
 				break;
-			case ENTRANCE:
+			case SISAANKAYNTI:
 				if (customersWithin < stationCapacity) {
-					a = palvelupisteet[0].otaJonosta();
+					a = p.otaPalvelusta(kohde);
 					customersWithin++;
-					a.setPpisteSaapumisaika(Kello.getInstance().getAika());
-
-					// luku 1-100
-					Random r = new Random();
-					int chance = r.nextInt(100)+1;
-
-					if(chance <= mobiililippujakauma) {
-						System.out.println("Asiakas " + a.getId() + " lisättiin palvelupisteen " + 2 + " jonoon");
-						a.valiraportti();
-						palvelupisteet[2].lisaaJonoon(a);
-					} else {
-						System.out.println("Asiakas " + a.getId() + " lisättiin palvelupisteen " + 1 + " jonoon");
-						a.valiraportti();
-						palvelupisteet[1].lisaaJonoon(a);
-					}
+					ohjaa(a, i);
 				} else {
-					palvelupisteet[0].setVarattu(false);
+					p.palautaJonoon(kohde); // asema on täynnä, asiakas jää odottamaan
 				}
-
 				break;
-			case METRO:
-				for (int i = 0; i < metroCapacity ; i++) {
-					if (palvelupisteet[3].onJonossa()) {
-						a = palvelupisteet[3].otaJonosta();
-						a.setPoistumisaika(Kello.getInstance().getAika());
-						a.raportti();
-						palvelupisteet[3].kokonaisaikaJonotettu(a.getPpisteSaapumisaika());
-						customersWithin--;
-						servedCustomers++;
-						keskiarvoaika = a.getKeskiarvo();
-					}
+			case JUNA:
+				if (metroCapacity == 0) {
+					p.palautaJonoon(kohde);
+					break;
 				}
+				// junaan nousee ensin asiakas, jolle palvelu aloitettiin, ja sitten jonossa odottavat yhtenä eränä
+				if (nousijat.length < metroCapacity) {
+					nousijat = new int[metroCapacity];
+				}
+				a = p.otaPalvelusta(kohde);
+				p.kokonaisaikaJonotettu(asiakkaat.getPpisteSaapumisaika(a));
+				nousijat[0] = a;
+				poistu(1 + p.otaJonosta(nousijat, 1, metroCapacity - 1), i);
 		}
 	}
 
+	/**
+	 * Siirtää palvelupisteestä lähtevän asiakkaan reitin mukaiseen palvelupisteeseen tai poistaa sen simulaattorista
+	 * @param a asiakkaan paikka {@link #asiakkaat}-varastossa
+	 * @param piste palvelupiste, josta asiakas lähtee
+	 */
+	private void ohjaa(int a, int piste) {
+		int kohde = reititys.kohde(piste, reittiarpa);
+		if (kohde == Reititys.POISTUMINEN) {
+			nousijat[0] = a;
+			poistu(1, piste);
+		} else {
+			siirra(a, kohde);
+		}
+	}
+
+	/**
+	 * Poistaa metroon nousseet (tai muuten poistuvat) asiakkaat simulaattorista ja kirjaa niiden läpimenoajat.
+	 * Tilastot päivitetään koko junalliselle kerralla.
+	 * @param n nousijoiden määrä {@link #nousijat}-taulukon alussa
+	 * @param piste palvelupiste, josta asiakkaat poistuvat
+	 */
+	private void poistu(int n, int piste) {
+		double aika = kello.getAika();
+		asiakastilasto.poistui(n, asiakkaat.poistuvat(nousijat, n, aika));
+		if (loki != null || Trace.isEnabled(Trace.Level.INFO)) {
+			for (int i = 0; i < n; i++) {
+				int a = nousijat[i];
+				if (loki != null) {
+					loki.kirjaa(Tapahtumaloki.Tietue.POISTUMINEN, aika, asiakkaat.getId(a), piste, aika - asiakkaat.getSaapumisaika(a));
+				}
+				asiakkaat.raportti(a);
+			}
+		}
+		asiakkaat.poista(nousijat, n);
+		customersWithin -= n;
+		servedCustomers += n;
+	}
+
+	/**
+	 * Siirtää asiakkaan palvelupisteen jonoon, asettaa sen palvelupisteeseen saapumisajan ja kirjaa siirron lokiin
+	 * @param a siirrettävän asiakkaan paikka {@link #asiakkaat}-varastossa
+	 * @param kohde palvelupisteen indeksi
+	 */
+	private void siirra(int a, int kohde) {
+		asiakkaat.setPpisteSaapumisaika(a, kello.getAika());
+		if (loki != null) {
+			loki.kirjaa(Tapahtumaloki.Tietue.SIIRTO, kello.getAika(), asiakkaat.getId(a), kohde, kello.getAika() - asiakkaat.getSaapumisaika(a));
+		}
+		asiakkaat.valiraportti(a);
+		palvelupisteet[kohde].lisaaJonoon(a);
+	}
+
 	/**
 	 * Tulostetaan simulaation tiedot konsoliin sen päätyttyä
 	 */
 	@Override
 	protected void tulokset() {
-		System.out.println("Simulointi päättyi kello " + Kello.getInstance().getAika());
+		System.out.println("Simulointi päättyi kello " + kello.getAika());
 		System.out.println("Tulokset ... puuttuvat vielä");
 
 		// kakkien asiakkaiden "viipyi" aika / poistuneiden asiakkaide lukumäärällä
-		System.out.println("Läpimenoaikojen keskiarvo on " + keskiarvoaika);
+		System.out.println("Läpimenoaikojen keskiarvo on " + getLapimenoaika());
 
 		for (int i = 0; i < palvelupisteet.length; i++) {
 			System.out.println("\nPalvelupisteen " + i + " keskiarvopalveluaika oli " + palvelupisteet[i].getKeskiarvoaika());
 			System.out.println("Palvelupisteen " + i + " keskiverto jono aika oli " + palvelupisteet[i].getKeskijonoaika());
 			System.out.println("Palvelupisteen " + i + " jonopituus lopussa: " + palvelupisteet[i].getJonopituus());
 		}
-		kontrolleri.setKaynnissa(false);
+		if (kontrolleri != null) {
+			kontrolleri.setKaynnissa(false);
+
+			kontrolleri.tallenaEntity(this);
+		}
+
+	}
+
+	/**
+	 * Kirjoittaa moottorin tilan ja sen lisäksi asiakkaat, asiakastilaston, saapumisprosessin ja reittien arvonnan tilan
+	 * sekä asiakaslaskurit. Kapasiteetit ja mobiililippujakauma ovat asetuksia, joten ne voi vaihtaa palautetussa
+	 * moottorissa ("entä jos" -haarat).
+	 * @param out kohde
+	 * @throws IOException jos kirjoitus epäonnistuu
+	 */
+	@Override
+	public void tallennaTila(DataOutput out) throws IOException {
+		super.tallennaTila(out);
+		asiakkaat.tallennaTila(out);
+		asiakastilasto.tallennaTila(out);
+		saapumisprosessi.tallennaTila(out);
+		reittiarpa.tallennaTila(out);
+		out.writeInt(customersWithin);
+		out.writeInt(servedCustomers);
+	}
 
-		kontrolleri.tallenaEntity(this);
+	@Override
+	public void palautaTila(DataInput in) throws IOException {
+		super.palautaTila(in);
+		asiakkaat.palautaTila(in);
+		asiakastilasto.palautaTila(in);
+		saapumisprosessi.palautaTila(in);
+		reittiarpa.palautaTila(in);
+		customersWithin = in.readInt();
+		servedCustomers = in.readInt();
+	}
 
+	/**
+	 * Asettaa lokin, johon asiakkaiden siirrot ja poistumiset kirjataan. Lokin sulkeminen on kutsujan vastuulla.
+	 * @param loki {@link #loki}, null jos ei kirjata
+	 */
+	public void setTapahtumaloki(Tapahtumaloki loki) {
+		this.loki = loki;
 	}
 
 	/**
@@ -199,12 +403,35 @@ public class OmaMoottori extends Moottori{
 		return palvelupisteet;
 	}
 
+	/**
+	 * Palauttaa ensimmäisen palvelupisteen, jonka tyyppi on annettu
+	 * @param tt palvelupistettä vastaava TapahtumanTyyppi
+	 * @return palvelupiste tai null, jos topologiassa ei ole sen tyyppistä palvelupistettä
+	 */
+	@Override
+	public Palvelupiste getPalvelupiste(TapahtumanTyyppi tt) {
+		for (Palvelupiste p : palvelupisteet) {
+			if (p.getTapahtumanTyyppi() == tt) {
+				return p;
+			}
+		}
+		return null;
+	}
+
 	/**
 	 * getteri
-	 * @return {@link #keskiarvoaika}
+	 * @return {@link #topologia}
+	 */
+	public Topologia getTopologia() {
+		return topologia;
+	}
+
+	/**
+	 * Palauttaa simulaattorista poistuneiden asiakkaiden läpimenoaikojen keskiarvon
+	 * @return {@link Asiakastilasto#getKeskiarvo()}
 	 */
 	public double getLapimenoaika() {
-		return keskiarvoaika;
+		return asiakastilasto.getKeskiarvo();
 	}
 
 	/**
@@ -261,6 +488,7 @@ public class OmaMoottori extends Moottori{
 	 */
 	public void setMobiililippujakauma(int mobiililippujakauma) {
 		this.mobiililippujakauma = mobiililippujakauma;
+		reititys = topologia.reititys(mobiililippujakauma);
 	}
 
 	/**
@@ -271,4 +499,13 @@ public class OmaMoottori extends Moottori{
 	public int getMobiililippujakauma() {
 		return mobiililippujakauma;
 	}
+
+	/**
+	 * Vaihtaa saapumisten välisten aikojen jakauman. Asetetaan ennen käynnistystä, jotta ensimmäinenkin saapuminen arvotaan siitä.
+	 * @param jakauma saapumisten välisten aikojen jakauma
+	 */
+	@Override
+	public void setSaapumisjakauma(ContinuousGenerator jakauma) {
+		saapumisprosessi.setGeneraattori(jakauma);
+	}
 }
\ No newline at end of file
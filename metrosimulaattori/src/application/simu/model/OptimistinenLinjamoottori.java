@@ -0,0 +1,161 @@
+package application.simu.model;
+
+import application.simu.framework.Viesti;
+
+/**
+ * Ajaa metrolinjan asemat rinnakkain optimistisesti (Time Warp). Asemat jaetaan säikeille yhtenäisinä lohkoina, ja
+ * jokainen säie suorittaa lohkonsa asemia aikajärjestyksessä odottamatta muita säikeitä. Viestit toimitetaan heti
+ * vastaanottajan postiin, ja myöhästynyt viesti tai antiviesti peruu vastaanottajan (ks. {@link application.simu.framework.Prosessi}).
+ * Toisin kuin {@link RinnakkainenLinjamoottori}, moottori ei tarvitse asemien välille vähimmäissiirtymäaikaa.
+ * <p>
+ * Säikeet etenevät vaiheittain enintään {@link #ikkuna}n verran globaalin virtuaaliajan (GVT) edelle.
+ * Vaiheiden välissä toimitetaan jäljellä oleva posti, lasketaan GVT (aikaisin odottava tapahtuma tai viesti koko linjalla)
+ * ja vapautetaan tarkistuspisteet ja viestit, joita ei enää voi tarvita. Lopputulos on sama kuin {@link Linjamoottori}lla.
+ * <p>
+ * Tarkistuspisteeseen tallennetaan vain aseman tila, jonka koko ei riipu kuormasta: palvelimet, tapahtumalista,
+ * satunnaislukuvirrat ja laskurit. Jonot, laiturit ja asiakkaat kirjaavat muutoksensa muutoslokiin
+ * ({@link application.simu.framework.Muutosloki}), joten tarkistuspisteen hinta ei kasva jonojen mukana. Aseman muistissa on
+ * tarkistuspisteitä ja lokimerkintöjä vain viimeisimmän GVT:tä edeltävän tarkistuspisteen jälkeisiltä kierroksilta, eli
+ * muistin tarve on verrannollinen siihen, mitä asema ehtii tehdä enintään {@link #ikkuna}n verran GVT:n edellä.
+ * Suuri ikkuna kasvattaa siis muistin tarvetta ja peruutusten pituutta, ja pieni ikkuna lisää vaiheiden määrää.
+ *
+ * @author Eetu Soronen, Emil Ålgars
+ * @version 1
+ */
+public class OptimistinenLinjamoottori extends Lohkomoottori {
+
+	/**
+	 * Oletusarvo sille, kuinka paljon asemat saavat edetä GVT:n edelle
+	 */
+	public static final double OLETUSIKKUNA = 600;
+
+	/**
+	 * Oletusarvo sille, kuinka monen kierroksen välein asema ottaa tarkistuspisteen
+	 */
+	public static final int OLETUSTARKISTUSVALI = 16;
+
+	/**
+	 * Kuinka paljon simulointiaikaa asemat saavat edetä GVT:n edelle yhden vaiheen aikana
+	 */
+	private final double ikkuna;
+
+	/**
+	 * Konstruktori, joka käyttää kaikkia prosessorin ytimiä ja oletusikkunaa
+	 * @param asetukset linjan parametrit
+	 * @param juurisiemen SeedGeneratorin juurisiemen (1 .. 2<sup>31</sup>-2)
+	 */
+	public OptimistinenLinjamoottori(Linjaasetukset asetukset, long juurisiemen) {
+		this(asetukset, juurisiemen, Runtime.getRuntime().availableProcessors(), OLETUSIKKUNA, OLETUSTARKISTUSVALI);
+	}
+
+	/**
+	 * Konstruktori
+	 * @param asetukset linjan parametrit
+	 * @param juurisiemen SeedGeneratorin juurisiemen (1 .. 2<sup>31</sup>-2)
+	 * @param saikeita kuinka monessa säikeessä asemat ajetaan, enintään asemien määrä
+	 * @param ikkuna {@link #ikkuna}, positiivinen
+	 * @param tarkistusvali kuinka monen kierroksen välein asema ottaa tarkistuspisteen
+	 */
+	public OptimistinenLinjamoottori(Linjaasetukset asetukset, long juurisiemen, int saikeita, double ikkuna, int tarkistusvali) {
+		super(asetukset, juurisiemen, saikeita);
+		if (!(ikkuna > 0)) {
+			throw new IllegalArgumentException("Ikkunan on oltava positiivinen: " + ikkuna);
+		}
+		this.ikkuna = ikkuna;
+		for (Asema asema : asemat) {
+			asema.setOptimistinen(tarkistusvali);
+		}
+	}
+
+	/**
+	 * Vapauttaa tarkistuspisteet ja viestit, joita GVT:n jälkeen ei enää voi tarvita
+	 * @param gvt globaali virtuaaliaika
+	 * @return GVT + {@link #ikkuna}
+	 */
+	@Override
+	protected double vaiheenRaja(double gvt) {
+		for (Asema asema : asemat) {
+			asema.keraaFossiilit(gvt);
+		}
+		return gvt + ikkuna;
+	}
+
+	/**
+	 * Suorittaa lohkon asemia aikajärjestyksessä, kunnes millään niistä ei ole rajaa aikaisempaa kierrosta
+	 * @param ensimmainen lohkon ensimmäinen asema
+	 * @param viimeinen lohkon viimeistä seuraava asema
+	 * @param raja ensimmäinen aika, jota ei suoriteta
+	 */
+	@Override
+	protected void suoritaLohko(int ensimmainen, int viimeinen, double raja) {
+		while (true) {
+			Asema seuraava = null;
+			double aika = raja;
+			for (int i = ensimmainen; i < viimeinen; i++) {
+				asemat[i].kasittelePosti();
+				double t = asemat[i].getSeuraavanAika();
+				if (t < aika) {
+					aika = t;
+					seuraava = asemat[i];
+				}
+			}
+			if (seuraava == null) {
+				return;
+			}
+			seuraava.suoritaKierros();
+		}
+	}
+
+	/**
+	 * Käsittelee kaikkien asemien postin, kunnes peruutusten antiviestitkin on käsitelty. Kutsutaan vaiheiden välissä.
+	 */
+	@Override
+	protected void toimita() {
+		boolean postia = true;
+		while (postia) {
+			postia = false;
+			for (Asema asema : asemat) {
+				asema.kasittelePosti();
+			}
+			for (Asema asema : asemat) {
+				postia |= asema.onPostia();
+			}
+		}
+	}
+
+	/**
+	 * Toimittaa viestin vastaanottajan postiin. Aseman itselleen lähettämä viesti toimitetaan suoraan, koska se lähetetään aseman omassa säikeessä.
+	 * @param viesti toimitettava viesti tai antiviesti
+	 */
+	@Override
+	public void valita(Viesti viesti) {
+		if (viesti.getVastaanottaja() == viesti.getLahettaja()) {
+			asemat[viesti.getVastaanottaja()].vastaanota(viesti);
+		} else {
+			asemat[viesti.getVastaanottaja()].postita(viesti);
+		}
+	}
+
+	/**
+	 * @return kaikkien asemien peruutukset
+	 */
+	public long getPeruutuksia() {
+		long n = 0;
+		for (Asema asema : asemat) {
+			n += asema.getPeruutuksia();
+		}
+		return n;
+	}
+
+	/**
+	 * @return kaikkien asemien käsittelemät tapahtumat ja viestit mukaan lukien perutut ja uudelleen suoritetut
+	 */
+	public long getTapahtumiaYhteensa() {
+		long n = 0;
+		for (Asema asema : asemat) {
+			n += asema.getTapahtumiaYhteensa();
+		}
+		return n;
+	}
+
+}
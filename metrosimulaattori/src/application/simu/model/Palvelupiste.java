@@ -1,27 +1,51 @@
 package application.simu.model;
 
-import java.util.LinkedList;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.BitSet;
 
 import application.eduni.distributions.ContinuousGenerator;
+import application.simu.framework.Indeksijono;
 import application.simu.framework.Kello;
-import application.simu.framework.Tapahtuma;
+import application.simu.framework.Muutosloki;
 import application.simu.framework.Tapahtumalista;
+import application.simu.framework.Tilallinen;
+import application.simu.framework.Tilannekuva;
 import application.simu.framework.Trace;
 
 /**
  * Palvelupisteitä simulaattorissamme on neljä, jotka ovat Entrance, TicketSales, TicketCheck ja Metro.
  * Ne ovat toteutettu tässä luokassa.
  * Palvelupisteet ottavat asiakkaita jonosta ja käsittelevet niitä tietyin aikavälein.
+ * Palvelupisteellä voi olla useita rinnakkaisia palvelimia (esim. lippuautomaatteja tai portteja),
+ * joista jokainen palvelee yhtä asiakasta kerrallaan ja joiden palvelun päättyminen on oma tapahtumansa.
  *
  * @author Eetu Soronen, Emil Ålgars
  * @version 1
  */
-public class Palvelupiste {
+public class Palvelupiste implements Tilallinen {
 
 	/**
-	 * Lista sisältää kaikki Asiakas-oliot, joista palvelupiste ottaa aina pisimpään listalla olleen käsiteltäväksi kun se on vapaa.
+	 * Palvelun päättymistapahtuman kohteen alimmat bitit ovat palvelimen numero ja ylemmät palvelupisteen {@link #indeksi}.
 	 */
-	private LinkedList<Asiakas> jono = new LinkedList<>(); // Tietorakennetoteutus
+	private static final int PALVELINBITIT = 16;
+
+	/**
+	 * Rinnakkaisten palvelimien enimmäismäärä
+	 */
+	public static final int MAX_PALVELIMIA = 1 << PALVELINBITIT;
+
+	/**
+	 * Jono sisältää asiakkaiden paikat {@link #asiakkaat}-varastossa. Palvelupiste ottaa aina pisimpään jonossa olleen
+	 * käsiteltäväksi kun se on vapaa. Rengaspuskuri kasvaa tarvittaessa eikä luo olioita.
+	 */
+	private final Indeksijono jono = new Indeksijono(); // Tietorakennetoteutus
+
+	/**
+	 * Moottorin asiakasvarasto, jossa jonossa olevien asiakkaiden tiedot ovat.
+	 */
+	private Asiakasvarasto asiakkaat;
 
 	/**
 	 * Määrittää palvelupisteen käsittelyajan jakauman.
@@ -34,6 +58,11 @@ public class Palvelupiste {
 	 */
 	private Tapahtumalista tapahtumalista;
 
+	/**
+	 * Moottorin kello, josta palvelupiste lukee simulaation nykyhetken.
+	 */
+	private Kello kello;
+
 
 	/**
 	 * Jokaisella palvelupisteellä on yksi tapahtumantyyppi,
@@ -49,9 +78,24 @@ public class Palvelupiste {
 	private int maxSize;
 
 	/**
-	 * Onko palvelupiste varattu, eli voiko se vastaanottaa asiakkaita palveltavaksi.
+	 * Rinnakkaisten palvelimien määrä
 	 */
-	private boolean varattu = false;
+	private int palvelimia = 1;
+
+	/**
+	 * Vapaiden palvelimien pino, josta seuraava vapaa palvelin saadaan vakioajassa.
+	 */
+	private int[] vapaatPalvelimet = {0};
+
+	/**
+	 * Vapaiden palvelimien määrä. Palvelupiste on varattu, kun vapaita ei ole.
+	 */
+	private int vapaita = 1;
+
+	/**
+	 * Kunkin palvelimen palveltavan asiakkaan paikka {@link #asiakkaat}-varastossa.
+	 */
+	private int[] palveltava = new int[1];
 
 	/**
 	 * Jokaisen asiakkaan jonon keston summa.
@@ -59,9 +103,9 @@ public class Palvelupiste {
 	private double kokonaisaikaJonotettu = 0;
 
 	/**
-	 * Palvelun aloitusaika.
+	 * Kunkin palvelimen edellisen palvelun aloitusaika.
 	 */
-	private double aloitusaika;
+	private double[] aloitusaika = new double[1];
 
 	/**
 	 * Kokonaisaika, mitä jokainen asiaiakas on viettänyt palvelupisteen sisällä käsiteltävänä.
@@ -73,15 +117,31 @@ public class Palvelupiste {
 	 */
 	private int palvelunro = 0;
 
+	/**
+	 * Moottorin joukko palvelupisteistä, joiden C-tapahtumat on kokeiltava. Palvelupiste merkitsee itsensä,
+	 * kun sen jonoon tulee asiakas tai palvelin vapautuu. null, jos palvelupistettä ei ole kytketty moottoriin.
+	 */
+	private BitSet muuttuneet;
+
+	/**
+	 * Palvelupisteen indeksi moottorin palvelupisteissä ja {@link #muuttuneet}-joukossa.
+	 * Indeksi on myös palvelun päättymistapahtumien kohteessa, jotta moottori löytää palvelupisteen vakioajassa.
+	 */
+	private int indeksi;
+
 
 	/**
 	 *  Palvelupisteen konstruktori, jolla rajaton kapasiteetti
 	 * @param generator {@link #generator}
 	 * @param tapahtumalista {@link #tapahtumalista}
+	 * @param kello {@link #kello}
+	 * @param asiakkaat {@link #asiakkaat}
 	 * @param tyyppi {@link #seuraavaTapahtumanTyyppi}
 	 */
-	public Palvelupiste(ContinuousGenerator generator, Tapahtumalista tapahtumalista, TapahtumanTyyppi tyyppi){
+	public Palvelupiste(ContinuousGenerator generator, Tapahtumalista tapahtumalista, Kello kello, Asiakasvarasto asiakkaat, TapahtumanTyyppi tyyppi){
 		this.tapahtumalista = tapahtumalista;
+		this.kello = kello;
+		this.asiakkaat = asiakkaat;
 		this.generator = generator;
 		this.seuraavaTapahtumanTyyppi = tyyppi;
 
@@ -91,11 +151,15 @@ public class Palvelupiste {
 	 * Palvelupisteen konstruktori, jolla rajallinen kapasiteetti
 	 * @param generator {@link #generator}
 	 * @param tapahtumalista {@link #tapahtumalista}
+	 * @param kello {@link #kello}
+	 * @param asiakkaat {@link #asiakkaat}
 	 * @param tyyppi {@link #seuraavaTapahtumanTyyppi}
 	 * @param maxSize {@link #maxSize}
 	 */
-	public Palvelupiste(ContinuousGenerator generator, Tapahtumalista tapahtumalista, TapahtumanTyyppi tyyppi , int maxSize){
+	public Palvelupiste(ContinuousGenerator generator, Tapahtumalista tapahtumalista, Kello kello, Asiakasvarasto asiakkaat, TapahtumanTyyppi tyyppi , int maxSize){
 		this.tapahtumalista = tapahtumalista;
+		this.kello = kello;
+		this.asiakkaat = asiakkaat;
 		this.generator = generator;
 		this.seuraavaTapahtumanTyyppi = tyyppi;
 		this.maxSize = maxSize;
@@ -104,44 +168,83 @@ public class Palvelupiste {
 
 	/**
 	 * Lisää asiakkaan palvelupisteen jonoon.
-	 * @param a Lisättävä Asiakas-olio.
+	 * @param a Lisättävän asiakkaan paikka {@link #asiakkaat}-varastossa.
+	 */
+	public void lisaaJonoon(int a){   // Jonon 1. asiakas aina palvelussa
+		jono.lisaa(a);
+		merkitseMuuttuneeksi();
+	}
+
+	/**
+	 * Ottaa ensimmäisen jonossa odottavan asiakkaan palvelupisteen jonosta ja palauttaa sen.
+	 * Jono toimii first come, first serve -periaatteella. Käytetään, kun usea asiakas poistuu kerralla (metro).
+	 * @return Jonon ensimmäisen asiakkaan paikka {@link #asiakkaat}-varastossa.
+	 */
+	public int otaJonosta(){
+		return jono.poista();
+	}
+
+	/**
+	 * Ottaa jonon alusta kerralla enintään n odottavaa asiakasta, esim. metroon mahtuvat.
+	 * Asiakkaat lasketaan palvelluiksi ja niiden jonotusajat lisätään {@link #kokonaisaikaJonotettu} arvoon.
+	 * @param paikat taulukko, johon asiakkaiden paikat {@link #asiakkaat}-varastossa kopioidaan jonojärjestyksessä
+	 * @param alku ensimmäisen paikan indeksi taulukossa
+	 * @param n otettavien asiakkaiden enimmäismäärä
+	 * @return otettujen asiakkaiden määrä
 	 */
-	public void lisaaJonoon(Asiakas a){   // Jonon 1. asiakas aina palvelussa
-		jono.add(a);
+	public int otaJonosta(int[] paikat, int alku, int n){
+		int m = jono.poista(paikat, alku, n);
+		palvelunro += m;
+		kokonaisaikaJonotettu += asiakkaat.jonotusaikojenSumma(paikat, alku, m, kello.getAika());
+		return m;
+	}
 
+	/**
+	 * Päättää palvelimen palvelun ja vapauttaa palvelimen.
+	 * @param kohde palvelun päättymistapahtuman kohde, josta palvelin luetaan
+	 * @return palvellun asiakkaan paikka {@link #asiakkaat}-varastossa.
+	 */
+	public int otaPalvelusta(int kohde){  // Poistetaan palvelussa ollut
+		int palvelin = kohde & (MAX_PALVELIMIA - 1);
+		vapaatPalvelimet[vapaita++] = palvelin;
+		merkitseMuuttuneeksi();
+		return palveltava[palvelin];
 	}
 
 	/**
-	 * Ottaa ensimmäisen asiakkaan palvelupisteen jonosta ja palauttaa sen.
-	 * Jono on linked-list, eli jono toimii first come, first serve -periaatteella.
-	 * @return Jonon ensimmäinen Asiakas-olio.
+	 * Keskeyttää palvelimen palvelun: asiakas palaa jonon kärkeen ja palvelin vapautuu.
+	 * Palvelu aloitetaan uudelleen seuraavassa C-vaiheessa.
+	 * @param kohde palvelun päättymistapahtuman kohde
 	 */
-	public Asiakas otaJonosta(){  // Poistetaan palvelussa ollut
-		varattu = false;
-		return jono.poll();
+	public void palautaJonoon(int kohde){
+		jono.lisaaAlkuun(otaPalvelusta(kohde));
 	}
 
 	/**
-	 * Aloittaa asiakkaan käsittelyn palvelupisteessä.
-	 * Asettaa palvelupisteen {@link #varattu} arvon todeksi, laskee asiakkaan jonotuksen keston,
-	 * ja aloittaa palvelun keston laskemisen.
+	 * Aloittaa jonon ensimmäisen asiakkaan käsittelyn vapaalla palvelimella.
+	 * Varaa palvelimen, laskee asiakkaan jonotuksen keston, ja aloittaa palvelun keston laskemisen.
+	 * Palvelun päättymistapahtuman kohteessa ovat palvelupisteen indeksi ja palvelimen numero.
 	 */
-	public void aloitaPalvelu(){  //Aloitetaan uusi palvelu, asiakas on jonossa palvelun aikana
+	public void aloitaPalvelu(){  //Aloitetaan uusi palvelu
 
 		if (seuraavaTapahtumanTyyppi != TapahtumanTyyppi.METRO){
 			palvelunro++;
 		}
-		Trace.out(Trace.Level.INFO, "Aloitetaan uusi palvelu asiakkaalle " + jono.peek().getId());
+		int a = jono.poista();
+		if (Trace.isEnabled(Trace.Level.INFO)){
+			Trace.out(Trace.Level.INFO, "Aloitetaan uusi palvelu asiakkaalle " + asiakkaat.getId(a));
+		}
 
-		varattu = true;
+		int palvelin = vapaatPalvelimet[--vapaita];
+		palveltava[palvelin] = a;
 		double palveluaika = generator.sample();
 
-		kokonaisaikaJonotettu += ((Kello.getInstance().getAika())-jono.peek().getPpisteSaapumisaika());
+		kokonaisaikaJonotettu += ((kello.getAika())-asiakkaat.getPpisteSaapumisaika(a));
 
-		tapahtumalista.lisaa(new Tapahtuma(seuraavaTapahtumanTyyppi,Kello.getInstance().getAika()+palveluaika));
+		tapahtumalista.lisaa(seuraavaTapahtumanTyyppi, kello.getAika()+palveluaika, (indeksi << PALVELINBITIT) | palvelin);
 
-		kokonaisaikaPalvelupisteessa += (Kello.getInstance().getAika() - aloitusaika);
-		aloitusaika = Kello.getInstance().getAika();
+		kokonaisaikaPalvelupisteessa += (kello.getAika() - aloitusaika[palvelin]);
+		aloitusaika[palvelin] = kello.getAika();
 
 	}
 
@@ -154,22 +257,31 @@ public class Palvelupiste {
 		return seuraavaTapahtumanTyyppi;
 	}
 
+	/**
+	 * Palauttaa palvelupisteen indeksin palvelun päättymistapahtuman kohteesta
+	 * @param kohde palvelun päättymistapahtuman kohde
+	 * @return palvelupisteen indeksi moottorin palvelupisteissä
+	 */
+	public static int palvelupisteenIndeksi(int kohde) {
+		return kohde >>> PALVELINBITIT;
+	}
+
 
 	/**
-	 * Käsitteleekö palvelupiste asiakasta tällä hetkellä?
+	 * Ovatko kaikki palvelupisteen palvelimet varattuja?
 	 * @return kyllä/ei
 	 */
 	public boolean onVarattu(){
-		return varattu;
+		return vapaita == 0;
 	}
 
 
 	/**
-	 * Onko jonossa asiakkaita vai onko se tyhjä?
+	 * Onko jonossa palvelua odottavia asiakkaita vai onko se tyhjä?
 	 * @return kyllä/ei
 	 */
 	public boolean onJonossa(){
-		return jono.size() != 0;
+		return !jono.onTyhja();
 	}
 
 	/**
@@ -197,11 +309,11 @@ public class Palvelupiste {
 	}
 
 	/**
-	 * Palauttaa jonon pituuden
-	 * @return {@link #jono}.size()
+	 * Palauttaa jonon pituuden palveltavana olevat asiakkaat mukaan lukien
+	 * @return {@link #jono}.getKoko() + varattujen palvelimien määrä
 	 */
 	public int getJonopituus(){
-		return jono.size();
+		return jono.getKoko() + palvelimia - vapaita;
 	}
 
 	/**
@@ -212,7 +324,7 @@ public class Palvelupiste {
 	 */
 	public void kokonaisaikaJonotettu(double timeToBeAdded){
 		palvelunro++;
-		kokonaisaikaJonotettu += (Kello.getInstance().getAika() - timeToBeAdded);
+		kokonaisaikaJonotettu += (kello.getAika() - timeToBeAdded);
 	}
 
 	/**
@@ -224,11 +336,141 @@ public class Palvelupiste {
 	}
 
 	/**
-	 * Asettaa palvelupisteen varatuksi.
-	 * @param varattu {@link #varattu}
+	 * getteri
+	 * @return {@link #palvelimia}
 	 */
-	public void setVarattu(boolean varattu) {
-		this.varattu = varattu;
+	public int getPalvelimia() {
+		return palvelimia;
+	}
+
+	/**
+	 * Asettaa rinnakkaisten palvelimien määrän. Kutsutaan ennen simulaation alkua.
+	 * @param palvelimia {@link #palvelimia}, 1 .. {@link #MAX_PALVELIMIA}
+	 */
+	public void setPalvelimia(int palvelimia) {
+		if (palvelimia < 1 || palvelimia > MAX_PALVELIMIA) {
+			throw new IllegalArgumentException("Palvelimia on oltava 1 .. " + MAX_PALVELIMIA + ": " + palvelimia);
+		}
+		if (vapaita != this.palvelimia) {
+			throw new IllegalStateException("Palvelimien määrää ei voi muuttaa palvelun aikana");
+		}
+		this.palvelimia = palvelimia;
+		vapaatPalvelimet = new int[palvelimia];
+		for (int i = 0; i < palvelimia; i++) {
+			vapaatPalvelimet[i] = palvelimia - 1 - i; // palvelin 0 pinon päällä
+		}
+		vapaita = palvelimia;
+		palveltava = new int[palvelimia];
+		aloitusaika = new double[palvelimia];
+		merkitseMuuttuneeksi();
+	}
+
+	/**
+	 * Kytkee palvelupisteen moottorin C-vaiheeseen. Moottori kokeilee palvelun aloittamista vain
+	 * palvelupisteissä, jotka ovat merkinneet itsensä joukkoon edellisen C-vaiheen jälkeen.
+	 * @param muuttuneet {@link #muuttuneet}
+	 * @param indeksi {@link #indeksi}
+	 */
+	public void setMuuttuneet(BitSet muuttuneet, int indeksi) {
+		this.muuttuneet = muuttuneet;
+		this.indeksi = indeksi;
+		merkitseMuuttuneeksi();
+	}
+
+	// Palvelun voi aloittaa vain, jos jonoon on tullut asiakas tai palvelin on vapautunut
+	private void merkitseMuuttuneeksi() {
+		if (muuttuneet != null) {
+			muuttuneet.set(indeksi);
+		}
+	}
+
+	/**
+	 * Kytkee jonon muutoslokiin, jolloin optimistisen ajon tarkistuspisteeseen riittää {@link #tallennaTilaIlmanJonoa(DataOutput)}
+	 * @param loki muutosloki, null jos muutoksia ei kirjata
+	 */
+	public void setMuutosloki(Muutosloki loki) {
+		jono.setMuutosloki(loki);
+	}
+
+	/**
+	 * Kirjoittaa jonon, palvelimien tilan, laskurit ja jakauman generaattorin tilan.
+	 * Palvelimien määrä ja jakauman parametrit ovat asetuksia eivätkä kuulu tilaan.
+	 * @param out kohde
+	 * @throws IOException jos kirjoitus epäonnistuu
+	 */
+	@Override
+	public void tallennaTila(DataOutput out) throws IOException {
+		tallennaJono(out);
+		tallennaTilaIlmanJonoa(out);
+	}
+
+	/**
+	 * Palauttaa {@link #tallennaTila(DataOutput)}:lla kirjoitetun tilan palvelupisteeseen, jolla on sama määrä palvelimia
+	 * @param in lähde
+	 * @throws IOException jos luku epäonnistuu
+	 */
+	@Override
+	public void palautaTila(DataInput in) throws IOException {
+		palautaJono(in);
+		palautaTilaIlmanJonoa(in);
+	}
+
+	/**
+	 * Kirjoittaa jonon
+	 * @param out kohde
+	 * @throws IOException jos kirjoitus epäonnistuu
+	 */
+	public void tallennaJono(DataOutput out) throws IOException {
+		jono.tallennaTila(out);
+	}
+
+	/**
+	 * Palauttaa {@link #tallennaJono(DataOutput)}:lla kirjoitetun jonon
+	 * @param in lähde
+	 * @throws IOException jos luku epäonnistuu
+	 */
+	public void palautaJono(DataInput in) throws IOException {
+		jono.palautaTila(in);
+	}
+
+	/**
+	 * Kirjoittaa palvelimien tilan, laskurit ja jakauman generaattorin tilan. Koko ei riipu jonon pituudesta.
+	 * @param out kohde
+	 * @throws IOException jos kirjoitus epäonnistuu
+	 */
+	public void tallennaTilaIlmanJonoa(DataOutput out) throws IOException {
+		out.writeInt(vapaita);
+		for (int i = 0; i < vapaita; i++) {
+			out.writeInt(vapaatPalvelimet[i]);
+		}
+		for (int i = 0; i < palvelimia; i++) {
+			out.writeInt(palveltava[i]);
+			out.writeDouble(aloitusaika[i]);
+		}
+		out.writeDouble(kokonaisaikaJonotettu);
+		out.writeDouble(kokonaisaikaPalvelupisteessa);
+		out.writeInt(palvelunro);
+		Tilannekuva.tallennaJakauma(generator, out);
+	}
+
+	/**
+	 * Palauttaa {@link #tallennaTilaIlmanJonoa(DataOutput)}:lla kirjoitetun tilan palvelupisteeseen, jolla on sama määrä palvelimia
+	 * @param in lähde
+	 * @throws IOException jos luku epäonnistuu
+	 */
+	public void palautaTilaIlmanJonoa(DataInput in) throws IOException {
+		vapaita = in.readInt();
+		for (int i = 0; i < vapaita; i++) {
+			vapaatPalvelimet[i] = in.readInt();
+		}
+		for (int i = 0; i < palvelimia; i++) {
+			palveltava[i] = in.readInt();
+			aloitusaika[i] = in.readDouble();
+		}
+		kokonaisaikaJonotettu = in.readDouble();
+		kokonaisaikaPalvelupisteessa = in.readDouble();
+		palvelunro = in.readInt();
+		Tilannekuva.palautaJakauma(generator, in);
 	}
 
 	/**
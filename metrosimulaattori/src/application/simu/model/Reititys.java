@@ -0,0 +1,86 @@
+package application.simu.model;
+
+import java.util.Random;
+
+import application.simu.framework.Aliastaulu;
+
+/**
+ * {@link Topologia}n reitit tiheänä tauluna. Jokaiselle lähteelle (palvelupisteelle ja saapumiselle) on
+ * taulukko mahdollisista kohteista, ja kohteen valinta on vakioaikainen: yksikäsitteinen reitti luetaan suoraan
+ * ja haarautuva arvotaan {@link Aliastaulu}lla. Nollapainoiset kohteet jätetään pois, joten yksikäsitteinen reitti
+ * ei kuluta satunnaislukuja.
+ *
+ * @author Eetu Soronen, Emil Ålgars
+ * @version 1
+ */
+public class Reititys {
+
+	/**
+	 * Kohde, jossa asiakas poistuu simulaattorista
+	 */
+	public static final int POISTUMINEN = -1;
+
+	/**
+	 * Lähteiden mahdolliset kohteet. Lähde on palvelupisteen indeksi tai palvelupisteiden määrä saapumiselle.
+	 */
+	private final int[][] kohteet;
+
+	/**
+	 * Haarautuvien lähteiden aliastaulut, null jos lähteellä on vain yksi kohde
+	 */
+	private final Aliastaulu[] taulut;
+
+	/**
+	 * @param painot reittien painot [lähde][kohde], ks. {@link Topologia}
+	 */
+	Reititys(double[][] painot) {
+		int n = painot.length - 1;
+		kohteet = new int[n + 1][];
+		taulut = new Aliastaulu[n + 1];
+		for (int lahde = 0; lahde <= n; lahde++) {
+			double[] p = painot[lahde];
+			int m = 0;
+			for (double paino : p) {
+				if (paino > 0) m++;
+			}
+			kohteet[lahde] = new int[m];
+			double[] positiiviset = new double[m];
+			m = 0;
+			for (int k = 0; k <= n; k++) {
+				if (p[k] > 0) {
+					kohteet[lahde][m] = k == n ? POISTUMINEN : k;
+					positiiviset[m++] = p[k];
+				}
+			}
+			if (m > 1) {
+				taulut[lahde] = new Aliastaulu(positiiviset);
+			}
+		}
+	}
+
+	/**
+	 * Valitsee palvelupisteestä lähtevän asiakkaan seuraavan palvelupisteen
+	 * @param piste palvelupisteen indeksi
+	 * @param arpa satunnaislukugeneraattori haarautuville reiteille
+	 * @return palvelupisteen indeksi tai {@link #POISTUMINEN}
+	 */
+	public int kohde(int piste, Random arpa) {
+		int[] k = kohteet[piste];
+		if (k.length == 1) {
+			return k[0];
+		}
+		if (k.length == 0) {
+			throw new IllegalStateException("Palvelupisteestä " + piste + " ei ole reittiä");
+		}
+		return k[taulut[piste].arvo(arpa.nextDouble())];
+	}
+
+	/**
+	 * Valitsee saapuvan asiakkaan ensimmäisen palvelupisteen
+	 * @param arpa satunnaislukugeneraattori haarautuville reiteille
+	 * @return palvelupisteen indeksi
+	 */
+	public int saapumiskohde(Random arpa) {
+		return kohde(kohteet.length - 1, arpa);
+	}
+}
@@ -0,0 +1,144 @@
+package application.simu.model;
+
+import application.simu.framework.Tilasto;
+
+/**
+ * Usean replikaation yhdistetyt tulokset. Jokaisesta palvelupisteestä kerätään
+ * keskijonoaika, keskipalveluaika, palveltujen asiakkaiden määrä ja jonon pituus lopussa,
+ * ja koko asemasta läpimenoaika sekä palvellut ja asemaan jääneet asiakkaat.
+ *
+ * @author Eetu Soronen, Emil Ålgars
+ * @version 1
+ */
+public class ReplikaatioTulokset {
+
+	/**
+	 * Palvelupisteiden tyypit samassa järjestyksessä kuin moottorin palvelupisteet
+	 */
+	private final TapahtumanTyyppi[] tyypit;
+
+	/**
+	 * Palvelupistekohtaiset tilastot, indeksoitu kuten {@link #tyypit}
+	 */
+	private final Tilasto[] keskijonoaika, keskiarvoaika, palvellut, jononpituus;
+
+	/**
+	 * Koko aseman tilastot
+	 */
+	private final Tilasto lapimenoaika = new Tilasto(), palvellutAsiakkaat = new Tilasto(), asiakkaatAsemassa = new Tilasto();
+
+	/**
+	 * Konstruktori
+	 * @param tyypit palvelupisteiden tyypit moottorin palvelupistetaulukon järjestyksessä
+	 */
+	ReplikaatioTulokset(TapahtumanTyyppi[] tyypit) {
+		this.tyypit = tyypit;
+		keskijonoaika = uudetTilastot(tyypit.length);
+		keskiarvoaika = uudetTilastot(tyypit.length);
+		palvellut = uudetTilastot(tyypit.length);
+		jononpituus = uudetTilastot(tyypit.length);
+	}
+
+	private static Tilasto[] uudetTilastot(int n) {
+		Tilasto[] t = new Tilasto[n];
+		for (int i = 0; i < n; i++) {
+			t[i] = new Tilasto();
+		}
+		return t;
+	}
+
+	/**
+	 * Lisää yhden päättyneen replikaation tulokset
+	 * @param m ajettu moottori
+	 */
+	void lisaa(OmaMoottori m) {
+		Palvelupiste[] pp = m.getPalvelupisteet();
+		for (int i = 0; i < pp.length; i++) {
+			keskijonoaika[i].lisaa(pp[i].getKeskijonoaika());
+			keskiarvoaika[i].lisaa(pp[i].getKeskiarvoaika());
+			palvellut[i].lisaa(pp[i].getPalvelunro());
+			jononpituus[i].lisaa(pp[i].getJonopituus());
+		}
+		lapimenoaika.lisaa(m.getLapimenoaika());
+		palvellutAsiakkaat.lisaa(m.getServedCustomers());
+		asiakkaatAsemassa.lisaa(m.getCustomersWithin());
+	}
+
+	private int indeksi(TapahtumanTyyppi tt) {
+		for (int i = 0; i < tyypit.length; i++) {
+			if (tyypit[i] == tt) {
+				return i;
+			}
+		}
+		throw new IllegalArgumentException("Ei palvelupistettä " + tt);
+	}
+
+	/**
+	 * @param tt palvelupistettä vastaava TapahtumanTyyppi
+	 * @return palvelupisteen keskimääräinen jonotusaika replikaatioittain
+	 */
+	public Tilasto getKeskijonoaika(TapahtumanTyyppi tt) {
+		return keskijonoaika[indeksi(tt)];
+	}
+
+	/**
+	 * @param tt palvelupistettä vastaava TapahtumanTyyppi
+	 * @return palvelupisteen keskimääräinen palveluaika replikaatioittain
+	 */
+	public Tilasto getKeskiarvoaika(TapahtumanTyyppi tt) {
+		return keskiarvoaika[indeksi(tt)];
+	}
+
+	/**
+	 * @param tt palvelupistettä vastaava TapahtumanTyyppi
+	 * @return palvelupisteen palvelemien asiakkaiden määrä replikaatioittain
+	 */
+	public Tilasto getPalvellut(TapahtumanTyyppi tt) {
+		return palvellut[indeksi(tt)];
+	}
+
+	/**
+	 * @param tt palvelupistettä vastaava TapahtumanTyyppi
+	 * @return palvelupisteen jonon pituus simulaation lopussa replikaatioittain
+	 */
+	public Tilasto getJononpituus(TapahtumanTyyppi tt) {
+		return jononpituus[indeksi(tt)];
+	}
+
+	/**
+	 * @return asiakkaiden keskimääräinen läpimenoaika replikaatioittain
+	 */
+	public Tilasto getLapimenoaika() {
+		return lapimenoaika;
+	}
+
+	/**
+	 * @return metrolla poistuneet asiakkaat replikaatioittain
+	 */
+	public Tilasto getPalvellutAsiakkaat() {
+		return palvellutAsiakkaat;
+	}
+
+	/**
+	 * @return asemaan lopussa jääneet asiakkaat replikaatioittain
+	 */
+	public Tilasto getAsiakkaatAsemassa() {
+		return asiakkaatAsemassa;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("Läpimenoaika: ").append(lapimenoaika).append('\n');
+		sb.append("Palvellut asiakkaat: ").append(palvellutAsiakkaat).append('\n');
+		sb.append("Asiakkaat asemassa: ").append(asiakkaatAsemassa).append('\n');
+		for (int i = 0; i < tyypit.length; i++) {
+			sb.append('\n').append(tyypit[i]).append('\n');
+			sb.append("  keskijonoaika: ").append(keskijonoaika[i]).append('\n');
+			sb.append("  keskipalveluaika: ").append(keskiarvoaika[i]).append('\n');
+			sb.append("  palvellut: ").append(palvellut[i]).append('\n');
+			sb.append("  jonon pituus: ").append(jononpituus[i]).append('\n');
+		}
+		return sb.toString();
+	}
+}
@@ -0,0 +1,166 @@
+package application.simu.model;
+
+import application.eduni.distributions.SeedGenerator;
+import application.eduni.distributions.SplitMix64;
+import application.simu.framework.Satunnaislahde;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Ajaa saman simulaation useaan kertaan eri siemenillä säiepoolissa ja yhdistää tulokset.
+ * Jokainen replikaatio on oma {@link OmaMoottori}, jolla on oma kello ja tapahtumalista,
+ * joten replikaatiot eivät jaa tilaa ja skaalautuvat ytimien määrän mukaan.
+ *
+ * Siemenet arvotaan etukäteen replikaatioiden järjestyksessä yhdestä {@link SeedGenerator}-virrasta tai
+ * SplitMix-lähteellä jakamalla ({@link SplitMix64#split()}) juurigeneraattorista, ja tulokset yhdistetään samassa järjestyksessä. Sama juurisiemen tuottaa siis aina samat tulokset
+ * riippumatta säikeiden määrästä tai ajojärjestyksestä.
+ *
+ * @author Eetu Soronen, Emil Ålgars
+ * @version 1
+ */
+public class Replikaattori {
+
+	/**
+	 * Siementen väli SeedGeneratorissa (sama kuin eduni-kirjaston oletus)
+	 */
+	private static final int SIEMENVALI = 100000;
+
+	/**
+	 * Kuinka monta replikaatiota ajetaan yhtä aikaa
+	 */
+	private final int saikeita;
+
+	/**
+	 * Konstruktori, joka käyttää kaikkia prosessorin ytimiä
+	 */
+	public Replikaattori() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Konstruktori
+	 * @param saikeita {@link #saikeita}
+	 */
+	public Replikaattori(int saikeita) {
+		if (saikeita < 1) {
+			throw new IllegalArgumentException("Säikeitä pitää olla vähintään yksi");
+		}
+		this.saikeita = saikeita;
+	}
+
+	/**
+	 * Arpoo jokaiselle replikaatiolle omat siemenet yhdestä SeedGenerator-virrasta oletusaseman moottorille.
+	 * @param replikaatioita replikaatioiden määrä
+	 * @param juurisiemen SeedGeneratorin juurisiemen (1 .. 2<sup>31</sup>-2)
+	 * @return siemenet[replikaatio][{@link OmaMoottori#SIEMENIA}]
+	 */
+	public static long[][] siemenet(int replikaatioita, long juurisiemen) {
+		return siemenet(replikaatioita, juurisiemen, OmaMoottori.SIEMENIA);
+	}
+
+	/**
+	 * Arpoo jokaiselle replikaatiolle omat siemenet yhdestä SeedGenerator-virrasta.
+	 * @param replikaatioita replikaatioiden määrä
+	 * @param juurisiemen SeedGeneratorin juurisiemen (1 .. 2<sup>31</sup>-2)
+	 * @param siemenia siementen määrä replikaatiota kohden, ks. {@link OmaMoottori#siemenia(Topologia)}
+	 * @return siemenet[replikaatio][siemenia]
+	 */
+	public static long[][] siemenet(int replikaatioita, long juurisiemen, int siemenia) {
+		return siemenet(replikaatioita, juurisiemen, siemenia, Satunnaislahde.LEHMER);
+	}
+
+	/**
+	 * Arpoo jokaiselle replikaatiolle omat siemenet satunnaislähteelle sopivalla tavalla. Lehmerin lähteelle
+	 * siemenet ovat tasavälein yhdestä SeedGenerator-virrasta. SplitMix-lähteelle jokainen replikaatio jaetaan
+	 * juurigeneraattorista ja jokainen replikaation virta replikaation generaattorista, joten virrat ovat
+	 * toisistaan riippumattomia eivätkä rajoitu SeedGeneratorin 31 bittiin.
+	 * @param replikaatioita replikaatioiden määrä
+	 * @param juurisiemen juurisiemen (1 .. 2<sup>31</sup>-2)
+	 * @param siemenia siementen määrä replikaatiota kohden, ks. {@link OmaMoottori#siemenia(Topologia)}
+	 * @param lahde satunnaislähde, jolle siemenet arvotaan
+	 * @return siemenet[replikaatio][siemenia]
+	 */
+	public static long[][] siemenet(int replikaatioita, long juurisiemen, int siemenia, Satunnaislahde lahde) {
+		long[][] siemenet = new long[replikaatioita][siemenia];
+		if (lahde == Satunnaislahde.SPLITMIX) {
+			SplitMix64 juuri = new SplitMix64(juurisiemen);
+			for (int r = 0; r < replikaatioita; r++) {
+				SplitMix64 replikaatio = juuri.split();
+				for (int i = 0; i < siemenia; i++) {
+					siemenet[r][i] = replikaatio.split().getSeed();
+				}
+			}
+			return siemenet;
+		}
+		SeedGenerator siemengeneraattori = new SeedGenerator(juurisiemen, SIEMENVALI);
+		for (int r = 0; r < replikaatioita; r++) {
+			for (int i = 0; i < siemenia; i++) {
+				siemenet[r][i] = siemengeneraattori.sample();
+			}
+		}
+		return siemenet;
+	}
+
+	/**
+	 * Ajaa replikaatiot ja palauttaa niiden yhdistetyt tulokset.
+	 * @param asetukset kaikille replikaatioille yhteiset simulaation parametrit
+	 * @param replikaatioita replikaatioiden määrä
+	 * @param juurisiemen SeedGeneratorin juurisiemen (1 .. 2<sup>31</sup>-2)
+	 * @return palvelupistekohtaiset tulokset keskiarvoineen ja luottamusväleineen
+	 */
+	public ReplikaatioTulokset aja(Simulaatioasetukset asetukset, int replikaatioita, long juurisiemen) {
+		if (replikaatioita < 1) {
+			throw new IllegalArgumentException("Replikaatioita pitää olla vähintään yksi");
+		}
+		if (juurisiemen <= 0 || juurisiemen >= 2147483647L) {
+			throw new IllegalArgumentException("Juurisiemenen pitää olla välillä 1 .. 2^31-2");
+		}
+		long[][] siemenet = siemenet(replikaatioita, juurisiemen, OmaMoottori.siemenia(asetukset.getTopologia()),
+				asetukset.getSatunnaislahde());
+
+		ExecutorService pooli = Executors.newFixedThreadPool(Math.min(saikeita, replikaatioita));
+		try {
+			List<Future<OmaMoottori>> ajot = new ArrayList<>(replikaatioita);
+			for (int r = 0; r < replikaatioita; r++) {
+				long[] s = siemenet[r];
+				ajot.add(pooli.submit(() -> {
+					OmaMoottori m = new OmaMoottori(asetukset, s);
+					m.etene(Double.POSITIVE_INFINITY); // ilman konsoliraporttia, jota aja() tulostaisi jokaisesta replikaatiosta
+					return m;
+				}));
+			}
+
+			ReplikaatioTulokset tulokset = null;
+			for (int r = 0; r < replikaatioita; r++) {
+				OmaMoottori m = ajot.get(r).get();
+				ajot.set(r, null); // ei pidetä valmiita moottoreita muistissa
+				if (tulokset == null) {
+					tulokset = new ReplikaatioTulokset(tyypit(m));
+				}
+				tulokset.lisaa(m);
+			}
+			return tulokset;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		} catch (ExecutionException e) {
+			throw new RuntimeException(e.getCause());
+		} finally {
+			pooli.shutdownNow();
+		}
+	}
+
+	private static TapahtumanTyyppi[] tyypit(OmaMoottori m) {
+		Palvelupiste[] pp = m.getPalvelupisteet();
+		TapahtumanTyyppi[] tyypit = new TapahtumanTyyppi[pp.length];
+		for (int i = 0; i < pp.length; i++) {
+			tyypit[i] = pp[i].getTapahtumanTyyppi();
+		}
+		return tyypit;
+	}
+}
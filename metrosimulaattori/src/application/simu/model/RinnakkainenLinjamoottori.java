@@ -0,0 +1,118 @@
+package application.simu.model;
+
+import application.simu.framework.Viesti;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ajaa metrolinjan asemat rinnakkain konservatiivisella synkronoinnilla. Asemat jaetaan säikeille yhtenäisinä lohkoina,
+ * ja simulointiaika edetään ikkunoittain (ikkuna on {@link Lohkomoottori}n vaihe, ks. {@link #getVaiheita()}):
+ * ikkunan alku on aikaisin odottava tapahtuma tai viesti koko linjalla ja pituus
+ * {@link Linjaasetukset#getLyhinSiirtymaaika()}. Juna ei ehdi toiselle asemalle ikkunan aikana, joten ikkunan sisällä
+ * lähetetyt viestit ovat vastaanottajalle aina ikkunan jälkeen, ja asemat voivat edetä ikkunan loppuun toisistaan riippumatta.
+ * <p>
+ * Toisille asemille lähetetyt viestit kerätään säiekohtaisiin lähtökoreihin ja toimitetaan ikkunoiden välissä.
+ * Aseman itselleen lähettämät viestit toimitetaan heti. Asema käsittelee täsmälleen samat viestit samassa järjestyksessä
+ * kuin {@link Linjamoottori}ssa, joten tulokset ovat samat säikeiden määrästä riippumatta.
+ *
+ * @author Eetu Soronen, Emil Ålgars
+ * @version 1
+ */
+public class RinnakkainenLinjamoottori extends Lohkomoottori {
+
+	/**
+	 * Aseman lohkon numero aseman indeksin mukaan
+	 */
+	private final int[] lohko;
+
+	/**
+	 * Lohkojen lähtökorit: toisille asemille lähetetyt, vielä toimittamattomat viestit
+	 */
+	private final List<List<Viesti>> lahtevat = new ArrayList<>();
+
+	/**
+	 * Konstruktori, joka käyttää kaikkia prosessorin ytimiä
+	 * @param asetukset linjan parametrit
+	 * @param juurisiemen SeedGeneratorin juurisiemen (1 .. 2<sup>31</sup>-2)
+	 */
+	public RinnakkainenLinjamoottori(Linjaasetukset asetukset, long juurisiemen) {
+		this(asetukset, juurisiemen, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Konstruktori
+	 * @param asetukset linjan parametrit
+	 * @param juurisiemen SeedGeneratorin juurisiemen (1 .. 2<sup>31</sup>-2)
+	 * @param saikeita kuinka monessa säikeessä asemat ajetaan, enintään asemien määrä
+	 */
+	public RinnakkainenLinjamoottori(Linjaasetukset asetukset, long juurisiemen, int saikeita) {
+		super(asetukset, juurisiemen, saikeita);
+		lohko = new int[asemat.length];
+		for (int p = 0; p < getSaikeita(); p++) {
+			for (int i = alku(p); i < alku(p + 1); i++) {
+				lohko[i] = p;
+			}
+			lahtevat.add(new ArrayList<>());
+		}
+	}
+
+	/**
+	 * Ajaa linjaa simulointiajan loppuun ikkuna kerrallaan
+	 */
+	@Override
+	public void aja() {
+		double lookahead = asetukset.getLyhinSiirtymaaika();
+		if (!(lookahead > 0)) {
+			throw new IllegalStateException("Rinnakkainen ajo vaatii positiivisen siirtymäajan asemien välillä: " + lookahead);
+		}
+		super.aja();
+	}
+
+	/**
+	 * Ikkuna on {@link Linjaasetukset#getLyhinSiirtymaaika()}n mittainen
+	 * @param aika ikkunan alku
+	 * @return ikkunan loppu
+	 */
+	@Override
+	protected double vaiheenRaja(double aika) {
+		return aika + asetukset.getLyhinSiirtymaaika();
+	}
+
+	/**
+	 * Ikkunan sisällä lohkon asemat eivät vaikuta toisiinsa, joten ne ajetaan ikkunan loppuun yksi kerrallaan
+	 */
+	@Override
+	protected void suoritaLohko(int ensimmainen, int viimeinen, double raja) {
+		for (int i = ensimmainen; i < viimeinen; i++) {
+			asemat[i].etene(raja);
+		}
+	}
+
+	/**
+	 * Toimittaa lähtökorien viestit vastaanottajille. Kutsutaan ikkunoiden välissä, kun mikään asema ei ole käynnissä.
+	 */
+	@Override
+	protected void toimita() {
+		for (List<Viesti> kori : lahtevat) {
+			for (Viesti v : kori) {
+				asemat[v.getVastaanottaja()].vastaanota(v);
+			}
+			kori.clear();
+		}
+	}
+
+	/**
+	 * Toimittaa aseman itselleen lähettämän viestin heti ja laittaa muut lähettäjän lohkon lähtökoriin.
+	 * Kutsutaan lähettäjän säikeestä.
+	 * @param viesti toimitettava viesti
+	 */
+	@Override
+	public void valita(Viesti viesti) {
+		if (viesti.getVastaanottaja() == viesti.getLahettaja()) {
+			asemat[viesti.getVastaanottaja()].vastaanota(viesti);
+		} else {
+			lahtevat.get(lohko[viesti.getLahettaja()]).add(viesti);
+		}
+	}
+}
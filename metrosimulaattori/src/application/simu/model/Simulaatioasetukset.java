@@ -0,0 +1,387 @@
+package application.simu.model;
+
+import application.eduni.distributions.ContinuousGenerator;
+import application.eduni.distributions.Normal;
+import application.simu.framework.Esihaku;
+import application.simu.framework.Jakaumatyyppi;
+import application.simu.framework.Satunnaislahde;
+import application.simu.framework.Tapahtumalista;
+
+/**
+ * Yhden simulaatioajon parametrit. Oletusarvot ovat samat kuin Kontrollerissa,
+ * joten asetuksista voidaan luoda moottori ilman käyttöliittymää (esim. replikaatioita varten).
+ *
+ * @author Eetu Soronen, Emil Ålgars
+ * @version 1
+ */
+public class Simulaatioasetukset {
+
+	/**
+	 * Kauan simulaattoria ajetaan
+	 */
+	private int simukesto = 1000;
+
+	/**
+	 * Metron maksimikapasiteetti
+	 */
+	private int metronKapasiteetti = 40;
+
+	/**
+	 * Aseman maksimikapasiteetti
+	 */
+	private int asemanKapasiteetti = 200;
+
+	/**
+	 * Prosenttiosuus saapuvista asiakkaista, joilla on mobiililippu
+	 */
+	private int mobiililippujakauma = 50;
+
+	/**
+	 * Saapumisten välisen ajan jakauman odotusarvo ja varianssi {@link #jakaumatyyppi}ssä
+	 */
+	private int arrivalMean = 10, arrivalVariance = 5;
+
+	/**
+	 * Sisäänkäynti-palvelupisteen käsittelyajan odotusarvo ja varianssi
+	 */
+	private int entranceMean = 4, entranceVariance = 8;
+
+	/**
+	 * Lipunmyynti-palvelupisteen käsittelyajan odotusarvo ja varianssi
+	 */
+	private int salesMean = 20, salesVariance = 10;
+
+	/**
+	 * Lipuntarkastus-palvelupisteen käsittelyajan odotusarvo ja varianssi
+	 */
+	private int checkMean = 7, checkVariance = 3;
+
+	/**
+	 * Metro-palvelupisteen käsittelyajan odotusarvo ja varianssi
+	 */
+	private int metroMean = 360, metroVariance = 60;
+
+	/**
+	 * Uloskäynti-palvelupisteen käsittelyajan odotusarvo ja varianssi (linjasimulaatio)
+	 */
+	private int exitMean = 3, exitVariance = 2;
+
+	/**
+	 * Rinnakkaisten palvelimien (esim. lippuautomaattien tai porttien) määrä kussakin palvelupisteessä
+	 */
+	private int entranceServers = 1, salesServers = 1, checkServers = 1, metroServers = 1, exitServers = 1;
+
+	/**
+	 * Aseman palvelupisteet ja reitit, null jos käytetään oletusasemaa
+	 */
+	private Topologia topologia;
+
+	/**
+	 * Moottorin tapahtumakalenterin toteutus
+	 */
+	private Tapahtumalista.Toteutus tapahtumalista = Tapahtumalista.Toteutus.KEKO;
+
+	/**
+	 * Lähde, josta palvelupisteiden ja saapumisten jakaumat arvotaan
+	 */
+	private Satunnaislahde satunnaislahde = Satunnaislahde.LEHMER;
+
+	/**
+	 * Menetelmä, jolla normaalijakautuneet palvelu- ja saapumisajat arvotaan
+	 */
+	private Normal.Method normaaliarvonta = Normal.Method.BOX_MULLER;
+
+	/**
+	 * Jakaumaperhe, josta palvelu- ja saapumisajat arvotaan
+	 */
+	private Jakaumatyyppi jakaumatyyppi = Jakaumatyyppi.NORMAALI;
+
+	/**
+	 * Kuinka monta palvelu- tai saapumisaikaa jakaumasta arvotaan etukäteen kerralla ({@link Esihaku}), 0 jos ei yhtään
+	 */
+	private int esihaku = 64;
+
+	/**
+	 * Palauttaa palvelupisteen käsittelyajan jakauman parametrit
+	 * @param tt TapahtumanTyyppi, joka vastaa palvelupistettä
+	 * @return int[2] taulukon, jossa i[0] = odotusarvo ja i[1] = varianssi
+	 */
+	public int[] getPPJakauma(TapahtumanTyyppi tt) {
+		switch (tt) {
+			case ENTRANCE:
+				return new int[]{entranceMean, entranceVariance};
+			case TICKETSALES:
+				return new int[]{salesMean, salesVariance};
+			case TICKETCHECK:
+				return new int[]{checkMean, checkVariance};
+			case METRO:
+				return new int[]{metroMean, metroVariance};
+			case EXIT:
+				return new int[]{exitMean, exitVariance};
+			case ARRIVAL:
+				return new int[]{arrivalMean, arrivalVariance};
+		}
+		return null;
+	}
+
+	/**
+	 * Asettaa palvelupisteen (tai saapumisen) käsittelyajan jakauman parametrit
+	 * @param tt TapahtumanTyyppi, joka vastaa palvelupistettä
+	 * @param mean Jakauman odotusarvo
+	 * @param variance Jakauman varianssi
+	 */
+	public void setPPJakauma(TapahtumanTyyppi tt, int mean, int variance) {
+		switch (tt) {
+			case ENTRANCE:
+				entranceMean = mean;
+				entranceVariance = variance;
+				break;
+			case TICKETSALES:
+				salesMean = mean;
+				salesVariance = variance;
+				break;
+			case TICKETCHECK:
+				checkMean = mean;
+				checkVariance = variance;
+				break;
+			case METRO:
+				metroMean = mean;
+				metroVariance = variance;
+				break;
+			case EXIT:
+				exitMean = mean;
+				exitVariance = variance;
+				break;
+			case ARRIVAL:
+				arrivalMean = mean;
+				arrivalVariance = variance;
+				break;
+		}
+	}
+
+	/**
+	 * Palauttaa palvelupisteen rinnakkaisten palvelimien määrän
+	 * @param tt TapahtumanTyyppi, joka vastaa palvelupistettä
+	 * @return palvelimien määrä, saapumiselle 1
+	 */
+	public int getPalvelimia(TapahtumanTyyppi tt) {
+		switch (tt) {
+			case ENTRANCE:
+				return entranceServers;
+			case TICKETSALES:
+				return salesServers;
+			case TICKETCHECK:
+				return checkServers;
+			case METRO:
+				return metroServers;
+			case EXIT:
+				return exitServers;
+		}
+		return 1;
+	}
+
+	/**
+	 * Asettaa palvelupisteen rinnakkaisten palvelimien määrän
+	 * @param tt TapahtumanTyyppi, joka vastaa palvelupistettä
+	 * @param palvelimia palvelimien määrä, vähintään 1
+	 */
+	public void setPalvelimia(TapahtumanTyyppi tt, int palvelimia) {
+		if (palvelimia < 1) {
+			throw new IllegalArgumentException("Palvelimia on oltava vähintään yksi: " + palvelimia);
+		}
+		switch (tt) {
+			case ENTRANCE:
+				entranceServers = palvelimia;
+				break;
+			case TICKETSALES:
+				salesServers = palvelimia;
+				break;
+			case TICKETCHECK:
+				checkServers = palvelimia;
+				break;
+			case METRO:
+				metroServers = palvelimia;
+				break;
+			case EXIT:
+				exitServers = palvelimia;
+				break;
+		}
+	}
+
+	/**
+	 * getteri
+	 * @return {@link #simukesto}
+	 */
+	public int getSimukesto() {
+		return simukesto;
+	}
+
+	/**
+	 * setteri
+	 * @param simukesto {@link #simukesto}
+	 */
+	public void setSimukesto(int simukesto) {
+		this.simukesto = simukesto;
+	}
+
+	/**
+	 * getteri
+	 * @return {@link #metronKapasiteetti}
+	 */
+	public int getMetronKapasiteetti() {
+		return metronKapasiteetti;
+	}
+
+	/**
+	 * setteri
+	 * @param metronKapasiteetti {@link #metronKapasiteetti}
+	 */
+	public void setMetronKapasiteetti(int metronKapasiteetti) {
+		this.metronKapasiteetti = metronKapasiteetti;
+	}
+
+	/**
+	 * getteri
+	 * @return {@link #asemanKapasiteetti}
+	 */
+	public int getAsemanKapasiteetti() {
+		return asemanKapasiteetti;
+	}
+
+	/**
+	 * setteri
+	 * @param asemanKapasiteetti {@link #asemanKapasiteetti}
+	 */
+	public void setAsemanKapasiteetti(int asemanKapasiteetti) {
+		this.asemanKapasiteetti = asemanKapasiteetti;
+	}
+
+	/**
+	 * getteri
+	 * @return {@link #tapahtumalista}
+	 */
+	public Tapahtumalista.Toteutus getTapahtumalista() {
+		return tapahtumalista;
+	}
+
+	/**
+	 * setteri
+	 * @param tapahtumalista {@link #tapahtumalista}
+	 */
+	public void setTapahtumalista(Tapahtumalista.Toteutus tapahtumalista) {
+		this.tapahtumalista = tapahtumalista;
+	}
+
+	/**
+	 * getteri
+	 * @return {@link #satunnaislahde}
+	 */
+	public Satunnaislahde getSatunnaislahde() {
+		return satunnaislahde;
+	}
+
+	/**
+	 * setteri
+	 * @param satunnaislahde {@link #satunnaislahde}
+	 */
+	public void setSatunnaislahde(Satunnaislahde satunnaislahde) {
+		this.satunnaislahde = satunnaislahde;
+	}
+
+	/**
+	 * getteri
+	 * @return {@link #normaaliarvonta}
+	 */
+	public Normal.Method getNormaaliarvonta() {
+		return normaaliarvonta;
+	}
+
+	/**
+	 * setteri
+	 * @param normaaliarvonta {@link #normaaliarvonta}
+	 */
+	public void setNormaaliarvonta(Normal.Method normaaliarvonta) {
+		this.normaaliarvonta = normaaliarvonta;
+	}
+
+	/**
+	 * getteri
+	 * @return {@link #jakaumatyyppi}
+	 */
+	public Jakaumatyyppi getJakaumatyyppi() {
+		return jakaumatyyppi;
+	}
+
+	/**
+	 * setteri
+	 * @param jakaumatyyppi {@link #jakaumatyyppi}
+	 */
+	public void setJakaumatyyppi(Jakaumatyyppi jakaumatyyppi) {
+		this.jakaumatyyppi = jakaumatyyppi;
+	}
+
+	/**
+	 * getteri
+	 * @return {@link #esihaku}
+	 */
+	public int getEsihaku() {
+		return esihaku;
+	}
+
+	/**
+	 * setteri
+	 * @param esihaku {@link #esihaku}, 0 jos lukuja ei arvota etukäteen
+	 */
+	public void setEsihaku(int esihaku) {
+		if (esihaku < 0) {
+			throw new IllegalArgumentException("Esihaun koko ei voi olla negatiivinen: " + esihaku);
+		}
+		this.esihaku = esihaku;
+	}
+
+	/**
+	 * Luo {@link #jakaumatyyppi}n jakauman, joka arvotaan näiden asetusten satunnaislähteestä ja menetelmällä
+	 * ja jonka luvut arvotaan {@link #esihaku}n kokoisina lohkoina. Luvut ovat samat lohkon koosta riippumatta.
+	 * @param odotusarvo odotusarvo
+	 * @param varianssi varianssi
+	 * @param siemen jakauman siemen
+	 * @return jakauma
+	 */
+	public ContinuousGenerator jakauma(double odotusarvo, double varianssi, long siemen) {
+		ContinuousGenerator jakauma = jakaumatyyppi.luo(odotusarvo, varianssi, satunnaislahde.luo(siemen), normaaliarvonta);
+		return esihaku > 0 ? new Esihaku(jakauma, esihaku) : jakauma;
+	}
+
+	/**
+	 * Palauttaa aseman topologian. Jos topologiaa ei ole asetettu, palautetaan oletusasema,
+	 * jonka palvelupisteiden jakaumat ja palvelimien määrät ovat näissä asetuksissa.
+	 * @return {@link #topologia} tai {@link Topologia#oletus(Simulaatioasetukset)}
+	 */
+	public Topologia getTopologia() {
+		return topologia != null ? topologia : Topologia.oletus(this);
+	}
+
+	/**
+	 * Asettaa aseman topologian. Topologian palvelupisteiden jakaumat korvaavat näiden asetusten palvelupistejakaumat.
+	 * @param topologia {@link #topologia}, null palauttaa oletusaseman
+	 */
+	public void setTopologia(Topologia topologia) {
+		this.topologia = topologia;
+	}
+
+	/**
+	 * getteri
+	 * @return {@link #mobiililippujakauma}
+	 */
+	public int getMobiililippujakauma() {
+		return mobiililippujakauma;
+	}
+
+	/**
+	 * setteri
+	 * @param mobiililippujakauma {@link #mobiililippujakauma}
+	 */
+	public void setMobiililippujakauma(int mobiililippujakauma) {
+		this.mobiililippujakauma = mobiililippujakauma;
+	}
+}
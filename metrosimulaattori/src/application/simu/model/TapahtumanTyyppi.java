@@ -5,6 +5,8 @@ package application.simu.model;
 
 /**
  * Nämö enum-arvot toimivat erottavat palvelupisteet ja saapumisen toisistaan
+ * Samaan aikaan tapahtuvat tapahtumat suoritetaan {@link #getPrioriteetti()} mukaan,
+ * ja saman prioriteetin tapahtumat lisäysjärjestyksessä.
  *
  * @author Eetu Soronen
  * @version 1
@@ -14,30 +16,54 @@ public enum TapahtumanTyyppi {
 	/**
 	 * Saapuminen
 	 */
-	ARRIVAL,
+	ARRIVAL(5),
 
 	/**
 	 * Sisäänkäynti
 	 */
-	ENTRANCE,
+	ENTRANCE(4),
 
 	/**
 	 * Lipunmyynti
 	 */
-	TICKETSALES,
+	TICKETSALES(3),
 
 	/**
 	 * Lipuntarkastus
 	 */
-	TICKETCHECK,
+	TICKETCHECK(1),
 
 	/**
 	 * Metro
 	 */
-	METRO,
+	METRO(0),
 
 	/**
 	 * Mobiililippu, tämä tapahtuma hyppää lipunmyynnin ohi.
 	 */
-	MOBILETICKET
+	MOBILETICKET(2),
+
+	/**
+	 * Uloskäynti, jonka kautta junasta jääneet asiakkaat poistuvat asemalta (linjasimulaatio)
+	 */
+	EXIT(0);
+
+	/**
+	 * Samanaikaisista tapahtumista pienemmän prioriteetin tapahtuma suoritetaan ensin.
+	 * Asiakkaita poistavat (myöhemmät) palvelupisteet käsitellään ennen aikaisempia,
+	 * jotta samalla hetkellä vapautuva tila on jo käytettävissä.
+	 */
+	private final int prioriteetti;
+
+	TapahtumanTyyppi(int prioriteetti) {
+		this.prioriteetti = prioriteetti;
+	}
+
+	/**
+	 * getteri
+	 * @return {@link #prioriteetti}
+	 */
+	public int getPrioriteetti() {
+		return prioriteetti;
+	}
 }
@@ -0,0 +1,380 @@
+package application.simu.model;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Aseman rakenne: palvelupisteet jakaumineen ja reitit, joita pitkin asiakkaat kulkevat niiden välillä.
+ * Topologia rakennetaan {@link Rakentaja}lla tai luetaan tiedostosta ({@link #lue(Path)}), ja moottori
+ * kääntää sen {@link Reititys}-tauluksi, joten asemaan voi lisätä palvelupisteitä muuttamatta moottoria.
+ * <p>
+ * Tiedostossa on rivi kutakin palvelupistettä ja reittiä kohden. Tyhjät rivit ja #-merkin jälkeinen teksti ohitetaan.
+ * <pre>
+ * piste   &lt;nimi&gt; &lt;TapahtumanTyyppi&gt; &lt;Toiminta&gt; &lt;odotusarvo&gt; &lt;varianssi&gt; [palvelimia]
+ * reitti  &lt;mistä&gt; &lt;minne&gt; &lt;paino&gt;
+ * mobiili &lt;mistä&gt; &lt;mobiililipullisten kohde&gt; &lt;muiden kohde&gt;
+ * </pre>
+ * Reitin lähde on palvelupiste tai {@value #SAAPUMINEN}, kohde palvelupiste tai {@value #POISTUMINEN}.
+ * Mobiilireitillä asiakkaat jakautuvat moottorin mobiililippujakauman mukaan.
+ *
+ * @author Eetu Soronen, Emil Ålgars
+ * @version 1
+ */
+public class Topologia {
+
+	/**
+	 * Reitin lähde, josta uudet asiakkaat tulevat asemalle
+	 */
+	public static final String SAAPUMINEN = "saapuminen";
+
+	/**
+	 * Reitin kohde, jossa asiakas poistuu simulaattorista
+	 */
+	public static final String POISTUMINEN = "poistuminen";
+
+	/**
+	 * Mitä palvelupisteessä tapahtuu palvelun päättyessä
+	 */
+	public enum Toiminta {
+		/**
+		 * Asiakas siirtyy reitin mukaan seuraavaan palvelupisteeseen
+		 */
+		TAVALLINEN,
+		/**
+		 * Asiakas pääsee asemalle vain, jos asemalla on tilaa (aseman kapasiteetti), muuten se jää jonon kärkeen
+		 */
+		SISAANKAYNTI,
+		/**
+		 * Juna vie kerralla metron kapasiteetin verran jonossa olevia asiakkaita, jotka poistuvat simulaattorista
+		 */
+		JUNA
+	}
+
+	/**
+	 * Yhden palvelupisteen määrittely
+	 */
+	public static class Piste {
+
+		private final String nimi;
+		private final TapahtumanTyyppi tyyppi;
+		private final Toiminta toiminta;
+		private final int odotusarvo, varianssi, palvelimia;
+
+		private Piste(String nimi, TapahtumanTyyppi tyyppi, Toiminta toiminta, int odotusarvo, int varianssi, int palvelimia) {
+			this.nimi = nimi;
+			this.tyyppi = tyyppi;
+			this.toiminta = toiminta;
+			this.odotusarvo = odotusarvo;
+			this.varianssi = varianssi;
+			this.palvelimia = palvelimia;
+		}
+
+		public String getNimi() {
+			return nimi;
+		}
+
+		/**
+		 * @return palvelupisteen tapahtumien tyyppi, joka määrää samanaikaisten tapahtumien järjestyksen
+		 */
+		public TapahtumanTyyppi getTyyppi() {
+			return tyyppi;
+		}
+
+		public Toiminta getToiminta() {
+			return toiminta;
+		}
+
+		/**
+		 * @return käsittelyajan jakauman odotusarvo (jakaumaperhe valitaan asetuksista)
+		 */
+		public int getOdotusarvo() {
+			return odotusarvo;
+		}
+
+		/**
+		 * @return käsittelyajan jakauman varianssi (jakaumaperhe valitaan asetuksista)
+		 */
+		public int getVarianssi() {
+			return varianssi;
+		}
+
+		/**
+		 * @return rinnakkaisten palvelimien määrä
+		 */
+		public int getPalvelimia() {
+			return palvelimia;
+		}
+	}
+
+	/**
+	 * Palvelupisteet moottorin palvelupistetaulukon järjestyksessä
+	 */
+	private final List<Piste> pisteet;
+
+	/**
+	 * Reittien painot [lähde][kohde]. Lähde on palvelupisteen indeksi tai {@link #pisteet}.size() saapumiselle,
+	 * kohde palvelupisteen indeksi tai {@link #pisteet}.size() poistumiselle.
+	 */
+	private final double[][] painot;
+
+	/**
+	 * Mobiilireitit {lähde, mobiililipullisten kohde, muiden kohde}
+	 */
+	private final int[][] mobiilireitit;
+
+	private Topologia(List<Piste> pisteet, double[][] painot, int[][] mobiilireitit) {
+		this.pisteet = Collections.unmodifiableList(pisteet);
+		this.painot = painot;
+		this.mobiilireitit = mobiilireitit;
+	}
+
+	/**
+	 * getteri
+	 * @return {@link #pisteet}
+	 */
+	public List<Piste> getPisteet() {
+		return pisteet;
+	}
+
+	/**
+	 * Kääntää reitit moottorin käyttämäksi tauluksi.
+	 * @param mobiililippujakauma prosenttiosuus asiakkaista, jotka kulkevat mobiilireitin mobiililipullisten haaraan
+	 * @return reititystaulu
+	 */
+	public Reititys reititys(int mobiililippujakauma) {
+		int n = pisteet.size();
+		double[][] p = new double[n + 1][];
+		for (int i = 0; i <= n; i++) {
+			p[i] = painot[i].clone();
+		}
+		double osuus = Math.max(0, Math.min(100, mobiililippujakauma));
+		for (int[] m : mobiilireitit) {
+			p[m[0]][m[1]] += osuus;
+			p[m[0]][m[2]] += 100 - osuus;
+		}
+		return new Reititys(p);
+	}
+
+	/**
+	 * Sovelluksen oletusasema: sisäänkäynti, lipunmyynti, lipuntarkastus ja metro.
+	 * Mobiililipulliset ohittavat lipunmyynnin.
+	 * @param asetukset palvelupisteiden jakaumat ja palvelimien määrät
+	 * @return topologia
+	 */
+	public static Topologia oletus(Simulaatioasetukset asetukset) {
+		Rakentaja r = new Rakentaja();
+		oletuspiste(r, "sisaankaynti", TapahtumanTyyppi.ENTRANCE, Toiminta.SISAANKAYNTI, asetukset);
+		oletuspiste(r, "lipunmyynti", TapahtumanTyyppi.TICKETSALES, Toiminta.TAVALLINEN, asetukset);
+		oletuspiste(r, "lipuntarkastus", TapahtumanTyyppi.TICKETCHECK, Toiminta.TAVALLINEN, asetukset);
+		oletuspiste(r, "metro", TapahtumanTyyppi.METRO, Toiminta.JUNA, asetukset);
+		return r.reitti(SAAPUMINEN, "sisaankaynti", 1)
+				.mobiilireitti("sisaankaynti", "lipuntarkastus", "lipunmyynti")
+				.reitti("lipunmyynti", "lipuntarkastus", 1)
+				.reitti("lipuntarkastus", "metro", 1)
+				.rakenna();
+	}
+
+	private static void oletuspiste(Rakentaja r, String nimi, TapahtumanTyyppi tt, Toiminta toiminta, Simulaatioasetukset asetukset) {
+		int[] jakauma = asetukset.getPPJakauma(tt);
+		r.piste(nimi, tt, toiminta, jakauma[0], jakauma[1], asetukset.getPalvelimia(tt));
+	}
+
+	/**
+	 * Lukee topologian tiedostosta (muoto luokan kuvauksessa)
+	 * @param tiedosto luettava tiedosto
+	 * @return topologia
+	 * @throws IOException jos tiedostoa ei voi lukea
+	 * @throws IllegalArgumentException jos tiedostossa on virheellinen rivi tai topologia on virheellinen
+	 */
+	public static Topologia lue(Path tiedosto) throws IOException {
+		Rakentaja r = new Rakentaja();
+		try (BufferedReader lukija = Files.newBufferedReader(tiedosto, StandardCharsets.UTF_8)) {
+			String rivi;
+			int nro = 0;
+			while ((rivi = lukija.readLine()) != null) {
+				nro++;
+				int kommentti = rivi.indexOf('#');
+				if (kommentti >= 0) {
+					rivi = rivi.substring(0, kommentti);
+				}
+				rivi = rivi.trim();
+				if (rivi.isEmpty()) {
+					continue;
+				}
+				String[] s = rivi.split("\\s+");
+				try {
+					switch (s[0]) {
+						case "piste":
+							if (s.length != 6 && s.length != 7) {
+								throw new IllegalArgumentException("pisteellä on 5 tai 6 kenttää");
+							}
+							r.piste(s[1], TapahtumanTyyppi.valueOf(s[2]), Toiminta.valueOf(s[3]),
+									Integer.parseInt(s[4]), Integer.parseInt(s[5]), s.length == 7 ? Integer.parseInt(s[6]) : 1);
+							break;
+						case "reitti":
+							if (s.length != 4) {
+								throw new IllegalArgumentException("reitillä on 3 kenttää");
+							}
+							r.reitti(s[1], s[2], Double.parseDouble(s[3]));
+							break;
+						case "mobiili":
+							if (s.length != 4) {
+								throw new IllegalArgumentException("mobiilireitillä on 3 kenttää");
+							}
+							r.mobiilireitti(s[1], s[2], s[3]);
+							break;
+						default:
+							throw new IllegalArgumentException("tuntematon rivi " + s[0]);
+					}
+				} catch (IllegalArgumentException e) {
+					throw new IllegalArgumentException(tiedosto + " rivi " + nro + ": " + e.getMessage(), e);
+				}
+			}
+		}
+		return r.rakenna();
+	}
+
+	/**
+	 * Rakentaa topologian. Palvelupisteet saavat indeksinsä lisäysjärjestyksessä.
+	 * Reitit voi lisätä ennen kuin niiden palvelupisteet on lisätty, sillä nimet ratkaistaan vasta {@link #rakenna()}-kutsussa.
+	 */
+	public static class Rakentaja {
+
+		private final List<Piste> pisteet = new ArrayList<>();
+		private final List<String[]> reitit = new ArrayList<>();
+		private final List<Double> reittipainot = new ArrayList<>();
+		private final List<String[]> mobiilireitit = new ArrayList<>();
+
+		/**
+		 * Lisää palvelupisteen
+		 * @param nimi yksilöllinen nimi, jolla reitit viittaavat palvelupisteeseen
+		 * @param tyyppi palvelupisteen tapahtumien tyyppi
+		 * @param toiminta mitä palvelun päättyessä tapahtuu
+		 * @param odotusarvo käsittelyajan jakauman odotusarvo (jakaumaperhe valitaan asetuksista)
+		 * @param varianssi käsittelyajan jakauman varianssi (jakaumaperhe valitaan asetuksista)
+		 * @param palvelimia rinnakkaisten palvelimien määrä
+		 * @return tämä rakentaja
+		 */
+		public Rakentaja piste(String nimi, TapahtumanTyyppi tyyppi, Toiminta toiminta, int odotusarvo, int varianssi, int palvelimia) {
+			if (nimi.equals(SAAPUMINEN) || nimi.equals(POISTUMINEN)) {
+				throw new IllegalArgumentException("Varattu nimi " + nimi);
+			}
+			if (tyyppi == TapahtumanTyyppi.ARRIVAL) {
+				throw new IllegalArgumentException("Palvelupisteen tyyppi ei voi olla " + tyyppi);
+			}
+			if (palvelimia < 1) {
+				throw new IllegalArgumentException("Palvelimia on oltava vähintään yksi: " + palvelimia);
+			}
+			pisteet.add(new Piste(nimi, tyyppi, toiminta, odotusarvo, varianssi, palvelimia));
+			return this;
+		}
+
+		/**
+		 * Lisää reitin. Saman lähteen reitit arvotaan painojen suhteessa.
+		 * @param mista palvelupisteen nimi tai {@link #SAAPUMINEN}
+		 * @param minne palvelupisteen nimi tai {@link #POISTUMINEN}
+		 * @param paino reitin paino, ei negatiivinen
+		 * @return tämä rakentaja
+		 */
+		public Rakentaja reitti(String mista, String minne, double paino) {
+			if (!(paino >= 0) || Double.isInfinite(paino)) {
+				throw new IllegalArgumentException("Virheellinen paino " + paino);
+			}
+			reitit.add(new String[]{mista, minne});
+			reittipainot.add(paino);
+			return this;
+		}
+
+		/**
+		 * Lisää reittihaaran, jossa mobiililippujakauman osoittama osuus asiakkaista kulkee yhteen palvelupisteeseen ja muut toiseen.
+		 * @param mista palvelupisteen nimi tai {@link #SAAPUMINEN}
+		 * @param mobiili mobiililipullisten kohde
+		 * @param muut muiden asiakkaiden kohde
+		 * @return tämä rakentaja
+		 */
+		public Rakentaja mobiilireitti(String mista, String mobiili, String muut) {
+			mobiilireitit.add(new String[]{mista, mobiili, muut});
+			return this;
+		}
+
+		/**
+		 * Tarkistaa topologian ja rakentaa sen
+		 * @return topologia
+		 * @throws IllegalArgumentException jos nimi toistuu tai puuttuu, palvelupisteeltä (muulta kuin junalta) puuttuu reitti,
+		 * junalle on annettu reitti tai saapuminen johtaa suoraan poistumiseen
+		 */
+		public Topologia rakenna() {
+			int n = pisteet.size();
+			if (n == 0) {
+				throw new IllegalArgumentException("Topologiassa ei ole palvelupisteitä");
+			}
+			Map<String, Integer> indeksit = new HashMap<>();
+			for (int i = 0; i < n; i++) {
+				if (indeksit.put(pisteet.get(i).getNimi(), i) != null) {
+					throw new IllegalArgumentException("Palvelupiste " + pisteet.get(i).getNimi() + " on jo määritelty");
+				}
+			}
+			double[][] painot = new double[n + 1][n + 1];
+			boolean[] reitillinen = new boolean[n + 1];
+			for (int r = 0; r < reitit.size(); r++) {
+				int lahde = lahde(indeksit, reitit.get(r)[0]);
+				painot[lahde][kohde(indeksit, reitit.get(r)[1])] += reittipainot.get(r);
+				reitillinen[lahde] = true;
+			}
+			int[][] mobiili = new int[mobiilireitit.size()][];
+			for (int r = 0; r < mobiili.length; r++) {
+				String[] m = mobiilireitit.get(r);
+				mobiili[r] = new int[]{lahde(indeksit, m[0]), kohde(indeksit, m[1]), kohde(indeksit, m[2])};
+				if (reitillinen[mobiili[r][0]]) {
+					throw new IllegalArgumentException("Lähteellä " + m[0] + " on jo reitti");
+				}
+			}
+			for (int[] m : mobiili) {
+				reitillinen[m[0]] = true; // painot lisätään vasta käännettäessä mobiililippujakauman mukaan
+			}
+			for (int i = 0; i <= n; i++) {
+				String nimi = i == n ? SAAPUMINEN : pisteet.get(i).getNimi();
+				boolean juna = i < n && pisteet.get(i).getToiminta() == Toiminta.JUNA;
+				if (juna && reitillinen[i]) {
+					throw new IllegalArgumentException("Junasta " + nimi + " asiakkaat poistuvat, sille ei voi antaa reittiä");
+				}
+				if (!juna && !reitillinen[i]) {
+					throw new IllegalArgumentException("Lähteeltä " + nimi + " puuttuu reitti");
+				}
+			}
+			if (painot[n][n] > 0) {
+				throw new IllegalArgumentException("Saapuvat asiakkaat eivät voi poistua suoraan");
+			}
+			for (int[] m : mobiili) {
+				if (m[0] == n && (m[1] == n || m[2] == n)) {
+					throw new IllegalArgumentException("Saapuvat asiakkaat eivät voi poistua suoraan");
+				}
+			}
+			return new Topologia(new ArrayList<>(pisteet), painot, mobiili);
+		}
+
+		private int lahde(Map<String, Integer> indeksit, String nimi) {
+			return nimi.equals(SAAPUMINEN) ? pisteet.size() : indeksi(indeksit, nimi);
+		}
+
+		private int kohde(Map<String, Integer> indeksit, String nimi) {
+			return nimi.equals(POISTUMINEN) ? pisteet.size() : indeksi(indeksit, nimi);
+		}
+
+		private static int indeksi(Map<String, Integer> indeksit, String nimi) {
+			Integer i = indeksit.get(nimi);
+			if (i == null) {
+				throw new IllegalArgumentException("Tuntematon palvelupiste " + nimi);
+			}
+			return i;
+		}
+	}
+}
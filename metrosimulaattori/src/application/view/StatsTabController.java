@@ -2,13 +2,14 @@ package application.view;
 
 import application.MainApp;
 import application.controller.IKontrolleri;
-import application.simu.framework.Kello;
+import application.simu.framework.Jakaumatyyppi;
 import application.simu.framework.Tapahtuma;
 import application.simu.model.TapahtumanTyyppi;
 import javafx.application.Platform;
 import javafx.event.Event;
 import javafx.fxml.FXML;
 import javafx.scene.control.Alert;
+import javafx.scene.control.ComboBox;
 import javafx.scene.control.Control;
 import javafx.scene.control.Label;
 import javafx.scene.control.TextField;
@@ -39,6 +40,12 @@ public class StatsTabController implements  IVisualisointi {
     @FXML
     private TextField tfMetronKapasiteetti;
 
+    /**
+     * Käyttöliittymän ComboBox elementti fx:id cbJakaumatyyppi
+     */
+    @FXML
+    private ComboBox<Jakaumatyyppi> cbJakaumatyyppi;
+
     /**
      * Käyttöliittymän Label elementti fx:id labelSimuloinninTila
      */
@@ -161,6 +168,8 @@ public class StatsTabController implements  IVisualisointi {
     private void initialize() {
         kontrolleri = MainApp.getKontrol();
         kontrolleri.getMoottori();
+        cbJakaumatyyppi.getItems().setAll(Jakaumatyyppi.values());
+        cbJakaumatyyppi.setValue(kontrolleri.getJakaumatyyppi());
 
         // simuloinnin viiveen voi antaa enteriä painamalla kun simu on käynnissä
         tfSimuloinninViive.setOnKeyPressed(event -> {
@@ -178,6 +187,7 @@ public class StatsTabController implements  IVisualisointi {
 
         kontrolleri.setUi(this);
         setSimunSaapumisJakauma();
+        kontrolleri.setJakaumatyyppi(cbJakaumatyyppi.getValue());
         kontrolleri.getMoottori();
 
 
@@ -202,6 +212,7 @@ public class StatsTabController implements  IVisualisointi {
         tfEsiostetutliput.setEditable(sallitaanko);
         tfSaapumisenVarianssi.setEditable(sallitaanko);
         tfSaapumisenOdotusarvo.setEditable(sallitaanko);
+        cbJakaumatyyppi.setDisable(!sallitaanko);
     }
 
     /**
@@ -291,13 +302,13 @@ public class StatsTabController implements  IVisualisointi {
      */
     private void asetaAsemanTiedot() {
         if (kontrolleri.onkoKaynnissa()) {
-            if (Kello.getInstance().getAika() < Integer.parseInt(tfSimuloinninKesto.getText())) {
+            if (kontrolleri.getKellonAika() < Integer.parseInt(tfSimuloinninKesto.getText())) {
                 labelSimuloinninTila.setText("Käynnissä");
             } else {
                 labelSimuloinninTila.setText("Ei käynnissä");
             }
             DecimalFormat df = new DecimalFormat("#.##");
-            labelAika.setText(String.valueOf(df.format(Kello.getInstance().getAika())));
+            labelAika.setText(String.valueOf(df.format(kontrolleri.getKellonAika())));
             tfMetronKapasiteetti.setText(String.valueOf(kontrolleri.getMetronKapasiteetti()));
             tfAsemanKapasiteetti.setText(String.valueOf(kontrolleri.getAsemanKapasiteetti()));
             labelAsemassaOlevatAsiakkaat.setText(String.valueOf(kontrolleri.getAsiakkaatAsemassa()));